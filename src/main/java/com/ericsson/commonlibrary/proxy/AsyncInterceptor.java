@@ -0,0 +1,47 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Interface that lets you intercept invocations of methods that return a {@link CompletionStage} without blocking a
+ * thread while the returned stage is pending. Do the work before the call and chain the work after the call on the
+ * stage: "return invocation.invoke().thenApply(result -&gt; result);"
+ * <p>
+ * Methods that don't return a {@link CompletionStage} are not intercepted. Async and ordinary {@link Interceptor}s can
+ * be mixed on the same proxy, ordinary interceptors will see the returned stage as the return value.
+ */
+@FunctionalInterface
+public interface AsyncInterceptor {
+
+    /**
+     * Entry point of a asynchronous method interception.
+     *
+     * @param invocation
+     *            object that represents a method invocation and associated data.
+     *
+     * @return stage that will complete the stage returned from the intercepted method. Any exception thrown is returned
+     *         as a failed stage.
+     */
+    CompletionStage<Object> interceptAsync(AsyncInvocation invocation);
+}
@@ -0,0 +1,92 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Represents a invocation of a method that returns a {@link CompletionStage}, passed to {@link AsyncInterceptor}s.
+ */
+public final class AsyncInvocation {
+
+    private final Invocation invocation;
+
+    AsyncInvocation(Invocation invocation) {
+        this.invocation = invocation;
+    }
+
+    /**
+     * @return the object that was intercepted.
+     */
+    public Object getThis() {
+        return invocation.getThis();
+    }
+
+    /**
+     * @return the method that was intercepted.
+     */
+    public Method getMethod() {
+        return invocation.getMethod();
+    }
+
+    /**
+     * @return the methodName of the method that was intercepted.
+     */
+    public String getMethodName() {
+        return invocation.getMethodName();
+    }
+
+    /**
+     * @return passed parameters to the intercepted method.
+     */
+    public Object[] getParameters() {
+        return invocation.getParameters();
+    }
+
+    /**
+     * Invokes the method. Which may be another interceptor or the concrete object. Returns as soon as the method has
+     * returned its stage.
+     *
+     * @return the stage returned by the next interceptor or the original method. Exceptions thrown are returned as a
+     *         failed stage.
+     */
+    @SuppressWarnings({ "unchecked", "squid:S1181" })
+    public CompletionStage<Object> invoke() {
+        try {
+            Object result = invocation.invoke();
+            if (result == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return (CompletionStage<Object>) result;
+        } catch (Throwable t) {
+            return failed(t);
+        }
+    }
+
+    static CompletionStage<Object> failed(Throwable t) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        future.completeExceptionally(t);
+        return future;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configures the batching done by {@link Proxy#batch(Object, BatchSpec)}. Maps a single item method, for example
+ * "find(id)", to a bulk method, for example "findAll(Collection ids)". The bulk method must take one parameter that a
+ * {@link List} of the ids can be passed as and return either a {@link Map} from id to result or a {@link List} with the
+ * results in the same order as the ids.
+ *
+ * <pre>
+ * BatchSpec spec = BatchSpec
+ *         .batch(Repository.class.getMethod("find", String.class),
+ *                 Repository.class.getMethod("findAll", Collection.class))
+ *         .maxBatchSize(50).maxWait(2, TimeUnit.MILLISECONDS);
+ * Repository repository = Proxy.batch(new RepositoryImpl(), spec);
+ * </pre>
+ */
+public final class BatchSpec {
+
+    static final int DEFAULT_MAX_BATCH_SIZE = 100;
+    static final long DEFAULT_MAX_WAIT_MILLIS = 2;
+
+    private final Method singleMethod;
+    private final Method bulkMethod;
+    private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_MAX_WAIT_MILLIS);
+
+    private BatchSpec(Method singleMethod, Method bulkMethod) {
+        this.singleMethod = singleMethod;
+        this.bulkMethod = bulkMethod;
+    }
+
+    /**
+     * @param singleMethod
+     *            the method with one parameter whose calls are batched
+     * @param bulkMethod
+     *            the method that is called with a list of the parameters of the batched calls
+     *
+     * @return a spec batching up to {@value #DEFAULT_MAX_BATCH_SIZE} calls waiting at most
+     *         {@value #DEFAULT_MAX_WAIT_MILLIS} ms.
+     */
+    public static BatchSpec batch(Method singleMethod, Method bulkMethod) {
+        if (singleMethod.getParameterCount() != 1) {
+            throw new IllegalArgumentException("The single method must have one parameter: " + singleMethod);
+        }
+        if (bulkMethod.getParameterCount() != 1 || !bulkMethod.getParameterTypes()[0].isAssignableFrom(List.class)) {
+            throw new IllegalArgumentException(
+                    "The bulk method must have one parameter that accepts a List: " + bulkMethod);
+        }
+        Class<?> returnType = bulkMethod.getReturnType();
+        if (!Map.class.isAssignableFrom(returnType) && !List.class.isAssignableFrom(returnType)) {
+            throw new IllegalArgumentException("The bulk method must return a Map or a List: " + bulkMethod);
+        }
+        return new BatchSpec(singleMethod, bulkMethod);
+    }
+
+    /**
+     * @param maxBatchSize
+     *            the batch is sent as soon as it has this many distinct parameters.
+     *
+     * @return this
+     */
+    public BatchSpec maxBatchSize(int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+        }
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    /**
+     * @param maxWait
+     *            how long the first call of a batch waits for more calls before the batch is sent.
+     * @param unit
+     *            of the wait
+     *
+     * @return this
+     */
+    public BatchSpec maxWait(long maxWait, TimeUnit unit) {
+        if (maxWait < 0) {
+            throw new IllegalArgumentException("maxWait can't be negative: " + maxWait);
+        }
+        this.maxWaitNanos = unit.toNanos(maxWait);
+        return this;
+    }
+
+    Method getSingleMethod() {
+        return singleMethod;
+    }
+
+    Method getBulkMethod() {
+        return bulkMethod;
+    }
+
+    int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    long getMaxWaitNanos() {
+        return maxWaitNanos;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+/**
+ * Statistics of the batching done by {@link Proxy#batch(Object, BatchSpec)} at the time the snapshot was taken. The
+ * batch sizes are counted exactly, the wait times are taken from a histogram where percentiles are within 6.25% of the
+ * real value.
+ */
+public final class BatchStats {
+
+    private final long[] batchSizeCounts;
+    private final long batchCount;
+    private final LatencyHistogram.Snapshot waits;
+
+    /**
+     * @param batchSizeCounts
+     *            the number of bulk calls of each size, indexed by the size.
+     */
+    BatchStats(long[] batchSizeCounts, LatencyHistogram.Snapshot waits) {
+        this.batchSizeCounts = batchSizeCounts;
+        this.waits = waits;
+        long count = 0;
+        for (long sizeCount : batchSizeCounts) {
+            count += sizeCount;
+        }
+        this.batchCount = count;
+    }
+
+    /**
+     * @return number of bulk calls.
+     */
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * @return number of single calls that were batched.
+     */
+    public long getCallCount() {
+        return waits.getCount();
+    }
+
+    /**
+     * @return average number of distinct parameters per bulk call.
+     */
+    public double getMeanBatchSize() {
+        if (batchCount == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int size = 0; size < batchSizeCounts.length; size++) {
+            sum += size * batchSizeCounts[size];
+        }
+        return (double) sum / batchCount;
+    }
+
+    /**
+     * @return largest number of distinct parameters in a bulk call.
+     */
+    public long getMaxBatchSize() {
+        for (int size = batchSizeCounts.length - 1; size > 0; size--) {
+            if (batchSizeCounts[size] > 0) {
+                return size;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @param percentile
+     *            between 0 and 100
+     *
+     * @return the batch size at the percentile.
+     */
+    public long getBatchSizePercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("The percentile must be between 0 and 100, was: " + percentile);
+        }
+        if (batchCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * batchCount));
+        long seen = 0;
+        for (int size = 0; size < batchSizeCounts.length; size++) {
+            seen += batchSizeCounts[size];
+            if (seen >= rank) {
+                return size;
+            }
+        }
+        return getMaxBatchSize();
+    }
+
+    /**
+     * @return average time a call waited for its bulk call to be sent.
+     */
+    public double getMeanWaitNanos() {
+        return waits.getMean();
+    }
+
+    /**
+     * @return longest time a call waited for its bulk call to be sent.
+     */
+    public long getMaxWaitNanos() {
+        return waits.getMax();
+    }
+
+    /**
+     * @param percentile
+     *            between 0 and 100
+     *
+     * @return the wait time at the percentile.
+     */
+    public long getWaitPercentileNanos(double percentile) {
+        return waits.getPercentile(percentile);
+    }
+
+    @Override
+    public String toString() {
+        return "batches=" + getBatchCount() + " calls=" + getCallCount() + " meanBatchSize=" + getMeanBatchSize()
+                + " maxBatchSize=" + getMaxBatchSize() + " meanWaitNanos=" + getMeanWaitNanos();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Configures the caching done by {@link Proxy#cache(Object, CacheSpec)}. Every cached method gets its own bounded store
+ * keyed on the argument values. The methods are selected with {@link #methods(Method...)}, {@link #methods(Predicate)}
+ * or {@link #annotatedMethods()}, by default all methods with a return value except the ones declared in {@link Object}
+ * and overrides of toString, hashCode and equals. A {@link Cached} annotation on a method overrides the spec for that
+ * method.
+ *
+ * <pre>
+ * CacheSpec spec = CacheSpec.spec().maximumSize(10000).expireAfterWrite(10, TimeUnit.MINUTES);
+ * MyService service = Proxy.cache(new MyService(), spec);
+ * </pre>
+ *
+ * The spec is read when the proxy is created, changing it afterwards does not affect existing proxies.
+ */
+public final class CacheSpec {
+
+    static final long DEFAULT_MAXIMUM_SIZE = 1000;
+
+    private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+    private long expireAfterWriteNanos;
+    private boolean softValues;
+    private Predicate<Method> methods = method -> method.getReturnType() != void.class
+            && method.getDeclaringClass() != Object.class && !Util.isToStringOrHashcodeOrEqualsMethod(method);
+
+    private CacheSpec() {
+    }
+
+    /**
+     * @return a spec caching up to {@value #DEFAULT_MAXIMUM_SIZE} results per method without expiry.
+     */
+    public static CacheSpec spec() {
+        return new CacheSpec();
+    }
+
+    /**
+     * @param maximumSize
+     *            maximum number of cached results per method, the least valuable ones are evicted first.
+     *
+     * @return this
+     */
+    public CacheSpec maximumSize(long maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        return this;
+    }
+
+    /**
+     * @param duration
+     *            how long a result is cached after it was returned by the method.
+     * @param unit
+     *            of the duration
+     *
+     * @return this
+     */
+    public CacheSpec expireAfterWrite(long duration, TimeUnit unit) {
+        if (duration < 1) {
+            throw new IllegalArgumentException("duration must be positive: " + duration);
+        }
+        this.expireAfterWriteNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * Holds the cached results with soft references, so they can be garbage collected when memory is low.
+     *
+     * @return this
+     */
+    public CacheSpec softValues() {
+        this.softValues = true;
+        return this;
+    }
+
+    /**
+     * Only cache the methods with the same signature as one of the given methods.
+     *
+     * @param methodsToCache
+     *            the methods to cache
+     *
+     * @return this
+     */
+    public CacheSpec methods(Method... methodsToCache) {
+        return methods(Util.signatureOneOf(methodsToCache));
+    }
+
+    /**
+     * Only cache the methods matching the predicate.
+     *
+     * @param predicate
+     *            on the invoked method
+     *
+     * @return this
+     */
+    public CacheSpec methods(Predicate<Method> predicate) {
+        this.methods = predicate;
+        return this;
+    }
+
+    /**
+     * Only cache the methods annotated with {@link Cached}.
+     *
+     * @return this
+     */
+    public CacheSpec annotatedMethods() {
+        return methods(method -> method.isAnnotationPresent(Cached.class));
+    }
+
+    long getMaximumSize() {
+        return maximumSize;
+    }
+
+    long getExpireAfterWriteNanos() {
+        return expireAfterWriteNanos;
+    }
+
+    boolean isSoftValues() {
+        return softValues;
+    }
+
+    Predicate<Method> getMethods() {
+        return methods;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+/**
+ * Statistics of a cache created by {@link Proxy#cache(Object, CacheSpec)} at the time the snapshot was taken.
+ */
+public final class CacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long size;
+    private final long waitCount;
+
+    CacheStats(long hitCount, long missCount, long evictionCount, long size, long waitCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+        this.waitCount = waitCount;
+    }
+
+    CacheStats plus(CacheStats other) {
+        return new CacheStats(hitCount + other.hitCount, missCount + other.missCount,
+                evictionCount + other.evictionCount, size + other.size, waitCount + other.waitCount);
+    }
+
+    /**
+     * @return number of calls answered from the cache, including calls that waited for another thread's call.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return number of calls that invoked the method.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return number of results removed because the cache was full, they expired or they were garbage collected.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return number of cached results, calls that are still loading a result are not included.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return number of calls that waited for another thread's call with the same arguments instead of invoking the
+     *         method. They are also counted as hits.
+     */
+    public long getWaitCount() {
+        return waitCount;
+    }
+
+    /**
+     * @return hits divided by all calls, 1 if there have been no calls.
+     */
+    public double getHitRate() {
+        long calls = hitCount + missCount;
+        return calls == 0 ? 1 : (double) hitCount / calls;
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + hitCount + " misses=" + missCount + " evictions=" + evictionCount + " size=" + size + " waits="
+                + waitCount;
+    }
+}
@@ -0,0 +1,263 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.ref.SoftReference;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The cached results of one method for {@link InterceptorCache}. Lookups are lock free on a {@link ConcurrentHashMap}.
+ * Eviction uses a segmented LRU: new results enter a probation segment and are promoted to a protected segment when
+ * they are read again, so results that are only used once are evicted before frequently used ones. Reordering on a hit
+ * is skipped if another thread holds the lock, which only makes the order slightly less exact.
+ * <p>
+ * A miss puts a not yet completed future in the map before invoking the method, so concurrent calls with the same
+ * arguments wait for the first call instead of invoking the method again. If the method throws, the waiting calls throw
+ * the same exception and nothing is cached. The wait can be interrupted, and a call with the same arguments made by the
+ * loading thread itself while loading invokes the method directly instead of waiting for itself.
+ */
+final class CacheStore {
+
+    private static final int PROTECTED_PERCENT = 80;
+    private static final Object NULL = new Object();
+    private static final Object COLLECTED = new Object();
+
+    private final long maximumSize;
+    private final long maximumProtected;
+    private final long expireAfterWriteNanos;
+    private final boolean softValues;
+
+    private final ConcurrentHashMap<MethodCallKey, Node> map = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Node probation = new Node(null);
+    private final Node protectedSegment = new Node(null);
+    private long size;
+    private long protectedSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+
+    CacheStore(long maximumSize, long expireAfterWriteNanos, boolean softValues) {
+        this.maximumSize = maximumSize;
+        this.maximumProtected = Math.max(1, maximumSize * PROTECTED_PERCENT / 100);
+        this.expireAfterWriteNanos = expireAfterWriteNanos;
+        this.softValues = softValues;
+        probation.prev = probation;
+        probation.next = probation;
+        protectedSegment.prev = protectedSegment;
+        protectedSegment.next = protectedSegment;
+    }
+
+    /**
+     * @return the cached result or the result of invoking the method.
+     */
+    Object get(MethodCallKey key, Invocation invocation) throws Throwable {
+        while (true) {
+            Node node = map.get(key);
+            if (node == null) {
+                Node created = new Node(key);
+                node = map.putIfAbsent(key, created);
+                if (node == null) {
+                    return load(created, invocation);
+                }
+            }
+            if (node.isExpired(expireAfterWriteNanos)) {
+                remove(node);
+                continue;
+            }
+            if (!node.future.isDone()) {
+                if (node.loadingThread == Thread.currentThread()) {
+                    return invocation.invoke(); // reentrant call while loading, it would wait for itself.
+                }
+                waits.increment();
+            }
+            Object value = node.await(invocation);
+            if (value == COLLECTED) {
+                remove(node);
+                continue;
+            }
+            hits.increment();
+            recordHit(node);
+            return value == NULL ? null : value;
+        }
+    }
+
+    CacheStats stats() {
+        long linkedSize;
+        lock.lock();
+        try {
+            linkedSize = size; // the map also holds results that are still loading.
+        } finally {
+            lock.unlock();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), linkedSize, waits.sum());
+    }
+
+    @SuppressWarnings("squid:S1181")
+    private Object load(Node node, Invocation invocation) throws Throwable {
+        misses.increment();
+        node.loadingThread = Thread.currentThread();
+        Object result;
+        try {
+            result = invocation.invoke();
+        } catch (Throwable t) {
+            map.remove(node.key, node);
+            node.loadingThread = null;
+            node.future.completeExceptionally(t);
+            throw t;
+        }
+        Object value = result == null ? NULL : result;
+        node.writeNanos = System.nanoTime();
+        node.loadingThread = null;
+        node.future.complete(softValues ? new SoftValue(value) : value);
+        insert(node);
+        return result;
+    }
+
+    private void recordHit(Node node) {
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            if (!node.linked) {
+                return;
+            }
+            unlink(node);
+            if (!node.protectedNode) {
+                node.protectedNode = true;
+                protectedSize++;
+            }
+            linkFirst(protectedSegment, node);
+            while (protectedSize > maximumProtected) {
+                Node demoted = protectedSegment.prev;
+                unlink(demoted);
+                demoted.protectedNode = false;
+                protectedSize--;
+                linkFirst(probation, demoted);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void insert(Node node) {
+        lock.lock();
+        try {
+            if (map.get(node.key) != node) {
+                return; // removed while loading
+            }
+            linkFirst(probation, node);
+            size++;
+            while (size > maximumSize) {
+                Node victim = probation.prev != probation ? probation.prev : protectedSegment.prev;
+                evict(victim);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(Node node) {
+        if (!map.remove(node.key, node)) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (node.linked) {
+                evict(node);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evict(Node node) {
+        unlink(node);
+        size--;
+        if (node.protectedNode) {
+            protectedSize--;
+        }
+        map.remove(node.key, node);
+        evictions.increment();
+    }
+
+    private static void linkFirst(Node head, Node node) {
+        node.prev = head;
+        node.next = head.next;
+        head.next.prev = node;
+        head.next = node;
+        node.linked = true;
+    }
+
+    private static void unlink(Node node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+        node.linked = false;
+    }
+
+    private static final class SoftValue extends SoftReference<Object> {
+
+        SoftValue(Object value) {
+            super(value);
+        }
+    }
+
+    /**
+     * A cached result. The links and segment flag are only accessed while holding the lock.
+     */
+    private static final class Node {
+
+        private final MethodCallKey key;
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        private volatile long writeNanos;
+        private volatile Thread loadingThread;
+        private Node prev;
+        private Node next;
+        private boolean linked;
+        private boolean protectedNode;
+
+        Node(MethodCallKey key) {
+            this.key = key;
+        }
+
+        boolean isExpired(long expireAfterWriteNanos) {
+            return expireAfterWriteNanos > 0 && future.isDone() && !future.isCompletedExceptionally()
+                    && System.nanoTime() - writeNanos >= expireAfterWriteNanos;
+        }
+
+        Object await(Invocation invocation) throws Throwable {
+            Object stored = Util.awaitResult(future, "a concurrent call to: " + invocation.getMethodName());
+            if (stored instanceof SoftValue) {
+                Object value = ((SoftValue) stored).get();
+                return value == null ? COLLECTED : value;
+            }
+            return stored;
+        }
+    }
+}
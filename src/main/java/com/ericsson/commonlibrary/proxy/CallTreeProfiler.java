@@ -0,0 +1,286 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds a call tree of the intercepted methods of objects profiled with
+ * {@link Proxy#profile(Object, CallTreeProfiler)}. Every thread records into its own tree without any locks or shared
+ * counters, the trees are merged when the result is exported. The trees of threads that have ended are merged into one
+ * tree and dropped, so threads that come and go don't grow the profiler.
+ * <p>
+ * Calls are nested in the tree when a profiled object calls another profiled object, for example a service that is
+ * created with profiled dependencies. Calls a object does on itself don't go through the proxy and are not seen.
+ * <p>
+ * The tree can be exported as collapsed stacks, the text format used by flame graph tools where every line is the
+ * frames of a stack separated by ';' followed by the exclusive time in nanoseconds, or as a JSON tree with counts and
+ * inclusive/exclusive times.
+ *
+ * <pre>
+ * CallTreeProfiler profiler = new CallTreeProfiler();
+ * MyService service = Proxy.profile(new MyService(), profiler);
+ * service.doWork();
+ * String flameGraphInput = profiler.toCollapsedStacks();
+ * </pre>
+ */
+public final class CallTreeProfiler {
+
+    private final Queue<ThreadTree> trees = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<ThreadTree> currentTree = new ThreadLocal<>();
+    private final AtomicInteger generation = new AtomicInteger();
+    private MergedNode endedThreads = new MergedNode("root");
+
+    /**
+     * Discards everything recorded so far. Calls that are executing while the reset is done are not recorded.
+     */
+    public synchronized void reset() {
+        generation.incrementAndGet();
+        trees.clear();
+        endedThreads = new MergedNode("root");
+    }
+
+    /**
+     * @return the merged call tree of all threads in the collapsed stack format, one line per stack.
+     */
+    public String toCollapsedStacks() {
+        StringBuilder builder = new StringBuilder();
+        for (MergedNode child : merge().children.values()) {
+            child.appendCollapsed(builder, "");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return the merged call tree of all threads as JSON, for example
+     *         {"name":"root","count":0,"inclusiveNanos":10,"exclusiveNanos":0,"children":[...]}
+     */
+    public String toJson() {
+        StringBuilder builder = new StringBuilder();
+        merge().appendJson(builder);
+        return builder.toString();
+    }
+
+    void enter(Method method) {
+        tree().enter(method);
+    }
+
+    void exit(long nanos) {
+        ThreadTree tree = currentTree.get();
+        if (tree != null) {
+            tree.exit(nanos);
+        }
+    }
+
+    /**
+     * @return the number of thread trees that are kept separately, only the trees of threads that are still alive.
+     */
+    int threadTreeCount() {
+        return trees.size();
+    }
+
+    private ThreadTree tree() {
+        ThreadTree tree = currentTree.get();
+        int currentGeneration = generation.get();
+        if (tree == null || tree.generation != currentGeneration && tree.isIdle()) {
+            tree = new ThreadTree(currentGeneration);
+            currentTree.set(tree);
+            trees.add(tree);
+        }
+        return tree;
+    }
+
+    private synchronized MergedNode merge() {
+        for (Iterator<ThreadTree> iterator = trees.iterator(); iterator.hasNext();) {
+            ThreadTree tree = iterator.next();
+            if (tree.hasThreadEnded()) {
+                endedThreads.merge(tree.root);
+                iterator.remove();
+            }
+        }
+        MergedNode root = new MergedNode("root");
+        root.merge(endedThreads);
+        for (ThreadTree tree : trees) {
+            root.merge(tree.root);
+        }
+        root.inclusiveNanos = root.childrenNanos;
+        return root;
+    }
+
+    /**
+     * The tree of one thread, only modified by that thread.
+     */
+    private static final class ThreadTree {
+
+        private final int generation;
+        private final WeakReference<Thread> thread = new WeakReference<>(Thread.currentThread());
+        private final Node root = new Node("root");
+        private final List<Node> stack = new ArrayList<>();
+
+        ThreadTree(int generation) {
+            this.generation = generation;
+            stack.add(root);
+        }
+
+        /**
+         * A thread that has ended will not modify its tree again.
+         */
+        boolean hasThreadEnded() {
+            Thread owner = thread.get();
+            return owner == null || !owner.isAlive();
+        }
+
+        boolean isIdle() {
+            return stack.size() == 1;
+        }
+
+        void enter(Method method) {
+            Node parent = stack.get(stack.size() - 1);
+            stack.add(parent.child(method));
+        }
+
+        void exit(long nanos) {
+            if (isIdle()) {
+                return; // entered before a reset
+            }
+            Node node = stack.remove(stack.size() - 1);
+            node.count++;
+            node.inclusiveNanos += nanos;
+            stack.get(stack.size() - 1).childrenNanos += nanos;
+        }
+    }
+
+    /**
+     * A method in a thread tree. Written by a single thread, the volatile fields make the values visible to the thread
+     * exporting the tree.
+     */
+    private static final class Node {
+
+        private final String name;
+        private final Map<Method, Node> children = new ConcurrentHashMap<>();
+        private volatile long count;
+        private volatile long inclusiveNanos;
+        private volatile long childrenNanos;
+
+        Node(String name) {
+            this.name = name;
+        }
+
+        Node child(Method method) {
+            Node child = children.get(method);
+            if (child == null) {
+                child = new Node(method.getDeclaringClass().getName() + "." + method.getName());
+                children.put(method, child);
+            }
+            return child;
+        }
+    }
+
+    /**
+     * A node of the tree that is merged from all threads, frames with the same name are merged.
+     */
+    private static final class MergedNode {
+
+        private final String name;
+        private final Map<String, MergedNode> children = new TreeMap<>();
+        private long count;
+        private long inclusiveNanos;
+        private long childrenNanos;
+
+        MergedNode(String name) {
+            this.name = name;
+        }
+
+        void merge(Node node) {
+            count += node.count;
+            inclusiveNanos += node.inclusiveNanos;
+            childrenNanos += node.childrenNanos;
+            for (Node child : node.children.values()) {
+                children.computeIfAbsent(child.name, MergedNode::new).merge(child);
+            }
+        }
+
+        void merge(MergedNode node) {
+            count += node.count;
+            inclusiveNanos += node.inclusiveNanos;
+            childrenNanos += node.childrenNanos;
+            for (MergedNode child : node.children.values()) {
+                children.computeIfAbsent(child.name, MergedNode::new).merge(child);
+            }
+        }
+
+        long exclusiveNanos() {
+            return Math.max(0, inclusiveNanos - childrenNanos);
+        }
+
+        void appendCollapsed(StringBuilder builder, String parentStack) {
+            String stack = parentStack.isEmpty() ? name : parentStack + ";" + name;
+            if (exclusiveNanos() > 0) {
+                builder.append(stack).append(' ').append(exclusiveNanos()).append('\n');
+            }
+            for (MergedNode child : children.values()) {
+                child.appendCollapsed(builder, stack);
+            }
+        }
+
+        void appendJson(StringBuilder builder) {
+            builder.append("{\"name\":\"");
+            appendEscaped(builder, name);
+            builder.append("\",\"count\":").append(count);
+            builder.append(",\"inclusiveNanos\":").append(inclusiveNanos);
+            builder.append(",\"exclusiveNanos\":").append(exclusiveNanos());
+            builder.append(",\"children\":[");
+            boolean first = true;
+            for (MergedNode child : children.values()) {
+                if (!first) {
+                    builder.append(',');
+                }
+                first = false;
+                child.appendJson(builder);
+            }
+            builder.append("]}");
+        }
+
+        private static void appendEscaped(StringBuilder builder, String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    builder.append('\\').append(c);
+                } else if (c < ' ') {
+                    builder.append(String.format("\\u%04x", (int) c));
+                } else {
+                    builder.append(c);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javassist.util.proxy.ProxyObject;
+
+/**
+ * The statistics of all methods of one proxied class in a {@link InvocationMetrics}.
+ */
+final class ClassMetrics {
+
+    private final Class<?> proxiedClass;
+    private final Map<Method, MethodMetrics> methods = new ConcurrentHashMap<>();
+    private volatile WeakReference<Object> lastProxy = new WeakReference<>(null);
+
+    ClassMetrics(Class<?> proxiedClass) {
+        this.proxiedClass = proxiedClass;
+    }
+
+    Class<?> getProxiedClass() {
+        return proxiedClass;
+    }
+
+    MethodMetrics forMethod(Method method) {
+        MethodMetrics metrics = methods.get(method);
+        if (metrics == null) {
+            metrics = methods.computeIfAbsent(method, key -> new MethodMetrics(proxiedClass, key));
+        }
+        return metrics;
+    }
+
+    Collection<MethodMetrics> getMethods() {
+        return methods.values();
+    }
+
+    /**
+     * Remembers a proxy so the interceptor chain can be inspected, without keeping the proxy alive.
+     */
+    void setLastProxy(Object proxy) {
+        lastProxy = new WeakReference<>(proxy);
+    }
+
+    /**
+     * @return the class names of the interceptors of the last created proxy, or a empty list if it's gone.
+     */
+    List<String> getInterceptorNames() {
+        Object proxy = lastProxy.get();
+        if (!(proxy instanceof InterceptableProxy)) {
+            return Collections.emptyList();
+        }
+        List<String> names = new ArrayList<>();
+        for (Interceptor interceptor : Proxy.getProxyInterface(proxy).getInterceptorList()) {
+            names.add(interceptor.getClass().getSimpleName());
+        }
+        return names;
+    }
+
+    /**
+     * @return the class the user proxied, not the generated proxy class.
+     */
+    static Class<?> getProxiedClass(Class<?> clazz) {
+        if (!ProxyObject.class.isAssignableFrom(clazz)) {
+            return clazz;
+        }
+        if (clazz.getSuperclass() != Object.class) {
+            return clazz.getSuperclass();
+        }
+        for (Class<?> anInterface : clazz.getInterfaces()) {
+            if (anInterface != InterceptableProxy.class && anInterface != ProxyObject.class) {
+                return anInterface;
+            }
+        }
+        return clazz;
+    }
+}
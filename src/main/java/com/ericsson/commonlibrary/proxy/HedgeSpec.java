@@ -0,0 +1,136 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Configures the hedging done by {@link Proxy#hedge(Class, HedgeSpec, Object...)}. The delay before the hedged call is
+ * either fixed or follows a percentile of the observed latency of each method.
+ *
+ * <pre>
+ * HedgeSpec spec = HedgeSpec.hedgeAfterPercentile(95, 20, TimeUnit.MILLISECONDS);
+ * Backend backend = Proxy.hedge(Backend.class, spec, replica1, replica2);
+ * </pre>
+ *
+ * Only hedge idempotent methods, the method may be invoked on two delegates for the same call.
+ */
+public final class HedgeSpec {
+
+    static final int MIN_SAMPLES = 100;
+
+    private final long delayNanos;
+    private final double percentile;
+    private Executor executor;
+    private Predicate<Method> methods = method -> method.getDeclaringClass() != Object.class;
+
+    private HedgeSpec(long delayNanos, double percentile) {
+        this.delayNanos = delayNanos;
+        this.percentile = percentile;
+    }
+
+    /**
+     * @param delay
+     *            how long the primary call can take before the hedged call is made.
+     * @param unit
+     *            of the delay
+     *
+     * @return a spec with a fixed delay
+     */
+    public static HedgeSpec hedgeAfter(long delay, TimeUnit unit) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("delay can't be negative: " + delay);
+        }
+        return new HedgeSpec(unit.toNanos(delay), -1);
+    }
+
+    /**
+     * The delay follows the percentile of the latencies of the primary delegate observed per method. Until a method has
+     * {@value #MIN_SAMPLES} successful calls the initial delay is used, after that the delay is recalculated every 64
+     * calls.
+     *
+     * @param percentile
+     *            between 0 and 100, for example 95
+     * @param initialDelay
+     *            used until enough calls have been observed.
+     * @param unit
+     *            of the initial delay
+     *
+     * @return a spec with a delay that adapts to the observed latencies
+     */
+    public static HedgeSpec hedgeAfterPercentile(double percentile, long initialDelay, TimeUnit unit) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be above 0 and at most 100: " + percentile);
+        }
+        if (initialDelay < 0) {
+            throw new IllegalArgumentException("initialDelay can't be negative: " + initialDelay);
+        }
+        return new HedgeSpec(unit.toNanos(initialDelay), percentile);
+    }
+
+    /**
+     * @param executor
+     *            that runs the calls to the delegates. By default the same executor as {@link Proxy#async(Object)}.
+     *
+     * @return this
+     */
+    public HedgeSpec executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Only hedge the methods with the same signature as one of the given methods, the other methods are only invoked on
+     * the primary delegate.
+     *
+     * @param methodsToHedge
+     *            the methods to hedge
+     *
+     * @return this
+     */
+    public HedgeSpec methods(Method... methodsToHedge) {
+        this.methods = Util.signatureOneOf(methodsToHedge);
+        return this;
+    }
+
+    long getDelayNanos() {
+        return delayNanos;
+    }
+
+    /**
+     * @return the percentile the delay follows or a negative value for a fixed delay.
+     */
+    double getPercentile() {
+        return percentile;
+    }
+
+    Executor getExecutor() {
+        return executor == null ? OffloadExecutors.defaultExecutor() : executor;
+    }
+
+    Predicate<Method> getMethods() {
+        return methods;
+    }
+}
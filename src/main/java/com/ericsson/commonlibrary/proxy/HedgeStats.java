@@ -0,0 +1,79 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+/**
+ * Statistics of the hedging done by {@link Proxy#hedge(Class, HedgeSpec, Object...)} at the time the snapshot was
+ * taken.
+ */
+public final class HedgeStats {
+
+    private final long callCount;
+    private final long hedgedCount;
+    private final long hedgeWinCount;
+
+    HedgeStats(long callCount, long hedgedCount, long hedgeWinCount) {
+        this.callCount = callCount;
+        this.hedgedCount = hedgedCount;
+        this.hedgeWinCount = hedgeWinCount;
+    }
+
+    /**
+     * @return number of calls to hedged methods.
+     */
+    public long getCallCount() {
+        return callCount;
+    }
+
+    /**
+     * @return number of calls where the primary was too slow and a hedged call was made.
+     */
+    public long getHedgedCount() {
+        return hedgedCount;
+    }
+
+    /**
+     * @return number of hedged calls that returned before the primary call.
+     */
+    public long getHedgeWinCount() {
+        return hedgeWinCount;
+    }
+
+    /**
+     * @return hedged calls divided by all calls, 0 if there have been no calls.
+     */
+    public double getHedgeRate() {
+        return callCount == 0 ? 0 : (double) hedgedCount / callCount;
+    }
+
+    /**
+     * @return hedged calls that won divided by all hedged calls, 0 if there have been no hedged calls.
+     */
+    public double getWinRate() {
+        return hedgedCount == 0 ? 0 : (double) hedgeWinCount / hedgedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "calls=" + callCount + " hedged=" + hedgedCount + " hedgeWins=" + hedgeWinCount;
+    }
+}
@@ -336,6 +336,8 @@ final class InterceptableProxyFactory {
 
         @Override
         public Object invoke(Object self, Method method, Method proceed, Object[] args) throws Throwable {
+            boolean measured = ProxyOverhead.isEnabled();
+            long start = measured ? System.nanoTime() : 0;
 
             if (Util.methodSignatureEquals(method, addInterceptorMethod)) {
                 interceptorStack.push((Interceptor) args[0]);
@@ -349,7 +351,16 @@ final class InterceptableProxyFactory {
                 return interceptorStack;
             }
 
-            return new Invocation(self, method, proceed, args, interceptorStack.clone()).invoke();
+            if (!measured) {
+                return new Invocation(self, method, proceed, args, interceptorStack.clone()).invoke();
+            }
+            ProxyOverhead.Counters overhead = ProxyOverhead.forProxyClass(self.getClass());
+            Invocation invocation = new Invocation(self, method, proceed, args, interceptorStack.clone(), overhead);
+            try {
+                return invocation.invoke();
+            } finally {
+                overhead.recordDispatch(System.nanoTime() - start - invocation.finishMeasurement());
+            }
             // TODO wrap the checked exception if it is thrown even if its not declared in the interface.
         }
     }
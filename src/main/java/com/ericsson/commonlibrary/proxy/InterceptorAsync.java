@@ -0,0 +1,66 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A {@link Interceptor} that adapts a {@link AsyncInterceptor} to the interceptor chain. Only methods that returns a
+ * {@link CompletionStage} are passed to the async interceptor, the rest are invoked as they are.
+ */
+final class InterceptorAsync implements Interceptor {
+
+    private final AsyncInterceptor asyncInterceptor;
+
+    InterceptorAsync(AsyncInterceptor asyncInterceptor) {
+        this.asyncInterceptor = asyncInterceptor;
+    }
+
+    @Override
+    @SuppressWarnings("squid:S1181")
+    public Object intercept(Invocation invocation) throws Throwable {
+        Class<?> returnType = invocation.getMethod().getReturnType();
+        if (!CompletionStage.class.isAssignableFrom(returnType)) {
+            return invocation.invoke();
+        }
+        CompletionStage<Object> stage;
+        try {
+            stage = asyncInterceptor.interceptAsync(new AsyncInvocation(invocation));
+        } catch (Throwable t) {
+            stage = AsyncInvocation.failed(t);
+        }
+        return adaptToReturnType(stage, returnType, invocation);
+    }
+
+    private static Object adaptToReturnType(CompletionStage<Object> stage, Class<?> returnType, Invocation invocation) {
+        if (stage == null || returnType.isInstance(stage)) {
+            return stage;
+        }
+        CompletableFuture<Object> future = stage.toCompletableFuture();
+        if (returnType.isInstance(future)) {
+            return future;
+        }
+        throw new ProxyException("The stage returned by the async interceptor is not a " + returnType.getName()
+                + " which is needed by method: " + invocation.getMethodName());
+    }
+}
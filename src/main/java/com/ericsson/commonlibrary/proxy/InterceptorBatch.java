@@ -0,0 +1,215 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link Interceptor} that turns concurrent calls of a single item method into one call of a bulk method. The first
+ * call opens a batch and becomes its leader, it waits until the batch is full or the max wait has passed and then calls
+ * the bulk method on its own thread. Calls arriving meanwhile add their parameter to the batch and wait for their
+ * result. No background thread is used.
+ * <p>
+ * Waiting for the result can be interrupted. Calls made by the bulk method itself, on the thread sending the batch,
+ * invoke the single method directly instead of waiting for another batch.
+ */
+final class InterceptorBatch implements Interceptor {
+
+    private final Method singleMethod;
+    private final Method bulkMethod;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+
+    private final ThreadLocal<Boolean> sending = new ThreadLocal<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition closed = lock.newCondition();
+    private Batch open;
+
+    // number of bulk calls per batch size, grown on demand since the max batch size may be huge.
+    private long[] batchSizeCounts = new long[2];
+    private final LatencyHistogram waits = new LatencyHistogram();
+
+    InterceptorBatch(BatchSpec spec) {
+        this.singleMethod = spec.getSingleMethod();
+        this.bulkMethod = spec.getBulkMethod();
+        this.maxBatchSize = spec.getMaxBatchSize();
+        this.maxWaitNanos = spec.getMaxWaitNanos();
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (!Util.methodSignatureEquals(singleMethod, invocation.getMethod()) || sending.get() != null) {
+            return invocation.invoke();
+        }
+        long arrival = System.nanoTime();
+        Batch batch;
+        boolean leader;
+        CompletableFuture<Object> result;
+        lock.lock();
+        try {
+            leader = open == null;
+            if (leader) {
+                open = new Batch(arrival + maxWaitNanos);
+            }
+            batch = open;
+            result = batch.add(invocation.getParameter0(), arrival);
+            if (batch.results.size() >= maxBatchSize) {
+                close(batch);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (leader) {
+            awaitClosed(batch);
+            sending.set(Boolean.TRUE);
+            try {
+                send(batch, invocation.getThis());
+            } finally {
+                sending.remove();
+            }
+        }
+        return Util.awaitResult(result, "the bulk call of: " + bulkMethod.getName());
+    }
+
+    BatchStats stats() {
+        long[] counts;
+        synchronized (this) {
+            counts = batchSizeCounts.clone();
+        }
+        return new BatchStats(counts, waits.snapshot());
+    }
+
+    /**
+     * Once per bulk call, so the lock is not contended.
+     */
+    private synchronized void recordBatchSize(int size) {
+        if (size >= batchSizeCounts.length) {
+            batchSizeCounts = Arrays.copyOf(batchSizeCounts, Math.max(size + 1, batchSizeCounts.length * 2));
+        }
+        batchSizeCounts[size]++;
+    }
+
+    private void close(Batch batch) {
+        batch.closed = true;
+        if (open == batch) {
+            open = null;
+        }
+        closed.signalAll();
+    }
+
+    private void awaitClosed(Batch batch) {
+        lock.lock();
+        try {
+            while (!batch.closed) {
+                long remaining = batch.deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    close(batch);
+                } else {
+                    closed.awaitNanos(remaining);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close(batch);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @SuppressWarnings("squid:S1181")
+    private void send(Batch batch, Object target) {
+        List<Object> parameters = new ArrayList<>(batch.results.keySet());
+        long start = System.nanoTime();
+        recordBatchSize(parameters.size());
+        for (int i = 0; i < batch.callers; i++) {
+            waits.record(start - batch.arrivals[i]);
+        }
+        try {
+            Object bulkResult = Util.invokeMethodWithSignature(bulkMethod, new Object[] { parameters }, target);
+            if (bulkResult instanceof Map) {
+                Map<?, ?> results = (Map<?, ?>) bulkResult;
+                for (Map.Entry<Object, CompletableFuture<Object>> entry : batch.results.entrySet()) {
+                    complete(entry.getValue(), entry.getKey(), results.get(entry.getKey()));
+                }
+            } else if (bulkResult instanceof List && ((List<?>) bulkResult).size() == parameters.size()) {
+                List<?> results = (List<?>) bulkResult;
+                for (int i = 0; i < parameters.size(); i++) {
+                    complete(batch.results.get(parameters.get(i)), parameters.get(i), results.get(i));
+                }
+            } else {
+                throw new ProxyException("The bulk method " + bulkMethod.getName() + " returned " + bulkResult + " for "
+                        + parameters.size() + " parameters");
+            }
+        } catch (Throwable t) {
+            for (CompletableFuture<Object> result : batch.results.values()) {
+                result.completeExceptionally(t);
+            }
+        }
+    }
+
+    /**
+     * A missing result can't be returned from a single method with a primitive return type, so it fails only that call
+     * with a message that names the parameter instead of a NullPointerException in the proxy.
+     */
+    private void complete(CompletableFuture<Object> result, Object parameter, Object value) {
+        Class<?> returnType = singleMethod.getReturnType();
+        if (value == null && returnType.isPrimitive() && returnType != void.class) {
+            result.completeExceptionally(
+                    new ProxyException("The bulk method " + bulkMethod.getName() + " returned no result for "
+                            + parameter + ", and " + singleMethod.getName() + " returns " + returnType.getName()));
+        } else {
+            result.complete(value);
+        }
+    }
+
+    /**
+     * The calls of one bulk call, only changed while holding the lock until it is closed.
+     */
+    private static final class Batch {
+
+        private final long deadline;
+        private final Map<Object, CompletableFuture<Object>> results = new LinkedHashMap<>();
+        private long[] arrivals = new long[8];
+        private int callers;
+        private boolean closed;
+
+        Batch(long deadline) {
+            this.deadline = deadline;
+        }
+
+        CompletableFuture<Object> add(Object parameter, long arrival) {
+            if (callers == arrivals.length) {
+                arrivals = Arrays.copyOf(arrivals, callers * 2);
+            }
+            arrivals[callers++] = arrival;
+            return results.computeIfAbsent(parameter, p -> new CompletableFuture<>());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * A {@link Interceptor} that caches the results of the methods selected by a {@link CacheSpec}, keyed on the method and
+ * the values of its arguments. Each method has its own {@link CacheStore}.
+ */
+final class InterceptorCache implements Interceptor {
+
+    private static final Optional<CacheStore> NOT_CACHED = Optional.empty();
+
+    private final long maximumSize;
+    private final long expireAfterWriteNanos;
+    private final boolean softValues;
+    private final Predicate<Method> methods;
+    private final ConcurrentHashMap<Method, Optional<CacheStore>> stores = new ConcurrentHashMap<>();
+
+    InterceptorCache(CacheSpec spec, Method... onlyMethods) {
+        this.maximumSize = spec.getMaximumSize();
+        this.expireAfterWriteNanos = spec.getExpireAfterWriteNanos();
+        this.softValues = spec.isSoftValues();
+        if (onlyMethods.length == 0) {
+            this.methods = spec.getMethods();
+        } else {
+            this.methods = spec.getMethods().and(Util.signatureOneOf(onlyMethods));
+        }
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        Optional<CacheStore> store = stores.get(method);
+        if (store == null) {
+            store = stores.computeIfAbsent(method, this::createStore);
+        }
+        if (!store.isPresent()) {
+            return invocation.invoke();
+        }
+        return store.get().get(new MethodCallKey(method, invocation.getParameters()), invocation);
+    }
+
+    CacheStats stats() {
+        CacheStats stats = new CacheStats(0, 0, 0, 0, 0);
+        for (Optional<CacheStore> store : stores.values()) {
+            if (store.isPresent()) {
+                stats = stats.plus(store.get().stats());
+            }
+        }
+        return stats;
+    }
+
+    private Optional<CacheStore> createStore(Method method) {
+        if (!methods.test(method)) {
+            return NOT_CACHED;
+        }
+        long methodMaximumSize = maximumSize;
+        long methodExpireAfterWriteNanos = expireAfterWriteNanos;
+        boolean methodSoftValues = softValues;
+        Cached cached = method.getAnnotation(Cached.class);
+        if (cached != null) {
+            if (cached.maximumSize() > 0) {
+                methodMaximumSize = cached.maximumSize();
+            }
+            if (cached.expireAfterWriteMillis() > 0) {
+                methodExpireAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(cached.expireAfterWriteMillis());
+            }
+            methodSoftValues |= cached.softValues();
+        }
+        return Optional.of(new CacheStore(methodMaximumSize, methodExpireAfterWriteNanos, methodSoftValues));
+    }
+}
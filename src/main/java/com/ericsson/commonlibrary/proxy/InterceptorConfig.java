@@ -0,0 +1,292 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link Interceptor} that implements a configuration interface from properties. All values are parsed and validated
+ * once into a immutable snapshot, so a call to a configuration method is only a array lookup. A new snapshot can be
+ * swapped in atomically without ever blocking the readers.
+ */
+final class InterceptorConfig implements Interceptor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InterceptorConfig.class);
+    private static final int IS_LENGTH = 2;
+    private static final int GET_LENGTH = 3;
+    private static final Object USE_DEFAULT_METHOD = new Object();
+
+    private final Map<Method, Integer> slots = new HashMap<>();
+    private final List<Method> methods = new ArrayList<>();
+    private volatile Object[] snapshot;
+    private volatile Thread watcher;
+    private volatile WatchService watchService;
+
+    InterceptorConfig(Class<?> configInterface, Properties properties) {
+        for (Method method : configInterface.getMethods()) {
+            if (method.getParameterCount() == 0 && !method.getReturnType().equals(void.class)
+                    && !Modifier.isStatic(method.getModifiers())) {
+                slots.put(method, methods.size());
+                methods.add(method);
+            }
+        }
+        snapshot = parse(properties);
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Integer slot = slots.get(invocation.getMethod());
+        if (slot == null) {
+            return invocation.invoke();
+        }
+        Object value = snapshot[slot];
+        if (value == USE_DEFAULT_METHOD) {
+            return invocation.invoke();
+        }
+        if (value != null && value.getClass().isArray()) {
+            return copyOf(value); // arrays can't be made immutable.
+        }
+        return value;
+    }
+
+    /**
+     * Parses all properties and swaps in the new values if they are all valid.
+     *
+     * @throws ProxyException
+     *             if any of the values was invalid, the current values are then kept.
+     */
+    void reload(Properties properties) {
+        snapshot = parse(properties);
+    }
+
+    /**
+     * Starts a daemon thread that reloads the properties every time the file is modified. The thread stops when
+     * {@link #stopWatching()} is called or this interceptor is garbage collected.
+     */
+    synchronized void watch(Path propertiesFile) {
+        if (watcher != null) {
+            throw new IllegalStateException("Already watching a properties file");
+        }
+        Path directory = propertiesFile.toAbsolutePath().getParent();
+        WatchService service = null;
+        try {
+            service = FileSystems.getDefault().newWatchService();
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            if (service != null) {
+                FileWatcher.close(service);
+            }
+            throw new ProxyException("Was not able to watch: " + propertiesFile + " for changes", e);
+        }
+        Thread thread = new Thread(new FileWatcher(this, service, propertiesFile.toAbsolutePath()),
+                "proxy-config-watcher-" + propertiesFile.getFileName());
+        thread.setDaemon(true);
+        watchService = service;
+        watcher = thread;
+        thread.start();
+    }
+
+    /**
+     * Stops the thread started by {@link #watch(Path)} and waits for it to end, the current values are kept.
+     *
+     * @return true if the file was watched.
+     */
+    synchronized boolean stopWatching() {
+        Thread thread = watcher;
+        if (thread == null) {
+            return false;
+        }
+        watcher = null;
+        FileWatcher.close(watchService);
+        watchService = null;
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(FileWatcher.POLL_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return true;
+    }
+
+    static Properties loadProperties(Path propertiesFile) {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(propertiesFile)) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new ProxyException("Was not able to read the properties file: " + propertiesFile, e);
+        }
+        return properties;
+    }
+
+    private Object[] parse(Properties properties) {
+        Object[] values = new Object[methods.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = parse(methods.get(i), properties);
+        }
+        return values;
+    }
+
+    private static Object parse(Method method, Properties properties) {
+        String key = getKey(method);
+        String stringValue = properties.getProperty(key);
+        Class<?> returnType = method.getReturnType();
+        if (stringValue == null) {
+            if (method.isDefault()) {
+                return USE_DEFAULT_METHOD;
+            }
+            if (returnType.isPrimitive()) {
+                throw new ProxyException("The value of: " + key + " is missing and it can't be null as it's a "
+                        + returnType.getName() + ", method: " + method.getName() + "()");
+            }
+            return Util.defaultToEmptyCollectionsOnNullValue((Class<Object>) returnType, null);
+        }
+        try {
+            return makeImmutable(Util.castStringValueToMethodReturnType(stringValue, returnType, method));
+        } catch (RuntimeException e) {
+            throw new ProxyException("The value of: " + key + " was invalid: '" + stringValue + "'", e);
+        }
+    }
+
+    private static Object makeImmutable(Object value) {
+        if (value instanceof List) {
+            return Collections.unmodifiableList((List<?>) value);
+        } else if (value instanceof Set) {
+            return Collections.unmodifiableSet((Set<?>) value);
+        } else if (value instanceof Map) {
+            return Collections.unmodifiableMap((Map<?, ?>) value);
+        }
+        return value;
+    }
+
+    private static Object copyOf(Object array) {
+        int length = Array.getLength(array);
+        Object copy = Array.newInstance(array.getClass().getComponentType(), length);
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    /**
+     * @return the property key of a method, like "port" for getPort() and port(), and "enabled" for isEnabled().
+     */
+    static String getKey(Method method) {
+        String name = method.getName();
+        if (name.startsWith("get") && name.length() > GET_LENGTH) {
+            return decapitalize(name.substring(GET_LENGTH));
+        } else if (name.startsWith("is") && name.length() > IS_LENGTH
+                && (method.getReturnType().equals(boolean.class) || method.getReturnType().equals(Boolean.class))) {
+            return decapitalize(name.substring(IS_LENGTH));
+        }
+        return name;
+    }
+
+    private static String decapitalize(String name) {
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * Reloads the properties of a interceptor when the file has been modified.
+     */
+    private static final class FileWatcher implements Runnable {
+
+        private static final long POLL_SECONDS = 1;
+        private final WeakReference<InterceptorConfig> interceptor;
+        private final WatchService watchService;
+        private final Path propertiesFile;
+
+        FileWatcher(InterceptorConfig interceptor, WatchService watchService, Path propertiesFile) {
+            this.interceptor = new WeakReference<>(interceptor);
+            this.watchService = watchService;
+            this.propertiesFile = propertiesFile;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (interceptor.get() != null) {
+                    WatchKey key = watchService.poll(POLL_SECONDS, TimeUnit.SECONDS);
+                    if (key == null) {
+                        continue;
+                    }
+                    boolean modified = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        modified |= propertiesFile.getFileName().equals(event.context());
+                    }
+                    key.reset();
+                    if (modified) {
+                        reload();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ClosedWatchServiceException e) { // NOSONAR
+                LOG.debug("Stopped watching: {}", propertiesFile);
+            } finally {
+                close(watchService);
+            }
+        }
+
+        private void reload() {
+            InterceptorConfig config = interceptor.get();
+            if (config == null) {
+                return;
+            }
+            try {
+                config.reload(loadProperties(propertiesFile));
+                LOG.debug("Reloaded configuration from: {}", propertiesFile);
+            } catch (ProxyException e) {
+                LOG.warn("Was not able to reload: {}, will keep the current configuration", propertiesFile, e);
+            }
+        }
+
+        static void close(WatchService watchService) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                LOG.trace("Failed to close the watch service", e);
+            }
+        }
+    }
+}
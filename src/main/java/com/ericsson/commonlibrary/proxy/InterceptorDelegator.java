@@ -60,13 +60,15 @@ final class InterceptorDelegator implements Interceptor {
             return invocation.invoke(); // invokes the next interceptor or original
         }
 
-        try {
-            return Util.invokeMethodWithSignature(method, args, implementations);
-        } catch (MethodWithSignatureNotFoundException e) {
-            LOG.trace("Was not able to find a implementation for the method:" + method.getName()
-                    + "(...) in this particular delegator. invoking next interceptor...");
-            return invocation.invoke();
+        for (Object object : implementations) {
+            Method methodInObject = Util.findMethodWithSignature(method, object);
+            if (methodInObject != null) {
+                return invocation.invokeDelegate(object, methodInObject);
+            }
         }
+        LOG.trace("Was not able to find a implementation for the method:" + method.getName()
+                + "(...) in this particular delegator. invoking next interceptor...");
+        return invocation.invoke();
     }
 
     static boolean isMethodDeclaredInObjectClass(Method method) {
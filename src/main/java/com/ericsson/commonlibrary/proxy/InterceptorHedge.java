@@ -0,0 +1,231 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link Interceptor} that calls the primary delegate on an executor and, if it has not returned within the delay,
+ * makes a second call to one of the alternate delegates. The first result wins and the other call is cancelled. If the
+ * primary fails before the delay its exception is thrown without hedging, a failure after the hedged call was made is
+ * only thrown if the other call fails too.
+ * <p>
+ * Every call of a hedged method is made on the executor, also the calls that return before the delay and never send a
+ * hedge, so the executor needs a thread for each concurrent call and thread local state of the caller is not seen by
+ * the delegates. The latency used for a adaptive delay is the latency of the primary delegate alone, measured also when
+ * the hedged call won.
+ */
+final class InterceptorHedge implements Interceptor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InterceptorHedge.class);
+    private static final int DELAY_UPDATE_INTERVAL = 64;
+
+    private final Object[] delegates;
+    private final Executor executor;
+    private final long initialDelayNanos;
+    private final double percentile;
+    private final Predicate<Method> methods;
+    private final ConcurrentHashMap<Method, MethodHedge> methodHedges = new ConcurrentHashMap<>();
+    private final AtomicInteger nextAlternate = new AtomicInteger();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder hedged = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    InterceptorHedge(HedgeSpec spec, Object... delegates) {
+        this.delegates = delegates.clone();
+        this.executor = spec.getExecutor();
+        this.initialDelayNanos = spec.getDelayNanos();
+        this.percentile = spec.getPercentile();
+        this.methods = spec.getMethods();
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        MethodHedge methodHedge = methodHedges.get(method);
+        if (methodHedge == null) {
+            methodHedge = methodHedges.computeIfAbsent(method,
+                    m -> new MethodHedge(methods.test(m), initialDelayNanos));
+        }
+        if (!methodHedge.hedged) {
+            return invocation.invoke();
+        }
+        calls.increment();
+        return hedge(method, invocation.getParameters(), methodHedge);
+    }
+
+    HedgeStats stats() {
+        return new HedgeStats(calls.sum(), hedged.sum(), hedgeWins.sum());
+    }
+
+    private Object hedge(Method method, Object[] args, MethodHedge methodHedge) throws Throwable {
+        Flight flight = new Flight(method, args, methodHedge);
+        FutureTask<Object> primary = flight.call(delegates[0], false);
+        executor.execute(primary);
+        FutureTask<Object> alternate = null;
+        try {
+            try {
+                return flight.await(methodHedge.delayNanos);
+            } catch (TimeoutException e) {
+                // counted before the check, so a primary failing now can't complete the result without the hedge.
+                flight.outstanding.incrementAndGet();
+                if (flight.result.isDone()) {
+                    return flight.await(Long.MAX_VALUE);
+                }
+                hedged.increment();
+                alternate = flight.call(alternate(), true);
+                try {
+                    executor.execute(alternate);
+                } catch (RejectedExecutionException rejected) {
+                    LOG.debug("The hedged call was rejected, waiting for the primary", rejected);
+                    flight.failed(null);
+                }
+                return flight.await(Long.MAX_VALUE);
+            }
+        } finally {
+            primary.cancel(true);
+            if (alternate != null) {
+                alternate.cancel(true);
+            }
+        }
+    }
+
+    private Object alternate() {
+        int alternates = delegates.length - 1;
+        return delegates[1 + Math.floorMod(nextAlternate.getAndIncrement(), alternates)];
+    }
+
+    /**
+     * The calls made for one invocation of the proxy.
+     */
+    private final class Flight {
+
+        private final Method method;
+        private final Object[] args;
+        private final MethodHedge methodHedge;
+        private final long start = System.nanoTime();
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final AtomicInteger outstanding = new AtomicInteger(1);
+        private final AtomicBoolean won = new AtomicBoolean();
+        private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+
+        Flight(Method method, Object[] args, MethodHedge methodHedge) {
+            this.method = method;
+            this.args = args;
+            this.methodHedge = methodHedge;
+        }
+
+        @SuppressWarnings("squid:S1181")
+        FutureTask<Object> call(Object delegate, boolean isHedge) {
+            return new FutureTask<>(() -> {
+                try {
+                    Object value = Util.invokeMethodWithSignature(method, args, delegate);
+                    if (!isHedge) {
+                        methodHedge.record(System.nanoTime() - start); // also when it lost, to not skew the delay.
+                    }
+                    if (won.compareAndSet(false, true)) {
+                        if (isHedge) {
+                            hedgeWins.increment();
+                        }
+                        result.complete(value);
+                    }
+                } catch (Throwable t) {
+                    failed(t);
+                }
+                return null;
+            });
+        }
+
+        /**
+         * @param failure
+         *            the exception of a call or null if the call was never made
+         */
+        void failed(Throwable failure) {
+            if (failure != null) {
+                firstFailure.compareAndSet(null, failure);
+            }
+            if (outstanding.decrementAndGet() == 0) {
+                result.completeExceptionally(firstFailure.get());
+            }
+        }
+
+        Object await(long timeoutNanos) throws Throwable {
+            try {
+                if (timeoutNanos == Long.MAX_VALUE) {
+                    return result.get();
+                }
+                return result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProxyException("Interrupted while waiting for the hedged call to: " + method.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * The delay and observed latencies of one method.
+     */
+    private final class MethodHedge {
+
+        private final boolean hedged;
+        private final LatencyHistogram latencies;
+        private final AtomicLong samples = new AtomicLong();
+        private volatile long delayNanos;
+
+        MethodHedge(boolean hedged, long delayNanos) {
+            this.hedged = hedged;
+            this.delayNanos = delayNanos;
+            this.latencies = hedged && percentile > 0 ? new LatencyHistogram() : null;
+        }
+
+        void record(long latencyNanos) {
+            if (latencies == null) {
+                return;
+            }
+            latencies.record(latencyNanos);
+            long count = samples.incrementAndGet();
+            if (count == HedgeSpec.MIN_SAMPLES || count > HedgeSpec.MIN_SAMPLES && count % DELAY_UPDATE_INTERVAL == 0) {
+                delayNanos = latencies.snapshot().getPercentile(percentile);
+            }
+        }
+    }
+}
@@ -21,8 +21,15 @@ SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
 */
 package com.ericsson.commonlibrary.proxy;
 
+import java.lang.reflect.Method;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * A {@link Interceptor} that lets you create javabean without providing a implementation.
@@ -33,13 +40,40 @@ final class InterceptorJavaBean implements Interceptor {
 
     private static final int IS_LENGTH = 2;
     private static final int XET_LENGTH = 3;
-    private final Map<String, Object> map = new HashMap<String, Object>();
+    // in concurrent mode the map is never modified, it's replaced by a modified copy (copy on write).
+    private volatile Map<String, Object> map = new HashMap<String, Object>();
     private final Class<?> beanInterface;
     private boolean primitiveDefaultIsException;
+    private final ChangeTracker changeTracker;
+    private final boolean concurrent;
+    private final Object writeLock = new Object();
+    private volatile Update currentUpdate;
 
     InterceptorJavaBean(Class<?> beanInterface, boolean primitiveDefaultIsException) {
+        this(beanInterface, primitiveDefaultIsException, false);
+    }
+
+    InterceptorJavaBean(Class<?> beanInterface, boolean primitiveDefaultIsException, boolean trackChanges) {
+        this(beanInterface, primitiveDefaultIsException, trackChanges, false);
+    }
+
+    InterceptorJavaBean(Class<?> beanInterface, boolean primitiveDefaultIsException, boolean trackChanges,
+            boolean concurrent) {
         this.beanInterface = beanInterface;
         this.primitiveDefaultIsException = primitiveDefaultIsException;
+        this.changeTracker = trackChanges ? new ChangeTracker(beanInterface) : null;
+        this.concurrent = concurrent;
+    }
+
+    boolean isConcurrent() {
+        return concurrent;
+    }
+
+    /**
+     * @return the change tracker of this bean or null if changes are not tracked.
+     */
+    JavaBeanChangeTracker getChangeTracker() {
+        return changeTracker;
     }
 
     @Override
@@ -59,15 +93,114 @@ final class InterceptorJavaBean implements Interceptor {
             return getValue(invocation, name);
         } else if (methodName.startsWith("set")) {
             String name = methodName.substring(XET_LENGTH);
-            map.put(name, invocation.getParameter0());
+            setValue(name, invocation.getParameter0());
             return null;
         }
         return invocation.invoke();
     }
 
+    /**
+     * Runs the update atomically in concurrent mode. All properties set by the update becomes visible to other threads
+     * at the same time when the update is done, and none of them if the update throws an exception. Reads are never
+     * blocked by a running update.
+     */
+    void update(Runnable update) {
+        if (!concurrent) {
+            throw new IllegalStateException("Atomic updates are only supported by concurrent java beans");
+        }
+        boolean batchIsFull;
+        synchronized (writeLock) {
+            if (currentUpdate != null) { // nested update in the same thread, part of the outer update.
+                update.run();
+                return;
+            }
+            Update newUpdate = new Update(new HashMap<>(map));
+            currentUpdate = newUpdate;
+            try {
+                update.run();
+            } finally {
+                currentUpdate = null;
+            }
+            batchIsFull = publish(newUpdate.values, newUpdate.changed);
+        }
+        if (batchIsFull) {
+            changeTracker.drainChanges(); // outside of the write lock, the listener may write the bean.
+        }
+    }
+
+    private Map<String, Object> currentValues() {
+        Update update = currentUpdate;
+        if (update != null && update.thread == Thread.currentThread()) {
+            return update.values;
+        }
+        return map;
+    }
+
+    private void setValue(String name, Object value) {
+        if (concurrent) {
+            setValueConcurrent(name, value);
+            return;
+        }
+        if (changeTracker == null) {
+            map.put(name, value);
+            return;
+        }
+        boolean batchIsFull = false;
+        synchronized (changeTracker) {
+            Object oldValue = map.put(name, value);
+            if (!Objects.equals(oldValue, value)) {
+                batchIsFull = changeTracker.markChanged(name);
+            }
+        }
+        if (batchIsFull) {
+            changeTracker.drainChanges();
+        }
+    }
+
+    private void setValueConcurrent(String name, Object value) {
+        Update update = currentUpdate;
+        if (update != null && update.thread == Thread.currentThread()) {
+            update.values.put(name, value);
+            update.changed.add(name);
+            return;
+        }
+        boolean batchIsFull;
+        synchronized (writeLock) {
+            Map<String, Object> copy = new HashMap<>(map);
+            copy.put(name, value);
+            batchIsFull = publish(copy, Collections.singleton(name));
+        }
+        if (batchIsFull) {
+            changeTracker.drainChanges();
+        }
+    }
+
+    /**
+     * Called while holding the write lock.
+     *
+     * @return true if the change listener should get the changes, which must be done after the write lock is released.
+     */
+    private boolean publish(Map<String, Object> newValues, Set<String> changedNames) {
+        Map<String, Object> oldValues = map;
+        map = newValues;
+        boolean batchIsFull = false;
+        if (changeTracker != null) {
+            synchronized (changeTracker) {
+                for (String name : changedNames) {
+                    if (!Objects.equals(oldValues.get(name), newValues.get(name))) {
+                        batchIsFull |= changeTracker.markChanged(name);
+                    }
+                }
+            }
+        }
+        return batchIsFull;
+    }
+
     private Object getValue(Invocation invocation, String name) {
-        if (map.containsKey(name)) {
-            return map.get(name);
+        Map<String, Object> values = currentValues();
+        Object value = values.get(name);
+        if (value != null || values.containsKey(name)) {
+            return value;
         }
 
         Class<?> returnType = invocation.getMethod().getReturnType();
@@ -80,6 +213,105 @@ final class InterceptorJavaBean implements Interceptor {
         return null; // not a primitive.
     }
 
+    private static String getPropertyName(String methodName) {
+        if (methodName.startsWith("get") || methodName.startsWith("set")) {
+            return methodName.substring(XET_LENGTH);
+        } else if (methodName.startsWith("is")) {
+            return methodName.substring(IS_LENGTH);
+        }
+        return null;
+    }
+
+    /**
+     * Records modified properties in a bitset where every property of the bean has its own index.
+     */
+    private final class ChangeTracker implements JavaBeanChangeTracker {
+
+        private final Map<String, Integer> propertyIndexes = new HashMap<>();
+        private final String[] propertyNames;
+        private final BitSet changed = new BitSet();
+        private JavaBeanChangeListener listener;
+        private int batchSize;
+
+        ChangeTracker(Class<?> beanInterface) {
+            Set<String> names = new LinkedHashSet<>();
+            for (Method method : beanInterface.getMethods()) {
+                String name = getPropertyName(method.getName());
+                if (name != null && !name.isEmpty() && !"getClass".equals(method.getName())) {
+                    names.add(name);
+                }
+            }
+            propertyNames = names.toArray(new String[names.size()]);
+            for (int i = 0; i < propertyNames.length; i++) {
+                propertyIndexes.put(propertyNames[i], i);
+            }
+        }
+
+        /**
+         * Must be called while holding the lock of this tracker.
+         *
+         * @return true if the listener should get the changes now.
+         */
+        boolean markChanged(String name) {
+            Integer index = propertyIndexes.get(name);
+            if (index != null) {
+                changed.set(index);
+            }
+            return listener != null && changed.cardinality() >= batchSize;
+        }
+
+        @Override
+        public synchronized Set<String> changedProperties() {
+            Set<String> names = new LinkedHashSet<>();
+            for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+                names.add(propertyNames[i]);
+            }
+            return names;
+        }
+
+        @Override
+        public Map<String, Object> drainChanges() {
+            Map<String, Object> changes = new LinkedHashMap<>();
+            JavaBeanChangeListener currentListener;
+            synchronized (this) {
+                for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+                    changes.put(propertyNames[i], currentValues().get(propertyNames[i]));
+                }
+                changed.clear();
+                currentListener = listener;
+            }
+            changes = Collections.unmodifiableMap(changes);
+            if (currentListener != null && !changes.isEmpty()) {
+                currentListener.onChanges(changes); // outside of the lock, the listener may use the bean.
+            }
+            return changes;
+        }
+
+        @Override
+        public synchronized void setChangeListener(JavaBeanChangeListener listener, int batchSize) {
+            if (batchSize < 1 || batchSize > propertyNames.length) {
+                throw new IllegalArgumentException("batchSize must be between 1 and the " + propertyNames.length
+                        + " properties of the bean: " + batchSize);
+            }
+            this.listener = listener;
+            this.batchSize = batchSize;
+        }
+    }
+
+    /**
+     * A running atomic update, only visible for the updating thread until it's published.
+     */
+    private static final class Update {
+
+        private final Thread thread = Thread.currentThread();
+        private final Map<String, Object> values;
+        private final Set<String> changed = new LinkedHashSet<>();
+
+        Update(Map<String, Object> values) {
+            this.values = values;
+        }
+    }
+
     private static class PrimitiveDefaultValue {
 
         private static boolean defaultBoolean;
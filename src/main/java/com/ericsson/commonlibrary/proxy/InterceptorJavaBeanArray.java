@@ -0,0 +1,59 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.reflect.Method;
+
+/**
+ * A {@link Interceptor} that makes a java bean proxy act as the cursor of a {@link JavaBeanArray}. Every get/is/set
+ * call reads or writes the column of the property at the current cursor position.
+ */
+final class InterceptorJavaBeanArray implements Interceptor {
+
+    private final JavaBeanArray<?> array;
+
+    InterceptorJavaBeanArray(JavaBeanArray<?> array) {
+        this.array = array;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (method.isDefault()) {
+            return invocation.invoke();
+        }
+        String name = JavaBeanArray.getPropertyName(method);
+        JavaBeanArray.Column column = name == null ? null : array.findColumn(name);
+        if (column == null) {
+            return invocation.invoke();
+        }
+        int index = array.getCursorIndex();
+        if (index < 0) {
+            throw new IllegalStateException("The cursor is not positioned at any bean, use add() or get(index) first");
+        }
+        if (method.getName().startsWith("set")) {
+            column.setValue(index, invocation.getParameter0());
+            return null;
+        }
+        return column.getValue(index);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+/**
+ * A {@link Interceptor} that emits a Java Flight Recorder event for every invocation that is slower than a threshold.
+ * When no recording is running the invocation is done directly, so the cost is close to nothing.
+ */
+final class InterceptorJfr implements Interceptor {
+
+    private static final JfrRecorder RECORDER = JfrRecorder.load();
+
+    private final long thresholdNanos;
+
+    InterceptorJfr(long thresholdNanos) {
+        this.thresholdNanos = thresholdNanos;
+    }
+
+    static boolean isSupported() {
+        return RECORDER != JfrRecorder.NO_OP;
+    }
+
+    @Override
+    @SuppressWarnings("squid:S1181")
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (!RECORDER.isEnabled()) {
+            return invocation.invoke();
+        }
+        Object event = RECORDER.begin();
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return invocation.invoke();
+        } catch (Throwable t) {
+            thrown = t;
+            throw t;
+        } finally {
+            if (System.nanoTime() - start >= thresholdNanos) {
+                RECORDER.commit(event, invocation, thrown);
+            }
+        }
+    }
+}
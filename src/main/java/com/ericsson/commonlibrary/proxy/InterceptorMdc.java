@@ -21,13 +21,27 @@ SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
 */
 package com.ericsson.commonlibrary.proxy;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
 /**
  * A {@link Interceptor} that add/restores/removes MDC logging information to the context of your object and its child
- * objects
+ * objects. All key/value pairs are applied in one pass and the previous values are saved in a per thread snapshot that
+ * is reused between calls, so no snapshot is allocated per call.
+ * <p>
+ * The context follows work that is handed off to other threads through returned {@link CompletionStage}s and
+ * {@link Executor}s, see {@link MdcPropagation}.
  *
  * @author Elis Edlund (elis.edlund@ericsson.com)
  */
@@ -36,26 +50,132 @@ final class InterceptorMdc implements Interceptor {
     // TODO use recursiveIntercept instead, InterceptorMdc have to be modified.
     private static final Logger LOG = LoggerFactory.getLogger(InterceptorMdc.class);
 
-    private final String key;
-    private final String value;
+    private static final ThreadLocal<Snapshots> SNAPSHOTS = ThreadLocal.withInitial(Snapshots::new);
+
+    private final String[] keys;
+    private final String[] values;
+    private final Map<String, String> context;
+    private final ProxyIdentityCache proxies = new ProxyIdentityCache();
 
     public InterceptorMdc(String key, String value) {
-        this.key = key;
-        this.value = value;
+        this(Collections.singletonMap(key, value));
+    }
+
+    public InterceptorMdc(Map<String, String> context) {
+        if (context.isEmpty()) {
+            throw new IllegalArgumentException("At least one mdc key/value pair is needed");
+        }
+        this.context = Collections.unmodifiableMap(new LinkedHashMap<>(context));
+        keys = new String[context.size()];
+        values = new String[context.size()];
+        int i = 0;
+        for (Map.Entry<String, String> entry : context.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                throw new IllegalArgumentException("Mdc keys and values can't be null: " + context);
+            }
+            keys[i] = entry.getKey();
+            values[i] = entry.getValue();
+            i++;
+        }
     }
 
     @Override
     public Object intercept(Invocation invocation) throws Throwable {
-        String originalValue = MDC.get(key);
-        MDC.put(key, value);
+        Snapshots snapshots = SNAPSHOTS.get();
+        String[] previous = snapshots.push(keys.length);
+        int applied = 0;
         try {
-            return Util.tryToAddInterceptorToObject(invocation.invoke(), this, invocation, false);
+            for (; applied < keys.length; applied++) {
+                apply(applied, previous);
+            }
+            wrapParameters(invocation);
+            Object returnObject = invocation.invoke();
+            Class<?> returnType = invocation.getMethod().getReturnType();
+            if (returnType == Executor.class || returnType == ExecutorService.class) {
+                return MdcPropagation.wrap(returnObject, returnType, context);
+            }
+            return Util.tryToAddInterceptorToObject(returnObject, this, invocation, false, proxies);
         } finally {
+            restore(previous, applied);
+            snapshots.pop();
+        }
+    }
+
+    /**
+     * Work handed off to other threads by a {@link CompletionStage} or a {@link Executor} gets the current context, and
+     * so does executors passed to any method.
+     */
+    @SuppressWarnings("unchecked")
+    private void wrapParameters(Invocation invocation) {
+        Object[] parameters = invocation.getParameters();
+        if (parameters == null || parameters.length == 0) {
+            return;
+        }
+        Object target = invocation.getThis();
+        boolean handsOffWork = target instanceof CompletionStage || target instanceof Executor;
+        Class<?>[] types = invocation.getMethod().getParameterTypes();
+        for (int i = 0; i < parameters.length; i++) {
+            Class<?> type = types[i];
+            if (type == Executor.class || type == ExecutorService.class
+                    || handsOffWork && MdcPropagation.isSupported(type)) {
+                parameters[i] = MdcPropagation.wrap(parameters[i], type, context);
+            } else if (type == Collection.class && target instanceof ExecutorService && parameters[i] != null) {
+                parameters[i] = MdcPropagation.wrapAll((Collection<Callable<Object>>) parameters[i]); // invokeAll/Any
+            }
+        }
+    }
+
+    /**
+     * The keys are applied and restored one by one instead of swapping the whole context map, since a context only has
+     * a few keys and a swap would copy all other keys in the mdc twice per call.
+     */
+    private void apply(int i, String[] previous) {
+        String originalValue = MDC.get(keys[i]);
+        previous[i] = originalValue;
+        if (!values[i].equals(originalValue)) {
+            MDC.put(keys[i], values[i]);
+        }
+    }
+
+    /**
+     * Restores the first applied keys, the rest was never changed.
+     */
+    private void restore(String[] previous, int applied) {
+        for (int i = applied - 1; i >= 0; i--) {
+            String originalValue = previous[i];
+            previous[i] = null;
             if (originalValue == null) {
-                MDC.remove(key);
+                MDC.remove(keys[i]);
             } else {
-                MDC.put(key, originalValue);
+                MDC.put(keys[i], originalValue); // always, the invocation may have changed the value.
+            }
+        }
+    }
+
+    /**
+     * A stack of arrays with the values that should be restored, one level for each nested mdc interception on the
+     * thread. The arrays are kept and reused by later calls.
+     */
+    private static final class Snapshots {
+
+        private String[][] levels = new String[4][];
+        private int depth;
+
+        String[] push(int size) {
+            if (depth == levels.length) {
+                levels = Arrays.copyOf(levels, depth * 2);
             }
+            String[] level = levels[depth];
+            if (level == null || level.length < size) {
+                level = new String[size];
+                levels[depth] = level;
+            }
+            depth++;
+            return level;
+        }
+
+        void pop() {
+            depth--;
         }
     }
 }
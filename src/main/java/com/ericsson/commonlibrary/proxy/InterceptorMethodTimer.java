@@ -21,13 +21,16 @@ SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
 */
 package com.ericsson.commonlibrary.proxy;
 
+import java.util.regex.Pattern;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * A Interceptor that measures execution time of every method invocation it intercepts This could be useful to for
  * performance debugging purposes by adding it to specific objects/classes that you think are likely to be sucking up
- * performance
+ * performance. For production use see {@link InterceptorMetrics} which records into histograms instead of logging every
+ * call.
  *
  * @author Elis Edlund (elis.edlund@ericsson.com)
  */
@@ -35,10 +38,24 @@ final class InterceptorMethodTimer implements Interceptor {
 
     private static final int LARGEST_ARG_STRING = 20;
     private static final int NANO_PER_MILLI = 1000000;
+    private static final Pattern PROXY_CLASS_SUFFIX = Pattern.compile("_.*\\d");
     private static final Logger LOG = LoggerFactory.getLogger(InterceptorMethodTimer.class);
 
+    private final Sampler sampler;
+
+    InterceptorMethodTimer() {
+        this(Sampler.always());
+    }
+
+    InterceptorMethodTimer(Sampler sampler) {
+        this.sampler = sampler;
+    }
+
     @Override
     public Object intercept(Invocation invocation) throws Throwable {
+        if (sampler.sample() == 0) {
+            return invocation.invoke();
+        }
         long start = System.nanoTime();
         Object result = invocation.invoke();
         long end = System.nanoTime();
@@ -47,17 +64,17 @@ final class InterceptorMethodTimer implements Interceptor {
     }
 
     private void printTimeMessage(Invocation invocation, long start, long end) {
-        long timeNs = end - start;
-        long timeMs = timeNs / NANO_PER_MILLI;
         if (LOG.isInfoEnabled()) {
-            LOG.info(String.format("%s.%s(%s) took %d ns | %s ms", getTargetClass(invocation),
-                    invocation.getMethod().getName(), createArgsString(invocation.getParameters()), timeNs, timeMs));
+            long timeNs = end - start;
+            long timeMs = timeNs / NANO_PER_MILLI;
+            LOG.info("{}.{}({}) took {} ns | {} ms", getTargetClass(invocation), invocation.getMethod().getName(),
+                    createArgsString(invocation.getParameters()), timeNs, timeMs);
         }
     }
 
     private String getTargetClass(Invocation invocation) {
         String name = invocation.getThis().getClass().getSimpleName();
-        return name.replaceAll("_.*\\d", "");
+        return PROXY_CLASS_SUFFIX.matcher(name).replaceAll("");
     }
 
     private String createArgsString(Object... args) {
@@ -0,0 +1,79 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+/**
+ * A {@link Interceptor} that records the execution time and outcome of every method invocation into a
+ * {@link InvocationMetrics}. Unlike {@link InterceptorMethodTimer} nothing is formatted or logged on the calling
+ * thread. Calls that are not picked by the {@link Sampler} are not measured, the sampled ones are recorded with their
+ * weight.
+ */
+final class InterceptorMetrics implements Interceptor {
+
+    private final ClassMetrics metrics;
+    private final Sampler sampler;
+    private final boolean measureResources;
+
+    /**
+     * @param measureResources
+     *            if the CPU time and allocated bytes of the calling thread also should be measured.
+     */
+    InterceptorMetrics(ClassMetrics metrics, Sampler sampler, boolean measureResources) {
+        this.metrics = metrics;
+        this.sampler = sampler;
+        this.measureResources = measureResources;
+        if (measureResources) {
+            ResourceMeter.enable();
+        }
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        long weight = sampler.sample();
+        if (weight == 0) {
+            return invocation.invoke();
+        }
+        MethodMetrics methodMetrics = metrics.forMethod(invocation.getMethod());
+        methodMetrics.enter(weight);
+        long startCpu = measureResources ? ResourceMeter.currentThreadCpuTime() : ResourceMeter.UNSUPPORTED;
+        long startAllocated = measureResources ? ResourceMeter.currentThreadAllocatedBytes()
+                : ResourceMeter.UNSUPPORTED;
+        long start = System.nanoTime();
+        try {
+            return invocation.invoke();
+        } catch (Throwable t) {
+            methodMetrics.recordError(weight);
+            throw t;
+        } finally {
+            methodMetrics.record(System.nanoTime() - start, weight);
+            if (measureResources) {
+                methodMetrics.recordResources(elapsed(startCpu, ResourceMeter.currentThreadCpuTime()),
+                        elapsed(startAllocated, ResourceMeter.currentThreadAllocatedBytes()), weight);
+            }
+            methodMetrics.exit(weight);
+        }
+    }
+
+    private static long elapsed(long start, long end) {
+        return start < 0 || end < 0 ? ResourceMeter.UNSUPPORTED : end - start;
+    }
+}
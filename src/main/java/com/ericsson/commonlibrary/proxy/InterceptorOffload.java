@@ -0,0 +1,124 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link Interceptor} that runs the rest of the interceptor chain and the method on an {@link Executor}. Void methods
+ * return immediately and methods declared to return {@link CompletableFuture}, {@link CompletionStage} or
+ * {@link Future} return a future completed by the executor. Other methods are invoked on the calling thread since their
+ * result is needed directly.
+ */
+final class InterceptorOffload implements Interceptor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InterceptorOffload.class);
+
+    private final Executor executor;
+
+    InterceptorOffload(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Class<?> returnType = invocation.getMethod().getReturnType();
+        if (returnType == void.class) {
+            executor.execute(() -> invokeIgnoringResult(invocation));
+            return null;
+        }
+        if (isFuture(returnType)) {
+            CompletableFuture<Object> result = new CompletableFuture<>();
+            try {
+                executor.execute(() -> invokeInto(invocation, result));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+            return result;
+        }
+        return invocation.invoke();
+    }
+
+    private static boolean isFuture(Class<?> returnType) {
+        return returnType == CompletableFuture.class || returnType == CompletionStage.class
+                || returnType == Future.class;
+    }
+
+    @SuppressWarnings("squid:S1181")
+    private static void invokeIgnoringResult(Invocation invocation) {
+        try {
+            invocation.invoke();
+        } catch (Throwable t) {
+            Method method = invocation.getMethod();
+            LOG.warn("Asynchronous call to {}.{} failed", method.getDeclaringClass().getSimpleName(), method.getName(),
+                    t);
+        }
+    }
+
+    @SuppressWarnings("squid:S1181")
+    private static void invokeInto(Invocation invocation, CompletableFuture<Object> result) {
+        Object returned;
+        try {
+            returned = invocation.invoke();
+        } catch (Throwable t) {
+            result.completeExceptionally(t);
+            return;
+        }
+        if (returned instanceof CompletionStage) {
+            ((CompletionStage<?>) returned).whenComplete((value, failure) -> {
+                if (failure == null) {
+                    result.complete(value);
+                } else {
+                    result.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null
+                            ? failure.getCause() : failure);
+                }
+            });
+        } else if (returned instanceof Future) {
+            completeFrom((Future<?>) returned, result);
+        } else {
+            result.complete(returned);
+        }
+    }
+
+    @SuppressWarnings("squid:S1181")
+    private static void completeFrom(Future<?> future, CompletableFuture<Object> result) {
+        try {
+            result.complete(future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+        } catch (ExecutionException e) {
+            result.completeExceptionally(e.getCause());
+        } catch (Throwable t) {
+            result.completeExceptionally(t);
+        }
+    }
+}
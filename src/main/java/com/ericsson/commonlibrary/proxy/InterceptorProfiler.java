@@ -0,0 +1,46 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+/**
+ * A {@link Interceptor} that records the invocations into the call tree of a {@link CallTreeProfiler}. Used together
+ * with {@link InterceptorRecursive} so the tree follows the object graph.
+ */
+final class InterceptorProfiler implements Interceptor {
+
+    private final CallTreeProfiler profiler;
+
+    InterceptorProfiler(CallTreeProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        profiler.enter(invocation.getMethod());
+        long start = System.nanoTime();
+        try {
+            return invocation.invoke();
+        } finally {
+            profiler.exit(System.nanoTime() - start);
+        }
+    }
+}
@@ -21,31 +21,161 @@ SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
 */
 package com.ericsson.commonlibrary.proxy;
 
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
 /**
  * An utility decoration {@link Interceptor} that makes itself and the real provided {@link Interceptor} to be added to
  * every returned object on the intercepted Object, t this will make the this interceptor spread itself in the object
- * tree.
+ * tree. How far it spreads can be limited with {@link RecursiveInterceptOptions}.
+ * <p>
+ * Methods declared to return a {@link java.util.List}, {@link java.util.Set}, {@link java.util.Collection},
+ * {@link Iterable}, {@link java.util.Iterator}, {@link java.util.Spliterator}, {@link java.util.stream.Stream} or
+ * {@link Map} get a lazy wrapper that adds the interceptor to each element when it's read, see
+ * {@link LazyElementWrappers}.
  *
  * @author Elis Edlund (elis.edlund@ericsson.com)
  */
 final class InterceptorRecursive implements Interceptor {
 
-    private Interceptor actualInterceptor;
-    private boolean shouldInterceptPrivateMethods = false;
+    private final Shared shared;
+    private final int depth;
 
     InterceptorRecursive(Interceptor actualInterceptor) {
-        this.actualInterceptor = actualInterceptor;
+        this(actualInterceptor, false);
     }
 
     InterceptorRecursive(Interceptor actualInterceptor, boolean shouldInterceptPrivateMethods) {
-        this.actualInterceptor = actualInterceptor;
-        this.shouldInterceptPrivateMethods = shouldInterceptPrivateMethods;
+        this(actualInterceptor, shouldInterceptPrivateMethods, RecursiveInterceptOptions.options());
+    }
+
+    InterceptorRecursive(Interceptor actualInterceptor, boolean shouldInterceptPrivateMethods,
+            RecursiveInterceptOptions options) {
+        this(new Shared(actualInterceptor, shouldInterceptPrivateMethods, options), 0);
+    }
+
+    private InterceptorRecursive(Shared shared, int depth) {
+        this.shared = shared;
+        this.depth = depth;
     }
 
     @Override
     public Object intercept(Invocation invocation) throws Throwable {
-        Object returnObject = actualInterceptor.intercept(invocation);
-        return Util.tryToAddInterceptorToObject(returnObject, this, invocation, shouldInterceptPrivateMethods);
+        Object returnObject = shared.actualInterceptor.intercept(invocation);
+        if (returnObject == null || depth >= shared.maxDepth) {
+            return returnObject;
+        }
+        InterceptorRecursive child = new InterceptorRecursive(shared, depth + 1);
+        if (shared.shouldInterceptPrivateMethods || !Modifier.isPrivate(invocation.getMethod().getModifiers())) {
+            Object lazyWrapper = LazyElementWrappers.wrap(returnObject, invocation.getMethod().getReturnType(),
+                    element -> child.addTo(element, invocation));
+            if (lazyWrapper != null) {
+                return lazyWrapper;
+            }
+        }
+        return child.addTo(returnObject, invocation);
     }
 
+    private Object addTo(Object object, Invocation invocation) {
+        if (object == null || !shared.shouldProxy(object.getClass())) {
+            return object;
+        }
+        return Util.tryToAddInterceptorToObject(object, this, invocation, shared.shouldInterceptPrivateMethods,
+                shared.proxiesAt(depth));
+    }
+
+    /**
+     * All interceptors spread from the same root are equal, so a object will only get one of them.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof InterceptorRecursive && ((InterceptorRecursive) obj).shared == shared;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(shared);
+    }
+
+    /**
+     * State shared between the root interceptor and all interceptors it has spread to.
+     */
+    private static final class Shared {
+
+        private final Interceptor actualInterceptor;
+        private final boolean shouldInterceptPrivateMethods;
+        private final int maxDepth;
+        private final int maxProxiedClasses;
+        private final Predicate<Class<?>> filter;
+        private final ProxyIdentityCache proxies = new ProxyIdentityCache();
+        private final Map<Integer, ProxyIdentityCache> proxiesPerDepth = new ConcurrentHashMap<>();
+        private final ClassValue<Boolean> decisions = new ClassValue<Boolean>() {
+
+            @Override
+            protected Boolean computeValue(Class<?> clazz) {
+                return decide(clazz);
+            }
+        };
+        private final AtomicInteger proxiedClasses = new AtomicInteger();
+
+        Shared(Interceptor actualInterceptor, boolean shouldInterceptPrivateMethods,
+                RecursiveInterceptOptions options) {
+            this.actualInterceptor = actualInterceptor;
+            this.shouldInterceptPrivateMethods = shouldInterceptPrivateMethods;
+            this.maxDepth = options.getMaxDepth();
+            this.maxProxiedClasses = options.getMaxProxiedClasses();
+            this.filter = options.getFilter();
+        }
+
+        /**
+         * A proxy remembers the depth it was created at, so a object returned at different depths needs one proxy per
+         * depth. Without a max depth all depths are the same.
+         */
+        ProxyIdentityCache proxiesAt(int depth) {
+            if (maxDepth == Integer.MAX_VALUE) {
+                return proxies;
+            }
+            ProxyIdentityCache cache = proxiesPerDepth.get(depth);
+            if (cache == null) {
+                cache = proxiesPerDepth.computeIfAbsent(depth, key -> new ProxyIdentityCache());
+            }
+            return cache;
+        }
+
+        boolean shouldProxy(Class<?> clazz) {
+            return decisions.get(clazz);
+        }
+
+        /**
+         * Can in rare races be called twice for the same class, which can only make the max proxied classes limit to be
+         * reached earlier, never later.
+         */
+        private boolean decide(Class<?> clazz) {
+            boolean isProxy = InterceptableProxy.class.isAssignableFrom(clazz);
+            if (!filter.test(isProxy ? proxiedClassOf(clazz) : clazz)) {
+                return false;
+            }
+            if (isProxy) {
+                return true; // already a proxy, no new class is needed.
+            }
+            if (!Proxyability.isProxyable(clazz)) {
+                return false;
+            }
+            if (maxProxiedClasses == Integer.MAX_VALUE) {
+                return true;
+            }
+            if (Proxyability.isInJdkPackage(clazz)) {
+                return false; // don't spend the limit on collections and other JDK types.
+            }
+            return proxiedClasses.incrementAndGet() <= maxProxiedClasses;
+        }
+
+        private static Class<?> proxiedClassOf(Class<?> proxyClass) {
+            Class<?> superClass = proxyClass.getSuperclass();
+            return superClass == null || superClass == Object.class ? proxyClass : superClass;
+        }
+    }
 }
@@ -0,0 +1,151 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A {@link Interceptor} that lets concurrent calls with equal method and arguments share one execution. The first call,
+ * the leader, invokes the method while the followers wait for its result or exception. Methods returning
+ * {@link CompletableFuture} or {@link CompletionStage} share the returned stage until it is completed, the followers
+ * get a dependent stage. Nothing is kept after the leader's call has completed, see {@link InterceptorCache} for that.
+ * <p>
+ * Followers wait interruptibly. A call the leader makes to the same method with the same arguments while it's leading
+ * is invoked directly instead of waiting for itself.
+ */
+final class InterceptorSingleFlight implements Interceptor {
+
+    private final ConcurrentHashMap<MethodCallKey, Flight> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Method, Boolean> coalesced = new ConcurrentHashMap<>();
+    private final Predicate<Method> methods;
+    private final LongAdder followers = new LongAdder();
+
+    /**
+     * @param methodsToCoalesce
+     *            the methods to coalesce, if none all methods with a return value except toString, hashCode and equals.
+     */
+    InterceptorSingleFlight(Method... methodsToCoalesce) {
+        if (methodsToCoalesce.length == 0) {
+            this.methods = method -> method.getReturnType() != void.class
+                    && !Util.isToStringOrHashcodeOrEqualsMethod(method);
+        } else {
+            this.methods = Util.signatureOneOf(methodsToCoalesce);
+        }
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Boolean coalesce = coalesced.get(invocation.getMethod());
+        if (coalesce == null) {
+            coalesce = coalesced.computeIfAbsent(invocation.getMethod(), methods::test);
+        }
+        if (!coalesce) {
+            return invocation.invoke();
+        }
+        MethodCallKey key = new MethodCallKey(invocation.getMethod(), invocation.getParameters());
+        Flight flight = new Flight();
+        Flight leader = inFlight.putIfAbsent(key, flight);
+        if (isAsync(invocation.getMethod())) {
+            if (leader != null) {
+                followers.increment();
+                return leader.thenApply(Function.identity());
+            }
+            return leadAsync(key, flight, invocation);
+        }
+        if (leader == null) {
+            return lead(key, flight, invocation);
+        }
+        if (leader.thread == Thread.currentThread()) {
+            return invocation.invoke(); // reentrant call from the leader, it would wait for itself.
+        }
+        followers.increment();
+        return Util.awaitResult(leader, "a concurrent call to: " + invocation.getMethodName());
+    }
+
+    /**
+     * @return number of calls that shared the execution of another call.
+     */
+    long getFollowerCount() {
+        return followers.sum();
+    }
+
+    @SuppressWarnings("squid:S1181")
+    private Object lead(MethodCallKey key, Flight flight, Invocation invocation) throws Throwable {
+        try {
+            Object result = invocation.invoke();
+            inFlight.remove(key, flight);
+            flight.complete(result);
+            return result;
+        } catch (Throwable t) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(t);
+            throw t;
+        }
+    }
+
+    @SuppressWarnings("squid:S1181")
+    private Object leadAsync(MethodCallKey key, Flight flight, Invocation invocation) throws Throwable {
+        Object result;
+        try {
+            result = invocation.invoke();
+        } catch (Throwable t) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(t);
+            throw t;
+        }
+        if (result == null) {
+            inFlight.remove(key, flight);
+            flight.complete(null);
+            return null;
+        }
+        ((CompletionStage<?>) result).whenComplete((value, failure) -> {
+            inFlight.remove(key, flight);
+            if (failure == null) {
+                flight.complete(value);
+            } else {
+                flight.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause() : failure);
+            }
+        });
+        return result;
+    }
+
+    private static boolean isAsync(Method method) {
+        Class<?> returnType = method.getReturnType();
+        return returnType == CompletableFuture.class || returnType == CompletionStage.class;
+    }
+
+    /**
+     * The shared result of a call, remembers the thread of the leader.
+     */
+    private static final class Flight extends CompletableFuture<Object> {
+
+        private final Thread thread = Thread.currentThread();
+    }
+}
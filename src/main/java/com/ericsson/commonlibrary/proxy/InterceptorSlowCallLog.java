@@ -0,0 +1,53 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+/**
+ * A Interceptor that hands every invocation slower than the threshold of a {@link SlowCallLog} over to its background
+ * thread for logging. Faster invocations only cost two {@link System#nanoTime()} calls.
+ */
+final class InterceptorSlowCallLog implements Interceptor {
+
+    private final SlowCallLog slowCallLog;
+
+    InterceptorSlowCallLog(SlowCallLog slowCallLog) {
+        this.slowCallLog = slowCallLog;
+    }
+
+    @Override
+    @SuppressWarnings("squid:S1181")
+    public Object intercept(Invocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return invocation.invoke();
+        } catch (Throwable t) {
+            thrown = t;
+            throw t;
+        } finally {
+            long duration = System.nanoTime() - start;
+            if (duration >= slowCallLog.getThresholdNanos()) {
+                slowCallLog.offer(invocation, duration, thrown);
+            }
+        }
+    }
+}
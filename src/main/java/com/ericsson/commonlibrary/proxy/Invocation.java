@@ -41,6 +41,9 @@ public final class Invocation {
     private final Deque<Interceptor> interceptorStack;
     private final Method method;
     private final Method proceed;
+    private final ProxyOverhead.Counters overhead;
+    private Thread measuringThread;
+    private long measuredNanos;
 
     private static Method interceptMethod;
     static {
@@ -52,11 +55,23 @@ public final class Invocation {
     }
 
     Invocation(Object target, Method method, Method proceed, Object[] targetArgs, Deque<Interceptor> interceptorStack) {
+        this(target, method, proceed, targetArgs, interceptorStack, null);
+    }
+
+    /**
+     * @param overhead
+     *            the counters to record the {@link ProxyOverhead} in, or null if the invocation isn't measured. Only
+     *            invocations on the creating thread are measured.
+     */
+    Invocation(Object target, Method method, Method proceed, Object[] targetArgs, Deque<Interceptor> interceptorStack,
+            ProxyOverhead.Counters overhead) {
         this.target = target;
         this.method = method;
         this.proceed = proceed;
         this.parameters = targetArgs;
         this.interceptorStack = interceptorStack;
+        this.overhead = overhead;
+        this.measuringThread = overhead == null ? null : Thread.currentThread();
     }
 
     /**
@@ -117,7 +132,65 @@ public final class Invocation {
      *             any type of exception/error including actual ones from the method called.
      */
     public Object invoke() throws Throwable {
+        if (isMeasured()) {
+            return invokeMeasured();
+        }
+        return invokeNext();
+    }
+
+    /**
+     * Invokes the method on a delegate object instead of the next interceptor, used by interceptors that delegate to
+     * other implementations. The call is measured as target time by {@link ProxyOverhead}.
+     */
+    Object invokeDelegate(Object delegate, Method methodInDelegate) throws Throwable {
+        if (!isMeasured()) {
+            return Util.invokeMethodInObject(parameters, delegate, methodInDelegate);
+        }
+        long start = System.nanoTime();
+        try {
+            return Util.invokeMethodInObject(parameters, delegate, methodInDelegate);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            overhead.recordTarget(elapsed);
+            measuredNanos += elapsed;
+        }
+    }
+
+    /**
+     * Ends the {@link ProxyOverhead} measurement, invocations made after this, or on other threads, are not measured.
+     * The measured fields are only touched by the creating thread, so continuations on other threads can't race with
+     * it.
+     *
+     * @return the time spent in the invocations made on the creating thread.
+     */
+    long finishMeasurement() {
+        measuringThread = null;
+        return measuredNanos;
+    }
+
+    private boolean isMeasured() {
+        return measuringThread == Thread.currentThread();
+    }
+
+    private Object invokeMeasured() throws Throwable {
+        Interceptor next = interceptorStack.peek();
+        long outerNanos = measuredNanos;
+        measuredNanos = 0;
+        long start = System.nanoTime();
+        try {
+            return invokeNext();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (next == null) {
+                overhead.recordTarget(elapsed);
+            } else {
+                overhead.recordInterceptor(next.getClass(), elapsed - measuredNanos);
+            }
+            measuredNanos = outerNanos + elapsed;
+        }
+    }
 
+    private Object invokeNext() throws Throwable {
         if (interceptorStack.isEmpty()) {
             if (Util.isMethodWithImplementation(method)) {
                 try {
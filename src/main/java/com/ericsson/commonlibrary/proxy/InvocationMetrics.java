@@ -0,0 +1,192 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects latency histograms, invocation counts and error counts per method for proxies created with
+ * {@link Proxy#addMetricsToMethods(Object, InvocationMetrics)}. Recording is lock free and nothing is logged or
+ * formatted on the calling thread, use {@link #snapshot()} to read the statistics or
+ * {@link #logPeriodically(long, TimeUnit)} to have them logged from a background thread.
+ *
+ * <pre>
+ * InvocationMetrics metrics = new InvocationMetrics();
+ * MyService service = Proxy.addMetricsToMethods(new MyService(), metrics);
+ * ...
+ * long p99 = metrics.snapshot().get("com.mycompany.MyService.find(String)").getPercentileNanos(99);
+ * </pre>
+ *
+ * The same metrics object can be shared by several proxies. The statistics can also be published over JMX with
+ * {@link #registerMBeans()}.
+ */
+public final class InvocationMetrics {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InvocationMetrics.class);
+
+    private static final String MBEAN_DOMAIN = "com.ericsson.commonlibrary.proxy";
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final int id = INSTANCES.incrementAndGet();
+    private final Map<Class<?>, ClassMetrics> classes = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectName> mbeans = new HashMap<>();
+    private volatile boolean registerMBeans;
+    private ScheduledExecutorService periodicLogger;
+
+    /**
+     * @return snapshots of all methods that has been invoked, sorted on the method names.
+     */
+    public Map<String, MethodMetricsSnapshot> snapshot() {
+        Map<String, MethodMetricsSnapshot> snapshots = new TreeMap<>();
+        for (ClassMetrics classMetrics : classes.values()) {
+            for (MethodMetrics metrics : classMetrics.getMethods()) {
+                snapshots.put(metrics.getName(), metrics.snapshot());
+            }
+        }
+        return Collections.unmodifiableMap(snapshots);
+    }
+
+    /**
+     * Clears the statistics of all methods.
+     */
+    public void reset() {
+        for (ClassMetrics classMetrics : classes.values()) {
+            for (MethodMetrics metrics : classMetrics.getMethods()) {
+                metrics.reset();
+            }
+        }
+    }
+
+    /**
+     * Logs a snapshot of every invoked method with slf4j from a background daemon thread. Replaces any earlier periodic
+     * logging.
+     *
+     * @param period
+     *            time between the logging
+     * @param unit
+     *            of the period
+     */
+    public synchronized void logPeriodically(long period, TimeUnit unit) {
+        stopLogging();
+        periodicLogger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "proxy-metrics-logger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        periodicLogger.scheduleAtFixedRate(this::log, period, period, unit);
+    }
+
+    /**
+     * Stops the logging started by {@link #logPeriodically(long, TimeUnit)}.
+     */
+    public synchronized void stopLogging() {
+        if (periodicLogger != null) {
+            periodicLogger.shutdownNow();
+            periodicLogger = null;
+        }
+    }
+
+    /**
+     * Registers a {@link ProxyStatisticsMXBean} in the platform MBeanServer for every proxied class, now and in the
+     * future. The MBeans are named "com.ericsson.commonlibrary.proxy:type=ProxyStatistics,metrics=&lt;id&gt;,
+     * class=&lt;proxied class&gt;".
+     */
+    public synchronized void registerMBeans() {
+        registerMBeans = true;
+        for (ClassMetrics classMetrics : classes.values()) {
+            registerMBean(classMetrics);
+        }
+    }
+
+    /**
+     * Unregisters all MBeans registered by {@link #registerMBeans()} and stops registering new ones.
+     */
+    public synchronized void unregisterMBeans() {
+        registerMBeans = false;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : mbeans.values()) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                LOG.warn("Was not able to unregister MBean: {}", name, e);
+            }
+        }
+        mbeans.clear();
+    }
+
+    ClassMetrics forClass(Class<?> proxiedClass) {
+        ClassMetrics metrics = classes.get(proxiedClass);
+        if (metrics == null) {
+            ClassMetrics created = new ClassMetrics(proxiedClass);
+            metrics = classes.putIfAbsent(proxiedClass, created);
+            if (metrics == null) {
+                metrics = created;
+                if (registerMBeans) {
+                    registerMBean(created);
+                }
+            }
+        }
+        return metrics;
+    }
+
+    private synchronized void registerMBean(ClassMetrics classMetrics) {
+        Class<?> proxiedClass = classMetrics.getProxiedClass();
+        if (!registerMBeans || mbeans.containsKey(proxiedClass)) {
+            return;
+        }
+        try {
+            ObjectName name = new ObjectName(MBEAN_DOMAIN + ":type=ProxyStatistics,metrics=" + id + ",class="
+                    + ObjectName.quote(proxiedClass.getName()));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new ProxyStatistics(classMetrics), name);
+            mbeans.put(proxiedClass, name);
+        } catch (JMException e) {
+            LOG.warn("Was not able to register MBean for: {}", proxiedClass, e);
+        }
+    }
+
+    private void log() {
+        if (!LOG.isInfoEnabled()) {
+            return;
+        }
+        for (MethodMetricsSnapshot snapshot : snapshot().values()) {
+            if (snapshot.getCount() > 0) {
+                LOG.info("{}", snapshot);
+            }
+        }
+    }
+}
@@ -0,0 +1,461 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A fixed capacity array of java beans where every property is stored in its own column (a primitive array for int,
+ * long and double properties). The beans are accessed through a single reusable cursor object that implements the bean
+ * interface/abstract class, while bulk operations can be done directly on the columns without going through any proxy
+ * at all.
+ *
+ * <pre>
+ * {@code
+ * JavaBeanArray<PersonBean> persons = Proxy.javaBeanArray(PersonBean.class, 1000);
+ * persons.add().setAge(20);
+ * persons.add().setAge(30);
+ * long totalAge = persons.intColumn("age").sum();
+ * }
+ * </pre>
+ *
+ * Notice that the cursor is shared, so a bean returned by {@link #get(int)} or {@link #add()} is only valid until the
+ * next call to one of them. A JavaBeanArray is not thread safe.
+ *
+ * @param <T>
+ *            the java bean type of the elements.
+ */
+public final class JavaBeanArray<T> {
+
+    private static final int IS_LENGTH = 2;
+    private static final int XET_LENGTH = 3;
+
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+    private final int capacity;
+    private final T cursor;
+    private int size;
+    private int cursorIndex = -1;
+
+    JavaBeanArray(Class<T> beanClass, int capacity, T cursor) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("The capacity can not be negative, was: " + capacity);
+        }
+        this.capacity = capacity;
+        this.cursor = cursor;
+        for (Method method : beanClass.getMethods()) {
+            String name = getPropertyName(method);
+            if (name == null || columns.containsKey(name)) {
+                continue;
+            }
+            if (method.getParameterCount() == 0 && !method.getReturnType().equals(void.class)) {
+                columns.put(name, createColumn(method.getReturnType()));
+            } else if (method.getParameterCount() == 1 && method.getName().startsWith("set")) {
+                columns.put(name, createColumn(method.getParameterTypes()[0]));
+            }
+        }
+    }
+
+    /**
+     * @return the number of beans that has been added.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the maximum number of beans this array can hold.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the names of all properties (columns) of the bean type.
+     */
+    public Set<String> propertyNames() {
+        return Collections.unmodifiableSet(columns.keySet());
+    }
+
+    /**
+     * Appends a new bean where all properties have their default values (0, false or null).
+     *
+     * @return the cursor positioned at the added bean.
+     *
+     * @throws IllegalStateException
+     *             if the array is already full.
+     */
+    public T add() {
+        if (size == capacity) {
+            throw new IllegalStateException("The JavaBeanArray is full, capacity: " + capacity);
+        }
+        cursorIndex = size++;
+        return cursor;
+    }
+
+    /**
+     * Positions the cursor at the bean with the provided index.
+     *
+     * @param index
+     *            of the bean
+     *
+     * @return the cursor positioned at the bean, it's only valid until the cursor is moved again.
+     */
+    public T get(int index) {
+        checkIndex(index);
+        cursorIndex = index;
+        return cursor;
+    }
+
+    /**
+     * @param property
+     *            name of a int property, like "age" for getAge()/setAge(int)
+     *
+     * @return the column holding all values of the property.
+     */
+    public IntColumn intColumn(String property) {
+        return getColumn(property, IntColumn.class);
+    }
+
+    /**
+     * @param property
+     *            name of a long property, like "id" for getId()/setId(long)
+     *
+     * @return the column holding all values of the property.
+     */
+    public LongColumn longColumn(String property) {
+        return getColumn(property, LongColumn.class);
+    }
+
+    /**
+     * @param property
+     *            name of a double property, like "weight" for getWeight()/setWeight(double)
+     *
+     * @return the column holding all values of the property.
+     */
+    public DoubleColumn doubleColumn(String property) {
+        return getColumn(property, DoubleColumn.class);
+    }
+
+    int getCursorIndex() {
+        return cursorIndex;
+    }
+
+    Column findColumn(String propertyName) {
+        return columns.get(propertyName);
+    }
+
+    static String getPropertyName(Method method) {
+        String methodName = method.getName();
+        if ("getClass".equals(methodName)) {
+            return null;
+        }
+        if (methodName.startsWith("get") || methodName.startsWith("set")) {
+            return methodName.length() > XET_LENGTH ? methodName.substring(XET_LENGTH) : null;
+        } else if (methodName.startsWith("is")) {
+            return methodName.length() > IS_LENGTH ? methodName.substring(IS_LENGTH) : null;
+        }
+        return null;
+    }
+
+    private <C extends Column> C getColumn(String property, Class<C> columnType) {
+        Column column = columns.get(capitalize(property));
+        if (column == null) {
+            throw new IllegalArgumentException(
+                    "There exist no property: " + property + " in the bean, existing: " + columns.keySet());
+        }
+        if (!columnType.isInstance(column)) {
+            throw new IllegalArgumentException("The property: " + property + " is not stored in a "
+                    + columnType.getSimpleName() + " but in a " + column.getClass().getSimpleName());
+        }
+        return columnType.cast(column);
+    }
+
+    private static String capitalize(String property) {
+        if (property.isEmpty()) {
+            return property;
+        }
+        return Character.toUpperCase(property.charAt(0)) + property.substring(1);
+    }
+
+    private Column createColumn(Class<?> type) {
+        if (type.equals(int.class)) {
+            return new IntColumn(this);
+        } else if (type.equals(long.class)) {
+            return new LongColumn(this);
+        } else if (type.equals(double.class)) {
+            return new DoubleColumn(this);
+        }
+        return new ObjectColumn(this, type);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Base class of all columns.
+     */
+    abstract static class Column {
+
+        final JavaBeanArray<?> owner;
+
+        Column(JavaBeanArray<?> owner) {
+            this.owner = owner;
+        }
+
+        abstract Object getValue(int index);
+
+        abstract void setValue(int index, Object value);
+    }
+
+    /**
+     * A column holding the values of a int property for all beans.
+     */
+    public static final class IntColumn extends Column {
+
+        private final int[] values;
+
+        IntColumn(JavaBeanArray<?> owner) {
+            super(owner);
+            values = new int[owner.capacity];
+        }
+
+        /**
+         * @param index
+         *            of the bean
+         *
+         * @return the value of the bean with the index.
+         */
+        public int get(int index) {
+            owner.checkIndex(index);
+            return values[index];
+        }
+
+        /**
+         * @param index
+         *            of the bean
+         * @param value
+         *            new value of the property for the bean with the index.
+         */
+        public void set(int index, int value) {
+            owner.checkIndex(index);
+            values[index] = value;
+        }
+
+        /**
+         * @return the sum of the property for all added beans.
+         */
+        public long sum() {
+            int length = owner.size;
+            long sum = 0;
+            for (int i = 0; i < length; i++) {
+                sum += values[i];
+            }
+            return sum;
+        }
+
+        /**
+         * @return the backing array, only the first {@link JavaBeanArray#size()} elements are in use. Changes to the
+         *         array are visible through the beans.
+         */
+        public int[] array() {
+            return values;
+        }
+
+        @Override
+        Object getValue(int index) {
+            return values[index];
+        }
+
+        @Override
+        void setValue(int index, Object value) {
+            values[index] = (Integer) value;
+        }
+    }
+
+    /**
+     * A column holding the values of a long property for all beans.
+     */
+    public static final class LongColumn extends Column {
+
+        private final long[] values;
+
+        LongColumn(JavaBeanArray<?> owner) {
+            super(owner);
+            values = new long[owner.capacity];
+        }
+
+        /**
+         * @param index
+         *            of the bean
+         *
+         * @return the value of the bean with the index.
+         */
+        public long get(int index) {
+            owner.checkIndex(index);
+            return values[index];
+        }
+
+        /**
+         * @param index
+         *            of the bean
+         * @param value
+         *            new value of the property for the bean with the index.
+         */
+        public void set(int index, long value) {
+            owner.checkIndex(index);
+            values[index] = value;
+        }
+
+        /**
+         * @return the sum of the property for all added beans.
+         */
+        public long sum() {
+            int length = owner.size;
+            long sum = 0;
+            for (int i = 0; i < length; i++) {
+                sum += values[i];
+            }
+            return sum;
+        }
+
+        /**
+         * @return the backing array, only the first {@link JavaBeanArray#size()} elements are in use. Changes to the
+         *         array are visible through the beans.
+         */
+        public long[] array() {
+            return values;
+        }
+
+        @Override
+        Object getValue(int index) {
+            return values[index];
+        }
+
+        @Override
+        void setValue(int index, Object value) {
+            values[index] = (Long) value;
+        }
+    }
+
+    /**
+     * A column holding the values of a double property for all beans.
+     */
+    public static final class DoubleColumn extends Column {
+
+        private final double[] values;
+
+        DoubleColumn(JavaBeanArray<?> owner) {
+            super(owner);
+            values = new double[owner.capacity];
+        }
+
+        /**
+         * @param index
+         *            of the bean
+         *
+         * @return the value of the bean with the index.
+         */
+        public double get(int index) {
+            owner.checkIndex(index);
+            return values[index];
+        }
+
+        /**
+         * @param index
+         *            of the bean
+         * @param value
+         *            new value of the property for the bean with the index.
+         */
+        public void set(int index, double value) {
+            owner.checkIndex(index);
+            values[index] = value;
+        }
+
+        /**
+         * @return the sum of the property for all added beans.
+         */
+        public double sum() {
+            int length = owner.size;
+            double sum = 0;
+            for (int i = 0; i < length; i++) {
+                sum += values[i];
+            }
+            return sum;
+        }
+
+        /**
+         * @return the backing array, only the first {@link JavaBeanArray#size()} elements are in use. Changes to the
+         *         array are visible through the beans.
+         */
+        public double[] array() {
+            return values;
+        }
+
+        @Override
+        Object getValue(int index) {
+            return values[index];
+        }
+
+        @Override
+        void setValue(int index, Object value) {
+            values[index] = (Double) value;
+        }
+    }
+
+    /**
+     * A column for all other types of properties, primitives are stored boxed.
+     */
+    static final class ObjectColumn extends Column {
+
+        private final Object[] values;
+
+        ObjectColumn(JavaBeanArray<?> owner, Class<?> type) {
+            super(owner);
+            values = new Object[owner.capacity];
+            if (type.isPrimitive()) {
+                // a primitive array is initialized to the default value of the primitive type.
+                Object defaultValue = Array.get(Array.newInstance(type, 1), 0);
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = defaultValue;
+                }
+            }
+        }
+
+        @Override
+        Object getValue(int index) {
+            return values[index];
+        }
+
+        @Override
+        void setValue(int index, Object value) {
+            values[index] = value;
+        }
+    }
+}
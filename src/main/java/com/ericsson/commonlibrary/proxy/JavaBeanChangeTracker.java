@@ -0,0 +1,59 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps track of which properties of a java bean that has been modified since the changes was drained the last time.
+ * Useful when only the changed properties of a java bean should be persisted or replicated. Get it with
+ * {@link Proxy#getChangeTracker(Object)} from a java bean created with {@link Proxy#javaBeanWithChangeTracking(Class)}.
+ */
+public interface JavaBeanChangeTracker {
+
+    /**
+     * @return the names of all properties that has been modified since the last drain, like "Name" for setName().
+     */
+    Set<String> changedProperties();
+
+    /**
+     * Returns all modified properties with their current values and starts tracking from scratch again. The changes are
+     * also delivered as one batch to the {@link JavaBeanChangeListener} if one is set.
+     *
+     * @return the modified properties and their current values, ordered as the properties are declared.
+     */
+    Map<String, Object> drainChanges();
+
+    /**
+     * Sets the listener that gets the changes in batches. The changes are drained and delivered automatically, in the
+     * thread that called the setter, as soon as the given number of properties has been modified. Call
+     * {@link #drainChanges()} to deliver a smaller batch, for example when the bean is persisted.
+     *
+     * @param listener
+     *            to set, or null to remove the current listener.
+     * @param batchSize
+     *            number of modified properties that triggers a batch, 1 delivers every change directly. Can't be more
+     *            than the number of properties of the bean.
+     */
+    void setChangeListener(JavaBeanChangeListener listener, int batchSize);
+}
@@ -0,0 +1,83 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Emits Java Flight Recorder events for {@link InterceptorJfr}. The JFR implementation is only available in the Java 11
+ * section of the multi-release jar, on Java 8 a no-op recorder is used instead.
+ */
+interface JfrRecorder {
+
+    String IMPLEMENTATION = "com.ericsson.commonlibrary.proxy.JfrEventRecorder";
+
+    JfrRecorder NO_OP = new JfrRecorder() {
+
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public Object begin() {
+            return null;
+        }
+
+        @Override
+        public void commit(Object event, Invocation invocation, Throwable thrown) {
+            // nothing to do
+        }
+    };
+
+    /**
+     * @return true if a recording is running that has the invocation event enabled.
+     */
+    boolean isEnabled();
+
+    /**
+     * @return a started event.
+     */
+    Object begin();
+
+    /**
+     * Ends and commits the event started by {@link #begin()}.
+     *
+     * @param thrown
+     *            the exception thrown by the invocation or null
+     */
+    void commit(Object event, Invocation invocation, Throwable thrown);
+
+    /**
+     * @return the JFR recorder if it's supported by the running JVM, otherwise the no-op one.
+     */
+    static JfrRecorder load() {
+        try {
+            return (JfrRecorder) Class.forName(IMPLEMENTATION).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            Logger log = LoggerFactory.getLogger(JfrRecorder.class);
+            log.debug("Java Flight Recorder events are not supported, they will not be emitted", e);
+            return NO_OP;
+        }
+    }
+}
@@ -0,0 +1,656 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Wrappers for returned collections, iterators and streams that apply a function to each element first when the element
+ * is read. Used by {@link InterceptorRecursive} so that elements are intercepted as they are consumed instead of
+ * eagerly proxying, or missing, the elements of large collections and streams.
+ * <p>
+ * All methods that don't return elements are delegated as they are, so membership checks still work on the original
+ * elements. Lists, sets, maps and map entries follow the equals and hashCode contracts of their interfaces over the
+ * wrapped elements, other collections and iterables use identity like most collections do.
+ */
+final class LazyElementWrappers {
+
+    private LazyElementWrappers() {
+        // hidden
+    }
+
+    /**
+     * @param value
+     *            the returned object
+     * @param declaredType
+     *            the declared return type of the method
+     * @param elementWrapper
+     *            applied to each element when it's read
+     *
+     * @return a lazy wrapper or null if the declared type is not one of the supported interfaces.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static Object wrap(Object value, Class<?> declaredType, UnaryOperator<Object> elementWrapper) {
+        if (declaredType == List.class) {
+            return lazyList((List) value, elementWrapper);
+        } else if (declaredType == Set.class) {
+            return new LazySet((Set) value, elementWrapper);
+        } else if (declaredType == Collection.class) {
+            return new LazyCollection((Collection) value, elementWrapper);
+        } else if (declaredType == Iterable.class) {
+            return new LazyIterable((Iterable) value, elementWrapper);
+        } else if (declaredType == Iterator.class) {
+            return new LazyIterator((Iterator) value, elementWrapper);
+        } else if (declaredType == Spliterator.class) {
+            return new LazySpliterator((Spliterator) value, elementWrapper);
+        } else if (declaredType == Stream.class) {
+            return ((Stream) value).map(elementWrapper);
+        } else if (declaredType == Map.class) {
+            return new LazyMap((Map) value, elementWrapper);
+        }
+        return null;
+    }
+
+    private static <E> List<E> lazyList(List<E> list, UnaryOperator<E> wrapper) {
+        return list instanceof RandomAccess ? new LazyRandomAccessList<>(list, wrapper) : new LazyList<>(list, wrapper);
+    }
+
+    private static class LazyIterable<E> implements Iterable<E> {
+
+        final Iterable<E> delegate;
+        final UnaryOperator<E> wrapper;
+
+        LazyIterable(Iterable<E> delegate, UnaryOperator<E> wrapper) {
+            this.delegate = delegate;
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new LazyIterator<>(delegate.iterator(), wrapper);
+        }
+
+        @Override
+        public void forEach(Consumer<? super E> action) {
+            delegate.forEach(element -> action.accept(wrapper.apply(element)));
+        }
+
+        @Override
+        public Spliterator<E> spliterator() {
+            return new LazySpliterator<>(delegate.spliterator(), wrapper);
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+
+    private static class LazyCollection<E> extends LazyIterable<E> implements Collection<E> {
+
+        LazyCollection(Collection<E> delegate, UnaryOperator<E> wrapper) {
+            super(delegate, wrapper);
+        }
+
+        Collection<E> delegate() {
+            return (Collection<E>) delegate;
+        }
+
+        @Override
+        public int size() {
+            return delegate().size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return delegate().isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return delegate().contains(o);
+        }
+
+        @Override
+        public Object[] toArray() {
+            Object[] array = delegate().toArray();
+            for (int i = 0; i < array.length; i++) {
+                array[i] = wrapper.apply(cast(array[i]));
+            }
+            return array;
+        }
+
+        @Override
+        public <T> T[] toArray(T[] a) {
+            T[] array = delegate().toArray(a);
+            int size = Math.min(array.length, size());
+            for (int i = 0; i < size; i++) {
+                array[i] = cast(wrapper.apply(cast(array[i])));
+            }
+            return array;
+        }
+
+        @Override
+        public boolean add(E e) {
+            return delegate().add(e);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return delegate().remove(o);
+        }
+
+        @Override
+        public boolean containsAll(Collection<?> c) {
+            return delegate().containsAll(c);
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends E> c) {
+            return delegate().addAll(c);
+        }
+
+        @Override
+        public boolean removeAll(Collection<?> c) {
+            return delegate().removeAll(c);
+        }
+
+        @Override
+        public boolean retainAll(Collection<?> c) {
+            return delegate().retainAll(c);
+        }
+
+        @Override
+        public void clear() {
+            delegate().clear();
+        }
+
+        @Override
+        public Stream<E> stream() {
+            return delegate().stream().map(wrapper);
+        }
+
+        @Override
+        public Stream<E> parallelStream() {
+            return delegate().parallelStream().map(wrapper);
+        }
+    }
+
+    private static final class LazySet<E> extends LazyCollection<E> implements Set<E> {
+
+        LazySet(Set<E> delegate, UnaryOperator<E> wrapper) {
+            super(delegate, wrapper);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Set)) {
+                return false;
+            }
+            Collection<?> other = (Collection<?>) obj;
+            return other.size() == size() && containsAll(other);
+        }
+
+        @Override
+        public int hashCode() {
+            int hashCode = 0;
+            for (E element : this) {
+                hashCode += Objects.hashCode(element);
+            }
+            return hashCode;
+        }
+    }
+
+    private static class LazyList<E> extends LazyCollection<E> implements List<E> {
+
+        LazyList(List<E> delegate, UnaryOperator<E> wrapper) {
+            super(delegate, wrapper);
+        }
+
+        private List<E> list() {
+            return (List<E>) delegate;
+        }
+
+        @Override
+        public E get(int index) {
+            return wrapper.apply(list().get(index));
+        }
+
+        @Override
+        public E set(int index, E element) {
+            return list().set(index, element);
+        }
+
+        @Override
+        public void add(int index, E element) {
+            list().add(index, element);
+        }
+
+        @Override
+        public E remove(int index) {
+            return list().remove(index);
+        }
+
+        @Override
+        public boolean addAll(int index, Collection<? extends E> c) {
+            return list().addAll(index, c);
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            return list().indexOf(o);
+        }
+
+        @Override
+        public int lastIndexOf(Object o) {
+            return list().lastIndexOf(o);
+        }
+
+        @Override
+        public ListIterator<E> listIterator() {
+            return new LazyListIterator<>(list().listIterator(), wrapper);
+        }
+
+        @Override
+        public ListIterator<E> listIterator(int index) {
+            return new LazyListIterator<>(list().listIterator(index), wrapper);
+        }
+
+        @Override
+        public List<E> subList(int fromIndex, int toIndex) {
+            return lazyList(list().subList(fromIndex, toIndex), wrapper);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof List)) {
+                return false;
+            }
+            Iterator<E> elements = iterator();
+            Iterator<?> others = ((List<?>) obj).iterator();
+            while (elements.hasNext() && others.hasNext()) {
+                if (!Objects.equals(elements.next(), others.next())) {
+                    return false;
+                }
+            }
+            return !elements.hasNext() && !others.hasNext();
+        }
+
+        @Override
+        public int hashCode() {
+            int hashCode = 1;
+            for (E element : this) {
+                hashCode = 31 * hashCode + Objects.hashCode(element);
+            }
+            return hashCode;
+        }
+    }
+
+    private static final class LazyRandomAccessList<E> extends LazyList<E> implements RandomAccess {
+
+        LazyRandomAccessList(List<E> delegate, UnaryOperator<E> wrapper) {
+            super(delegate, wrapper);
+        }
+    }
+
+    private static class LazyIterator<E> implements Iterator<E> {
+
+        final Iterator<E> delegate;
+        final UnaryOperator<E> wrapper;
+
+        LazyIterator(Iterator<E> delegate, UnaryOperator<E> wrapper) {
+            this.delegate = delegate;
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public E next() {
+            return wrapper.apply(delegate.next());
+        }
+
+        @Override
+        public void remove() {
+            delegate.remove();
+        }
+    }
+
+    private static final class LazyListIterator<E> extends LazyIterator<E> implements ListIterator<E> {
+
+        LazyListIterator(ListIterator<E> delegate, UnaryOperator<E> wrapper) {
+            super(delegate, wrapper);
+        }
+
+        private ListIterator<E> listIterator() {
+            return (ListIterator<E>) delegate;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return listIterator().hasPrevious();
+        }
+
+        @Override
+        public E previous() {
+            return wrapper.apply(listIterator().previous());
+        }
+
+        @Override
+        public int nextIndex() {
+            return listIterator().nextIndex();
+        }
+
+        @Override
+        public int previousIndex() {
+            return listIterator().previousIndex();
+        }
+
+        @Override
+        public void set(E e) {
+            listIterator().set(e);
+        }
+
+        @Override
+        public void add(E e) {
+            listIterator().add(e);
+        }
+    }
+
+    private static final class LazySpliterator<E> implements Spliterator<E> {
+
+        private final Spliterator<E> delegate;
+        private final UnaryOperator<E> wrapper;
+
+        LazySpliterator(Spliterator<E> delegate, UnaryOperator<E> wrapper) {
+            this.delegate = delegate;
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            return delegate.tryAdvance(element -> action.accept(wrapper.apply(element)));
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            delegate.forEachRemaining(element -> action.accept(wrapper.apply(element)));
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            Spliterator<E> split = delegate.trySplit();
+            return split == null ? null : new LazySpliterator<>(split, wrapper);
+        }
+
+        @Override
+        public long estimateSize() {
+            return delegate.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return delegate.characteristics() & ~Spliterator.SORTED; // wrapped elements don't keep the comparator.
+        }
+    }
+
+    /**
+     * Only the values are wrapped, keys are left as they are since they are used for lookups.
+     */
+    private static final class LazyMap<K, V> implements Map<K, V> {
+
+        private final Map<K, V> delegate;
+        private final UnaryOperator<V> wrapper;
+
+        LazyMap(Map<K, V> delegate, UnaryOperator<V> wrapper) {
+            this.delegate = delegate;
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return delegate.isEmpty();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return delegate.containsKey(key);
+        }
+
+        @Override
+        public boolean containsValue(Object value) {
+            return delegate.containsValue(value);
+        }
+
+        @Override
+        public V get(Object key) {
+            return wrapper.apply(delegate.get(key));
+        }
+
+        @Override
+        public V getOrDefault(Object key, V defaultValue) {
+            return wrapper.apply(delegate.getOrDefault(key, defaultValue));
+        }
+
+        @Override
+        public V put(K key, V value) {
+            return delegate.put(key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            return delegate.remove(key);
+        }
+
+        @Override
+        public void putAll(Map<? extends K, ? extends V> m) {
+            delegate.putAll(m);
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+
+        @Override
+        public Set<K> keySet() {
+            return delegate.keySet();
+        }
+
+        @Override
+        public Collection<V> values() {
+            return new LazyCollection<>(delegate.values(), wrapper);
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new LazySet<>(delegate.entrySet(), entry -> new LazyEntry<>(entry, wrapper));
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super K, ? super V> action) {
+            delegate.forEach((key, value) -> action.accept(key, wrapper.apply(value)));
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            return delegate.putIfAbsent(key, value);
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            return delegate.remove(key, value);
+        }
+
+        @Override
+        public boolean replace(K key, V oldValue, V newValue) {
+            return delegate.replace(key, oldValue, newValue);
+        }
+
+        @Override
+        public V replace(K key, V value) {
+            return delegate.replace(key, value);
+        }
+
+        @Override
+        public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+            delegate.replaceAll(function);
+        }
+
+        @Override
+        public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+            return wrapper.apply(delegate.computeIfAbsent(key, mappingFunction));
+        }
+
+        @Override
+        public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+            return wrapper.apply(delegate.computeIfPresent(key, remappingFunction));
+        }
+
+        @Override
+        public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+            return wrapper.apply(delegate.compute(key, remappingFunction));
+        }
+
+        @Override
+        public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+            return wrapper.apply(delegate.merge(key, value, remappingFunction));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Map)) {
+                return false;
+            }
+            Map<?, ?> other = (Map<?, ?>) obj;
+            if (other.size() != size()) {
+                return false;
+            }
+            for (Entry<K, V> entry : entrySet()) {
+                V value = entry.getValue();
+                if (value == null ? other.get(entry.getKey()) != null || !other.containsKey(entry.getKey())
+                        : !value.equals(other.get(entry.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hashCode = 0;
+            for (Entry<K, V> entry : entrySet()) {
+                hashCode += entry.hashCode();
+            }
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+
+    private static final class LazyEntry<K, V> implements Map.Entry<K, V> {
+
+        private final Map.Entry<K, V> delegate;
+        private final UnaryOperator<V> wrapper;
+
+        LazyEntry(Map.Entry<K, V> delegate, UnaryOperator<V> wrapper) {
+            this.delegate = delegate;
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public K getKey() {
+            return delegate.getKey();
+        }
+
+        @Override
+        public V getValue() {
+            return wrapper.apply(delegate.getValue());
+        }
+
+        @Override
+        public V setValue(V value) {
+            return delegate.setValue(value);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            return Objects.equals(getKey(), other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object object) {
+        return (T) object;
+    }
+}
@@ -0,0 +1,400 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.MDC;
+
+/**
+ * Decorates tasks and executors so that the MDC context of the thread that hands off the work is restored on the thread
+ * that runs it. The context is captured once when the task is decorated. Used by {@link InterceptorMdc} on the
+ * arguments to {@link java.util.concurrent.CompletionStage} and {@link Executor} methods.
+ */
+final class MdcPropagation {
+
+    private MdcPropagation() {
+        // hidden
+    }
+
+    /**
+     * @param type
+     *            the declared type
+     *
+     * @return true if values of the type are decorated by {@link #wrap(Object, Class, Map)}
+     */
+    static boolean isSupported(Class<?> type) {
+        return type == Runnable.class || type == Callable.class || type == Supplier.class || type == Function.class
+                || type == BiFunction.class || type == Consumer.class || type == BiConsumer.class
+                || type == Executor.class || type == ExecutorService.class;
+    }
+
+    /**
+     * @param value
+     *            to decorate
+     * @param declaredType
+     *            the declared type of the value, decides how it's decorated
+     * @param extraExecutorContext
+     *            added by executors on top of the context of the thread that hands off the work
+     *
+     * @return a decorated value which runs with the current MDC context, or the value itself if the type is not
+     *         supported.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static Object wrap(Object value, Class<?> declaredType, Map<String, String> extraExecutorContext) {
+        if (value == null || value instanceof ContextAware) {
+            return value;
+        }
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        if (declaredType == Runnable.class) {
+            return wrap((Runnable) value, context);
+        } else if (declaredType == Callable.class) {
+            return wrap((Callable) value, context);
+        } else if (declaredType == Supplier.class) {
+            return new ContextSupplier(context, (Supplier) value);
+        } else if (declaredType == Function.class) {
+            return new ContextFunction(context, (Function) value);
+        } else if (declaredType == BiFunction.class) {
+            return new ContextBiFunction(context, (BiFunction) value);
+        } else if (declaredType == Consumer.class) {
+            return new ContextConsumer(context, (Consumer) value);
+        } else if (declaredType == BiConsumer.class) {
+            return new ContextBiConsumer(context, (BiConsumer) value);
+        } else if (declaredType == ExecutorService.class) {
+            return new ContextExecutorService((ExecutorService) value, extraExecutorContext);
+        } else if (declaredType == Executor.class) {
+            return new ContextExecutor((Executor) value, extraExecutorContext);
+        }
+        return value;
+    }
+
+    /**
+     * @param tasks
+     *            a collection of {@link Callable}
+     *
+     * @return a list with the tasks decorated
+     */
+    static <T> List<Callable<T>> wrapAll(Collection<? extends Callable<T>> tasks) {
+        return wrapAll(tasks, MDC.getCopyOfContextMap());
+    }
+
+    private static <T> List<Callable<T>> wrapAll(Collection<? extends Callable<T>> tasks, Map<String, String> context) {
+        List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            wrapped.add(wrap(task, context));
+        }
+        return wrapped;
+    }
+
+    private static Runnable wrap(Runnable task, Map<String, String> context) {
+        return task instanceof ContextAware ? task : new ContextRunnable(context, task);
+    }
+
+    private static <T> Callable<T> wrap(Callable<T> task, Map<String, String> context) {
+        return task instanceof ContextAware ? task : new ContextCallable<>(context, task);
+    }
+
+    private static Map<String, String> enter(Map<String, String> context) {
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        set(context);
+        return previous;
+    }
+
+    private static void set(Map<String, String> context) {
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+
+    /**
+     * Marks objects that already restores a context, so they are not decorated twice.
+     */
+    private interface ContextAware {
+    }
+
+    private static final class ContextRunnable implements Runnable, ContextAware {
+
+        private final Map<String, String> context;
+        private final Runnable task;
+
+        ContextRunnable(Map<String, String> context, Runnable task) {
+            this.context = context;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            Map<String, String> previous = enter(context);
+            try {
+                task.run();
+            } finally {
+                set(previous);
+            }
+        }
+    }
+
+    private static final class ContextCallable<T> implements Callable<T>, ContextAware {
+
+        private final Map<String, String> context;
+        private final Callable<T> task;
+
+        ContextCallable(Map<String, String> context, Callable<T> task) {
+            this.context = context;
+            this.task = task;
+        }
+
+        @Override
+        public T call() throws Exception {
+            Map<String, String> previous = enter(context);
+            try {
+                return task.call();
+            } finally {
+                set(previous);
+            }
+        }
+    }
+
+    private static final class ContextSupplier<T> implements Supplier<T>, ContextAware {
+
+        private final Map<String, String> context;
+        private final Supplier<T> task;
+
+        ContextSupplier(Map<String, String> context, Supplier<T> task) {
+            this.context = context;
+            this.task = task;
+        }
+
+        @Override
+        public T get() {
+            Map<String, String> previous = enter(context);
+            try {
+                return task.get();
+            } finally {
+                set(previous);
+            }
+        }
+    }
+
+    private static final class ContextFunction<T, R> implements Function<T, R>, ContextAware {
+
+        private final Map<String, String> context;
+        private final Function<T, R> task;
+
+        ContextFunction(Map<String, String> context, Function<T, R> task) {
+            this.context = context;
+            this.task = task;
+        }
+
+        @Override
+        public R apply(T t) {
+            Map<String, String> previous = enter(context);
+            try {
+                return task.apply(t);
+            } finally {
+                set(previous);
+            }
+        }
+    }
+
+    private static final class ContextBiFunction<T, U, R> implements BiFunction<T, U, R>, ContextAware {
+
+        private final Map<String, String> context;
+        private final BiFunction<T, U, R> task;
+
+        ContextBiFunction(Map<String, String> context, BiFunction<T, U, R> task) {
+            this.context = context;
+            this.task = task;
+        }
+
+        @Override
+        public R apply(T t, U u) {
+            Map<String, String> previous = enter(context);
+            try {
+                return task.apply(t, u);
+            } finally {
+                set(previous);
+            }
+        }
+    }
+
+    private static final class ContextConsumer<T> implements Consumer<T>, ContextAware {
+
+        private final Map<String, String> context;
+        private final Consumer<T> task;
+
+        ContextConsumer(Map<String, String> context, Consumer<T> task) {
+            this.context = context;
+            this.task = task;
+        }
+
+        @Override
+        public void accept(T t) {
+            Map<String, String> previous = enter(context);
+            try {
+                task.accept(t);
+            } finally {
+                set(previous);
+            }
+        }
+    }
+
+    private static final class ContextBiConsumer<T, U> implements BiConsumer<T, U>, ContextAware {
+
+        private final Map<String, String> context;
+        private final BiConsumer<T, U> task;
+
+        ContextBiConsumer(Map<String, String> context, BiConsumer<T, U> task) {
+            this.context = context;
+            this.task = task;
+        }
+
+        @Override
+        public void accept(T t, U u) {
+            Map<String, String> previous = enter(context);
+            try {
+                task.accept(t, u);
+            } finally {
+                set(previous);
+            }
+        }
+    }
+
+    /**
+     * Captures the context of the thread handing off a task, with the extra context added on top.
+     */
+    private static class ContextExecutor implements Executor, ContextAware {
+
+        private final Executor executor;
+        private final Map<String, String> extraContext;
+
+        ContextExecutor(Executor executor, Map<String, String> extraContext) {
+            this.executor = executor;
+            this.extraContext = extraContext;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            executor.execute(wrap(command, capture()));
+        }
+
+        Map<String, String> capture() {
+            Map<String, String> context = MDC.getCopyOfContextMap();
+            if (extraContext.isEmpty()) {
+                return context;
+            }
+            Map<String, String> merged = context == null ? new HashMap<>() : new HashMap<>(context);
+            merged.putAll(extraContext);
+            return merged;
+        }
+    }
+
+    private static final class ContextExecutorService extends ContextExecutor implements ExecutorService {
+
+        private final ExecutorService executor;
+
+        ContextExecutorService(ExecutorService executor, Map<String, String> extraContext) {
+            super(executor, extraContext);
+            this.executor = executor;
+        }
+
+        @Override
+        public void shutdown() {
+            executor.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return executor.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return executor.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return executor.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return executor.awaitTermination(timeout, unit);
+        }
+
+        @Override
+        public <T> Future<T> submit(Callable<T> task) {
+            return executor.submit(wrap(task, capture()));
+        }
+
+        @Override
+        public <T> Future<T> submit(Runnable task, T result) {
+            return executor.submit(wrap(task, capture()), result);
+        }
+
+        @Override
+        public Future<?> submit(Runnable task) {
+            return executor.submit(wrap(task, capture()));
+        }
+
+        @Override
+        public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+            return executor.invokeAll(wrapAll(tasks, capture()));
+        }
+
+        @Override
+        public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+                throws InterruptedException {
+            return executor.invokeAll(wrapAll(tasks, capture()), timeout, unit);
+        }
+
+        @Override
+        public <T> T invokeAny(Collection<? extends Callable<T>> tasks)
+                throws InterruptedException, ExecutionException {
+            return executor.invokeAny(wrapAll(tasks, capture()));
+        }
+
+        @Override
+        public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            return executor.invokeAny(wrapAll(tasks, capture()), timeout, unit);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * A key made of a method and the values of its arguments, used by interceptors that share results between calls with
+ * equal arguments. Arrays are compared on their content. The arguments are copied but not the objects in them, so they
+ * must not be changed after the call.
+ */
+final class MethodCallKey {
+
+    private final Method method;
+    private final Object[] args;
+    private final int hash;
+
+    MethodCallKey(Method method, Object[] args) {
+        this.method = method;
+        this.args = args.length == 0 ? args : args.clone();
+        this.hash = 31 * method.hashCode() + Arrays.deepHashCode(this.args);
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof MethodCallKey)) {
+            return false;
+        }
+        MethodCallKey other = (MethodCallKey) obj;
+        return hash == other.hash && method.equals(other.method) && Arrays.deepEquals(args, other.args);
+    }
+
+    @Override
+    public String toString() {
+        return method.getName() + Arrays.deepToString(args);
+    }
+}
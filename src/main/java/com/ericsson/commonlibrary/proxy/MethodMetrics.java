@@ -0,0 +1,117 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The live statistics of one method, updated by the recording interceptors of {@link InvocationMetrics}.
+ */
+final class MethodMetrics {
+
+    private final String name;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+    private final LongAdder cpuCount = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder allocatedCount = new LongAdder();
+
+    MethodMetrics(Class<?> proxiedClass, Method method) {
+        this.name = getName(proxiedClass, method);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @param weight
+     *            the number of calls the sampled call represents.
+     */
+    void record(long nanos, long weight) {
+        latencies.record(nanos, weight);
+    }
+
+    /**
+     * @param cpu
+     *            CPU time of the call or {@link ResourceMeter#UNSUPPORTED}
+     * @param allocated
+     *            allocated bytes of the call or {@link ResourceMeter#UNSUPPORTED}
+     */
+    void recordResources(long cpu, long allocated, long weight) {
+        if (cpu >= 0) {
+            cpuNanos.add(cpu * weight);
+            cpuCount.add(weight);
+        }
+        if (allocated >= 0) {
+            allocatedBytes.add(allocated * weight);
+            allocatedCount.add(weight);
+        }
+    }
+
+    void recordError(long weight) {
+        errors.add(weight);
+    }
+
+    void enter(long weight) {
+        inFlight.add(weight);
+    }
+
+    void exit(long weight) {
+        inFlight.add(-weight);
+    }
+
+    MethodMetricsSnapshot snapshot() {
+        return new MethodMetricsSnapshot(name, latencies.snapshot(), errors.sum(), inFlight.sum(),
+                new MethodMetricsSnapshot.Resources(cpuNanos.sum(), cpuCount.sum(), allocatedBytes.sum(),
+                        allocatedCount.sum()));
+    }
+
+    void reset() {
+        latencies.reset();
+        errors.reset();
+        cpuNanos.reset();
+        cpuCount.reset();
+        allocatedBytes.reset();
+        allocatedCount.reset();
+    }
+
+    /**
+     * @return for example "com.mycompany.MyService.find(String,int)", the class name is fully qualified so equally
+     *         named classes in different packages get their own metrics.
+     */
+    static String getName(Class<?> proxiedClass, Method method) {
+        StringBuilder name = new StringBuilder();
+        name.append(proxiedClass.getName()).append('.').append(method.getName()).append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                name.append(',');
+            }
+            name.append(parameterTypes[i].getSimpleName());
+        }
+        return name.append(')').toString();
+    }
+}
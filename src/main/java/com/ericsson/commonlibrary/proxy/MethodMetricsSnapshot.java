@@ -0,0 +1,188 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of the invocations of one method at the time the snapshot was taken. All times are in nanoseconds.
+ * Percentiles are taken from a histogram and are within 6.25% of the real value.
+ */
+public final class MethodMetricsSnapshot {
+
+    private static final double P50 = 50;
+    private static final double P90 = 90;
+    private static final double P99 = 99;
+
+    private final String method;
+    private final LatencyHistogram.Snapshot latencies;
+    private final long errorCount;
+    private final long inFlight;
+    private final Resources resources;
+
+    MethodMetricsSnapshot(String method, LatencyHistogram.Snapshot latencies, long errorCount, long inFlight,
+            Resources resources) {
+        this.method = method;
+        this.latencies = latencies;
+        this.errorCount = errorCount;
+        this.inFlight = inFlight;
+        this.resources = resources;
+    }
+
+    /**
+     * @return the fully qualified class name, method name and parameter types, for example
+     *         "com.mycompany.MyService.find(String,int)"
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return number of invocations.
+     */
+    public long getCount() {
+        return latencies.getCount();
+    }
+
+    /**
+     * @return number of invocations that threw an exception.
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * @return number of invocations that had started but not returned when the snapshot was taken.
+     */
+    public long getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return the longest invocation.
+     */
+    public long getMaxNanos() {
+        return latencies.getMax();
+    }
+
+    /**
+     * @return the average invocation time.
+     */
+    public double getMeanNanos() {
+        return latencies.getMean();
+    }
+
+    /**
+     * @param percentile
+     *            between 0 and 100, for example 99.9
+     *
+     * @return the invocation time that the given percentage of invocations are faster than or equal to.
+     */
+    public long getPercentileNanos(double percentile) {
+        return latencies.getPercentile(percentile);
+    }
+
+    /**
+     * @return the median invocation time.
+     */
+    public long getP50Nanos() {
+        return getPercentileNanos(P50);
+    }
+
+    /**
+     * @return the 90th percentile invocation time.
+     */
+    public long getP90Nanos() {
+        return getPercentileNanos(P90);
+    }
+
+    /**
+     * @return the 99th percentile invocation time.
+     */
+    public long getP99Nanos() {
+        return getPercentileNanos(P99);
+    }
+
+    /**
+     * @return the average CPU time of the invocations on the calling thread, or -1 if it was not measured. Only
+     *         measured by {@link Proxy#addResourceMetricsToMethods(Object, InvocationMetrics)} on JVMs that support it.
+     */
+    public double getMeanCpuNanos() {
+        return resources.cpuCount == 0 ? -1 : (double) resources.cpuNanos / resources.cpuCount;
+    }
+
+    /**
+     * @return the total CPU time of the invocations, or -1 if it was not measured.
+     */
+    public long getTotalCpuNanos() {
+        return resources.cpuCount == 0 ? -1 : resources.cpuNanos;
+    }
+
+    /**
+     * @return the average number of bytes allocated by the invocations on the calling thread, or -1 if it was not
+     *         measured. Only measured by {@link Proxy#addResourceMetricsToMethods(Object, InvocationMetrics)} on JVMs
+     *         that support it.
+     */
+    public double getMeanAllocatedBytes() {
+        return resources.allocatedCount == 0 ? -1 : (double) resources.allocatedBytes / resources.allocatedCount;
+    }
+
+    /**
+     * @return the total number of bytes allocated by the invocations, or -1 if it was not measured.
+     */
+    public long getTotalAllocatedBytes() {
+        return resources.allocatedCount == 0 ? -1 : resources.allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        String string = String.format(
+                "%s count: %d errors: %d mean: %.0f ns p50: %d ns p90: %d ns p99: %d ns max: %d ns (%d ms)", method,
+                getCount(), errorCount, getMeanNanos(), getP50Nanos(), getP90Nanos(), getP99Nanos(), getMaxNanos(),
+                TimeUnit.NANOSECONDS.toMillis(getMaxNanos()));
+        if (resources.cpuCount > 0) {
+            string += String.format(" mean cpu: %.0f ns", getMeanCpuNanos());
+        }
+        if (resources.allocatedCount > 0) {
+            string += String.format(" mean allocated: %.0f bytes", getMeanAllocatedBytes());
+        }
+        return string;
+    }
+
+    /**
+     * The CPU time and allocated bytes, and how many invocations they were measured for.
+     */
+    static final class Resources {
+
+        private final long cpuNanos;
+        private final long cpuCount;
+        private final long allocatedBytes;
+        private final long allocatedCount;
+
+        Resources(long cpuNanos, long cpuCount, long allocatedBytes, long allocatedCount) {
+            this.cpuNanos = cpuNanos;
+            this.cpuCount = cpuCount;
+            this.allocatedBytes = allocatedBytes;
+            this.allocatedCount = allocatedCount;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The default executor of {@link Proxy#async(Object)}. A virtual thread per task executor on Java 21 and later, found
+ * reflectively since the library is built for Java 8. On older JVMs a cached pool of daemon threads.
+ */
+final class OffloadExecutors {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OffloadExecutors.class);
+
+    private OffloadExecutors() {
+        // hidden
+    }
+
+    static Executor defaultExecutor() {
+        return Holder.DEFAULT;
+    }
+
+    static boolean isVirtualThreads() {
+        return Holder.VIRTUAL;
+    }
+
+    /**
+     * @return a new virtual thread per task executor or null if the JVM does not support virtual threads.
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.debug("Virtual threads are not supported", e);
+            return null;
+        }
+    }
+
+    private static ExecutorService newDaemonThreadPool() {
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "proxy-async-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates the default executor on first use.
+     */
+    private static final class Holder {
+
+        private static final ExecutorService VIRTUAL_EXECUTOR = newVirtualThreadPerTaskExecutor();
+        private static final boolean VIRTUAL = VIRTUAL_EXECUTOR != null;
+        private static final Executor DEFAULT = VIRTUAL ? VIRTUAL_EXECUTOR : newDaemonThreadPool();
+    }
+}
@@ -21,6 +21,12 @@ package com.ericsson.commonlibrary.proxy;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -140,19 +146,225 @@ public final class Proxy {
      * @return a concrete usable java bean object.
      */
     public static <T> T javaBean(Class<T> classToProxy, boolean primitiveDefaultIsException) {
+        T proxy = createJavaBeanProxy(classToProxy);
+        addInterceptor(proxy, new InterceptorJavaBean(proxy.getClass(), primitiveDefaultIsException));
+        return proxy;
+    }
+
+    /**
+     * Creates a java bean object from a interface or a abstract class that keeps track of which properties that has
+     * been modified. Use {@link #getChangeTracker(Object)} to get the modified properties so that only the changes need
+     * to be persisted or replicated.
+     *
+     * @param <T>
+     *            target object type
+     * @param classToProxy
+     *            the interface/abstract you want to create a java bean from.
+     *
+     * @return a concrete usable java bean object that tracks its changes.
+     */
+    public static <T> T javaBeanWithChangeTracking(Class<T> classToProxy) {
+        return javaBeanWithChangeTracking(classToProxy, false);
+    }
+
+    /**
+     * Creates a java bean object from a interface or a abstract class that keeps track of which properties that has
+     * been modified. Use {@link #getChangeTracker(Object)} to get the modified properties so that only the changes need
+     * to be persisted or replicated.
+     *
+     * @param <T>
+     *            target object type
+     * @param classToProxy
+     *            the interface/abstract you want to create a java bean from.
+     * @param primitiveDefaultIsException
+     *            if primitives should default to exceptions instead of (0, false 0L etc)
+     *
+     * @return a concrete usable java bean object that tracks its changes.
+     */
+    public static <T> T javaBeanWithChangeTracking(Class<T> classToProxy, boolean primitiveDefaultIsException) {
+        T proxy = createJavaBeanProxy(classToProxy);
+        addInterceptor(proxy, new InterceptorJavaBean(proxy.getClass(), primitiveDefaultIsException, true));
+        return proxy;
+    }
+
+    /**
+     * Returns the change tracker of a java bean created by {@link #javaBeanWithChangeTracking(Class)} or
+     * {@link #javaBeanWithChangeTracking(Class, boolean)}.
+     *
+     * @param javaBean
+     *            a java bean that tracks its changes.
+     *
+     * @return the change tracker of the java bean.
+     */
+    public static JavaBeanChangeTracker getChangeTracker(Object javaBean) {
+        JavaBeanChangeTracker changeTracker = findJavaBeanInterceptor(javaBean).getChangeTracker();
+        if (changeTracker == null) {
+            throw new IllegalArgumentException(
+                    "Not possible to get the change tracker of a java bean without tracking");
+        }
+        return changeTracker;
+    }
+
+    /**
+     * Creates a thread safe java bean object from a interface or a abstract class. Reading a property never blocks, it
+     * reads from a immutable snapshot of the properties that is replaced on every write (copy on write). Use
+     * {@link #updateJavaBean(Object, Consumer)} to change several properties atomically. Suitable for beans that are
+     * shared between threads and read a lot more often than they are written, like configuration holders.
+     *
+     * @param <T>
+     *            target object type
+     * @param classToProxy
+     *            the interface/abstract you want to create a java bean from.
+     *
+     * @return a concrete usable thread safe java bean object.
+     */
+    public static <T> T concurrentJavaBean(Class<T> classToProxy) {
+        T proxy = createJavaBeanProxy(classToProxy);
+        addInterceptor(proxy, new InterceptorJavaBean(proxy.getClass(), false, false, true));
+        return proxy;
+    }
+
+    /**
+     * Atomically updates a java bean created by {@link #concurrentJavaBean(Class)}. Other threads will see either none
+     * or all of the properties set by the update, and none of them if the update throws an exception. Updates are
+     * serialized with each other and with single property writes, but never blocks readers.
+     *
+     * @param <T>
+     *            target object type
+     * @param javaBean
+     *            a concurrent java bean.
+     * @param update
+     *            that sets one or more properties on the provided bean.
+     */
+    public static <T> void updateJavaBean(T javaBean, Consumer<? super T> update) {
+        InterceptorJavaBean interceptor = findJavaBeanInterceptor(javaBean);
+        if (!interceptor.isConcurrent()) {
+            throw new IllegalArgumentException("Only java beans created with concurrentJavaBean can be updated");
+        }
+        interceptor.update(() -> update.accept(javaBean));
+    }
+
+    private static InterceptorJavaBean findJavaBeanInterceptor(Object javaBean) {
+        for (Interceptor interceptor : getProxyInterface(javaBean).getInterceptorList()) {
+            if (interceptor instanceof InterceptorJavaBean) {
+                return (InterceptorJavaBean) interceptor;
+            }
+        }
+        throw new IllegalArgumentException("The provided object is not a java bean created by Proxy");
+    }
+
+    /**
+     * Creates a fixed capacity array of java beans from a interface or a abstract class. Every property is stored in
+     * its own column (primitive arrays for int, long and double properties) which makes bulk operations over a single
+     * property fast and cache friendly. The beans are accessed through a cursor, see {@link JavaBeanArray}.
+     *
+     * @param <T>
+     *            target object type
+     * @param classToProxy
+     *            the interface/abstract you want to create java beans from.
+     * @param capacity
+     *            the maximum number of beans the array can hold.
+     *
+     * @return a empty array of java beans.
+     */
+    public static <T> JavaBeanArray<T> javaBeanArray(Class<T> classToProxy, int capacity) {
+        T cursor = createJavaBeanProxy(classToProxy);
+        JavaBeanArray<T> array = new JavaBeanArray<>(classToProxy, capacity, cursor);
+        addInterceptor(cursor, new InterceptorJavaBeanArray(array));
+        return array;
+    }
+
+    private static <T> T createJavaBeanProxy(Class<T> classToProxy) {
         if (!classToProxy.isInterface()) {
             if (Modifier.isAbstract(classToProxy.getModifiers())) {
-                T proxy = InterceptableProxyFactory.createANewClassJavaBeanProxy(classToProxy);
-                addInterceptor(proxy, new InterceptorJavaBean(proxy.getClass(), primitiveDefaultIsException));
-                return proxy;
+                return InterceptableProxyFactory.createANewClassJavaBeanProxy(classToProxy);
             }
             // was a normal class
             throw new IllegalArgumentException(
                     "The passed class was not a interface or a abstract class. You can only create javabeans with interfaces or abstract classes");
 
         }
-        T proxy = InterceptableProxyFactory.createANewInterfaceJavaBeanProxy(classToProxy);
-        addInterceptor(proxy, new InterceptorJavaBean(proxy.getClass(), primitiveDefaultIsException));
+        return InterceptableProxyFactory.createANewInterfaceJavaBeanProxy(classToProxy);
+    }
+
+    /**
+     * Creates a configuration object from a interface and properties. Every method of the interface without parameters
+     * gets its value from a property, "port" for getPort() or port() and "enabled" for isEnabled(). The values are
+     * converted with the same rules as {@link Util#castStringValueToObject(String, Class)}. All values are parsed and
+     * validated once, so calling a configuration method is only a lookup. Missing values means null, empty collections
+     * or the result of the default method if one exists. Missing primitive values are not allowed.
+     *
+     * @param <T>
+     *            target object type
+     * @param configInterface
+     *            the interface with the configuration methods.
+     * @param properties
+     *            the configuration values.
+     *
+     * @return a configuration object.
+     *
+     * @throws ProxyException
+     *             if a value was invalid or missing.
+     */
+    public static <T> T config(Class<T> configInterface, Properties properties) {
+        checkIsConfigInterface(configInterface);
+        return createConfigProxy(configInterface, new InterceptorConfig(configInterface, properties));
+    }
+
+    /**
+     * Creates a configuration object from a interface and a properties file, see {@link #config(Class, Properties)}.
+     * The file is watched for changes and modified values are reloaded atomically, readers always see either the old or
+     * the new values and are never blocked. If the modified file contains invalid values the old values are kept. The
+     * file is watched by a daemon thread until {@link #stopWatchingConfig(Object)} is called or the configuration
+     * object is garbage collected.
+     *
+     * @param <T>
+     *            target object type
+     * @param configInterface
+     *            the interface with the configuration methods.
+     * @param propertiesFile
+     *            file with the configuration values.
+     *
+     * @return a configuration object that reloads its values when the file is modified.
+     *
+     * @throws ProxyException
+     *             if the file could not be read or a value was invalid or missing.
+     */
+    public static <T> T config(Class<T> configInterface, Path propertiesFile) {
+        checkIsConfigInterface(configInterface);
+        InterceptorConfig interceptor = new InterceptorConfig(configInterface,
+                InterceptorConfig.loadProperties(propertiesFile));
+        T proxy = createConfigProxy(configInterface, interceptor);
+        interceptor.watch(propertiesFile);
+        return proxy;
+    }
+
+    /**
+     * Stops watching the properties file of a configuration object, the values it has are kept.
+     *
+     * @param configProxy
+     *            a configuration object created by {@link #config(Class, Path)}.
+     *
+     * @return true if the file was watched, false if it already had been stopped.
+     */
+    public static boolean stopWatchingConfig(Object configProxy) {
+        for (Interceptor interceptor : getProxyInterface(configProxy).getInterceptorList()) {
+            if (interceptor instanceof InterceptorConfig) {
+                return ((InterceptorConfig) interceptor).stopWatching();
+            }
+        }
+        throw new IllegalArgumentException("The proxy is not a configuration object");
+    }
+
+    private static void checkIsConfigInterface(Class<?> configInterface) {
+        if (!configInterface.isInterface()) {
+            throw new IllegalArgumentException("The passed class was not a interface: " + configInterface.getName());
+        }
+    }
+
+    private static <T> T createConfigProxy(Class<T> configInterface, InterceptorConfig interceptor) {
+        T proxy = InterceptableProxyFactory.createANewInterfaceProxy(configInterface);
+        addInterceptor(proxy, interceptor);
         return proxy;
     }
 
@@ -170,6 +382,333 @@ public final class Proxy {
         return intercept(objectToBenchmark, INTERCEPTOR_METHOD_TIMER);
     }
 
+    /**
+     * Same as {@link #addTimerToMethods(Object)} but only the calls picked by the sampler are timed and logged.
+     *
+     * @param <T>
+     *            target object type
+     * @param objectToBenchmark
+     *            object that will be intercepted with method timings.
+     * @param sampler
+     *            decides which calls that are timed, for example {@link Sampler#everyNth(int)}.
+     *
+     * @return a proxy object
+     */
+    public static <T> T addTimerToMethods(T objectToBenchmark, Sampler sampler) {
+        return intercept(objectToBenchmark, new InterceptorMethodTimer(sampler));
+    }
+
+    /**
+     * Add lock free latency histograms to a object. Unlike {@link #addTimerToMethods(Object)} nothing is logged on the
+     * calling thread, the statistics are read from the metrics object or logged periodically by it.
+     *
+     * @param <T>
+     *            target object type
+     * @param objectToMeasure
+     *            object that will be intercepted with method metrics.
+     * @param metrics
+     *            where the statistics are recorded, can be shared by several objects.
+     *
+     * @return a proxy object
+     */
+    public static <T> T addMetricsToMethods(T objectToMeasure, InvocationMetrics metrics) {
+        return addMetricsToMethods(objectToMeasure, metrics, Sampler.always());
+    }
+
+    /**
+     * Same as {@link #addMetricsToMethods(Object, InvocationMetrics)} but only the calls picked by the sampler are
+     * measured. Counts in the snapshots are extrapolated from the sampled calls.
+     *
+     * @param <T>
+     *            target object type
+     * @param objectToMeasure
+     *            object that will be intercepted with method metrics.
+     * @param metrics
+     *            where the statistics are recorded, can be shared by several objects.
+     * @param sampler
+     *            decides which calls that are measured, for example {@link Sampler#adaptive(int)}.
+     *
+     * @return a proxy object
+     */
+    public static <T> T addMetricsToMethods(T objectToMeasure, InvocationMetrics metrics, Sampler sampler) {
+        return addMetricsToMethods(objectToMeasure, metrics, sampler, false);
+    }
+
+    /**
+     * Same as {@link #addMetricsToMethods(Object, InvocationMetrics)} but also measures the CPU time and the bytes
+     * allocated by the calling thread during each invocation, see {@link MethodMetricsSnapshot#getMeanCpuNanos()} and
+     * {@link MethodMetricsSnapshot#getMeanAllocatedBytes()}. Values the JVM can't measure are reported as -1.
+     * <p>
+     * The first call turns on the thread CPU time and thread allocated memory measurement of the JVM, see
+     * {@link java.lang.management.ThreadMXBean#setThreadCpuTimeEnabled(boolean)}, if they are supported but turned off.
+     * They stay on for all threads for the rest of the life of the JVM.
+     *
+     * @param <T>
+     *            target object type
+     * @param objectToMeasure
+     *            object that will be intercepted with method metrics.
+     * @param metrics
+     *            where the statistics are recorded, can be shared by several objects.
+     *
+     * @return a proxy object
+     */
+    public static <T> T addResourceMetricsToMethods(T objectToMeasure, InvocationMetrics metrics) {
+        return addResourceMetricsToMethods(objectToMeasure, metrics, Sampler.always());
+    }
+
+    /**
+     * Same as {@link #addResourceMetricsToMethods(Object, InvocationMetrics)} but only the calls picked by the sampler
+     * are measured.
+     *
+     * @param <T>
+     *            target object type
+     * @param objectToMeasure
+     *            object that will be intercepted with method metrics.
+     * @param metrics
+     *            where the statistics are recorded, can be shared by several objects.
+     * @param sampler
+     *            decides which calls that are measured.
+     *
+     * @return a proxy object
+     */
+    public static <T> T addResourceMetricsToMethods(T objectToMeasure, InvocationMetrics metrics, Sampler sampler) {
+        return addMetricsToMethods(objectToMeasure, metrics, sampler, true);
+    }
+
+    private static <T> T addMetricsToMethods(T objectToMeasure, InvocationMetrics metrics, Sampler sampler,
+            boolean measureResources) {
+        ClassMetrics classMetrics = metrics.forClass(ClassMetrics.getProxiedClass(objectToMeasure.getClass()));
+        T proxy = intercept(objectToMeasure, new InterceptorMetrics(classMetrics, sampler, measureResources));
+        classMetrics.setLastProxy(proxy);
+        return proxy;
+    }
+
+    /**
+     * Emit a Java Flight Recorder event for every method call on the object. The events are named
+     * "com.ericsson.commonlibrary.proxy.Invocation" and contain the class, method, duration and the type of any thrown
+     * exception. Requires Java 11 or later, on older JVMs the object is proxied but no events are emitted. When no
+     * recording has the event enabled the overhead is close to nothing.
+     *
+     * @param <T>
+     *            target object type
+     * @param objectToRecord
+     *            object that will be intercepted with flight recorder events.
+     *
+     * @return a proxy object
+     */
+    public static <T> T addJfrEventsToMethods(T objectToRecord) {
+        return addJfrEventsToMethods(objectToRecord, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Same as {@link #addJfrEventsToMethods(Object)} but only calls that take at least the threshold are committed.
+     *
+     * @param <T>
+     *            target object type
+     * @param objectToRecord
+     *            object that will be intercepted with flight recorder events.
+     * @param threshold
+     *            the shortest duration that is recorded.
+     * @param unit
+     *            the unit of the threshold.
+     *
+     * @return a proxy object
+     */
+    public static <T> T addJfrEventsToMethods(T objectToRecord, long threshold, TimeUnit unit) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold can't be negative: " + threshold);
+        }
+        return intercept(objectToRecord, new InterceptorJfr(unit.toNanos(threshold)));
+    }
+
+    /**
+     * Log the method calls on the object that are slower than the threshold of the slow call log. The calls are
+     * formatted and logged by a background thread, see {@link SlowCallLog}.
+     *
+     * @param <T>
+     *            target object type
+     * @param objectToWatch
+     *            object that will be intercepted with slow call logging.
+     * @param slowCallLog
+     *            where the slow calls are logged, can be shared by several objects.
+     *
+     * @return a proxy object
+     */
+    public static <T> T addSlowCallLogToMethods(T objectToWatch, SlowCallLog slowCallLog) {
+        return intercept(objectToWatch, new InterceptorSlowCallLog(slowCallLog));
+    }
+
+    /**
+     * Cache the results of the object's methods, keyed on the method and the values of its arguments. Only use it on
+     * methods without side effects whose arguments have proper equals and hashCode methods. Concurrent calls with equal
+     * arguments invoke the method once and share the result. See {@link CacheSpec} for how the methods are selected and
+     * the results are evicted.
+     *
+     * @param <T>
+     *            target object type
+     * @param objectToCache
+     *            object that will be intercepted with caching.
+     * @param spec
+     *            how the results are cached.
+     *
+     * @return a proxy object
+     */
+    public static <T> T cache(T objectToCache, CacheSpec spec) {
+        return intercept(objectToCache, new InterceptorCache(spec));
+    }
+
+    /**
+     * @param cachedProxy
+     *            a proxy created by {@link #cache(Object, CacheSpec)} or {@link ProxyFluent#cacheMethod}.
+     *
+     * @return hit, miss and eviction statistics summed over all cached methods of the proxy.
+     */
+    public static CacheStats getCacheStats(Object cachedProxy) {
+        CacheStats stats = null;
+        for (Interceptor interceptor : getProxyInterface(cachedProxy).getInterceptorList()) {
+            if (interceptor instanceof InterceptorCache) {
+                CacheStats interceptorStats = ((InterceptorCache) interceptor).stats();
+                stats = stats == null ? interceptorStats : stats.plus(interceptorStats);
+            }
+        }
+        if (stats == null) {
+            throw new IllegalArgumentException("The proxy does not cache any methods");
+        }
+        return stats;
+    }
+
+    /**
+     * Let concurrent calls with equal method and arguments share one execution. The first call invokes the method and
+     * the others wait for its result or exception, which collapses bursts of identical calls to one call. Methods
+     * returning {@link java.util.concurrent.CompletableFuture} or {@link java.util.concurrent.CompletionStage} share
+     * the returned stage until it completes. Nothing is cached after the call has completed, see
+     * {@link #cache(Object, CacheSpec)} for that.
+     *
+     * @param <T>
+     *            target object type
+     * @param objectToCoalesce
+     *            object that will be intercepted with call coalescing.
+     * @param methodsToCoalesce
+     *            varargs of the methods you want to coalesce. Specifying none means all methods with a return value
+     *            except toString, hashCode and equals, void methods are assumed to have side effects.
+     *
+     * @return a proxy object
+     */
+    public static <T> T singleFlight(T objectToCoalesce, Method... methodsToCoalesce) {
+        return intercept(objectToCoalesce, new InterceptorSingleFlight(methodsToCoalesce));
+    }
+
+    /**
+     * Batch concurrent calls of a single item method into calls of a bulk method, for example many "find(id)" into one
+     * "findAll(ids)". Calls are collected until the batch is full or the max wait of the first call has passed, the
+     * bulk method is then called through the proxy and the results are handed back to the waiting calls. See
+     * {@link BatchSpec}.
+     *
+     * @param <T>
+     *            target object type
+     * @param objectToBatch
+     *            object that will be intercepted with batching.
+     * @param spec
+     *            which methods and how the calls are batched.
+     *
+     * @return a proxy object
+     */
+    public static <T> T batch(T objectToBatch, BatchSpec spec) {
+        return intercept(objectToBatch, new InterceptorBatch(spec));
+    }
+
+    /**
+     * @param batchingProxy
+     *            a proxy created by {@link #batch(Object, BatchSpec)}.
+     *
+     * @return batch size and wait time statistics of the first batching interceptor of the proxy.
+     */
+    public static BatchStats getBatchStats(Object batchingProxy) {
+        for (Interceptor interceptor : getProxyInterface(batchingProxy).getInterceptorList()) {
+            if (interceptor instanceof InterceptorBatch) {
+                return ((InterceptorBatch) interceptor).stats();
+            }
+        }
+        throw new IllegalArgumentException("The proxy does not batch any methods");
+    }
+
+    /**
+     * Run the object's methods on an executor so callers are not blocked. Void methods are submitted to the executor
+     * and return immediately, exceptions they throw are logged. Methods declared to return
+     * {@link java.util.concurrent.CompletableFuture}, {@link java.util.concurrent.CompletionStage} or
+     * {@link java.util.concurrent.Future} return a future that is completed with the result or exception of the call
+     * made on the executor. Other methods are invoked on the calling thread. The last added interceptor runs first, so
+     * interceptors added before this one, including the delegation to the original object, run on the executor while
+     * interceptors added after this one run on the calling thread.
+     *
+     * @param <T>
+     *            target object type
+     * @param objectToOffload
+     *            object whose method calls are offloaded.
+     * @param executor
+     *            that runs the calls.
+     *
+     * @return a proxy object
+     */
+    public static <T> T async(T objectToOffload, Executor executor) {
+        return intercept(objectToOffload, new InterceptorOffload(executor));
+    }
+
+    /**
+     * Same as {@link #async(Object, Executor)} with a shared default executor. On Java 21 and later each call runs on a
+     * new virtual thread, on older JVMs a cached pool of daemon threads is used.
+     *
+     * @param <T>
+     *            target object type
+     * @param objectToOffload
+     *            object whose method calls are offloaded.
+     *
+     * @return a proxy object
+     */
+    public static <T> T async(T objectToOffload) {
+        return async(objectToOffload, OffloadExecutors.defaultExecutor());
+    }
+
+    /**
+     * Create a object with a specific interface/class that calls the first delegate and, if it has not returned within
+     * the delay of the spec, makes a second call to one of the other delegates. The first result is returned and the
+     * other call is cancelled. Useful to cut the tail latency of idempotent calls to replicated backends. Methods not
+     * selected by the spec are delegated like {@link #delegate(Class, Object...)}. Hedged methods are always called on
+     * the executor of the spec, also when no hedged call is needed.
+     *
+     * @param <T>
+     *            type of proxy interface
+     * @param proxyInterface
+     *            the interface/class the returned object should have.
+     * @param spec
+     *            when and which methods are hedged.
+     * @param delegates
+     *            the primary delegate followed by the alternates, at least two.
+     *
+     * @return a proxy object
+     */
+    public static <T> T hedge(Class<T> proxyInterface, HedgeSpec spec, Object... delegates) {
+        if (delegates.length < 2) {
+            throw new IllegalArgumentException("Hedging needs at least two delegates, got: " + delegates.length);
+        }
+        return intercept(delegate(proxyInterface, delegates), new InterceptorHedge(spec, delegates));
+    }
+
+    /**
+     * @param hedgingProxy
+     *            a proxy created by {@link #hedge(Class, HedgeSpec, Object...)}.
+     *
+     * @return hedge and win statistics of the proxy.
+     */
+    public static HedgeStats getHedgeStats(Object hedgingProxy) {
+        for (Interceptor interceptor : getProxyInterface(hedgingProxy).getInterceptorList()) {
+            if (interceptor instanceof InterceptorHedge) {
+                return ((InterceptorHedge) interceptor).stats();
+            }
+        }
+        throw new IllegalArgumentException("The proxy does not hedge any methods");
+    }
+
     /**
      * Set a MDC key to a specific value while inside the object.
      *
@@ -185,8 +724,29 @@ public final class Proxy {
      * @return a proxy object
      */
     public static <T> T mdcLogging(T objectInNeedOfMdc, String key, String value) {
+        return mdcLogging(objectInNeedOfMdc, new InterceptorMdc(key, value));
+    }
+
+    /**
+     * Set several MDC keys to specific values while inside the object. Cheaper than stacking one
+     * {@link #mdcLogging(Object, String, String)} per key since all keys are handled by one interceptor.
+     *
+     * @param <T>
+     *            target object type
+     * @param objectInNeedOfMdc
+     *            object to add mdc logging to.
+     * @param context
+     *            mdc keys and their values, copied when the proxy is created.
+     *
+     * @return a proxy object
+     */
+    public static <T> T mdcLogging(T objectInNeedOfMdc, Map<String, String> context) {
+        return mdcLogging(objectInNeedOfMdc, new InterceptorMdc(context));
+    }
+
+    private static <T> T mdcLogging(T objectInNeedOfMdc, InterceptorMdc interceptor) {
         if (Util.isClassSafeFromPublicVariableProblems(objectInNeedOfMdc.getClass())) {
-            return intercept(objectInNeedOfMdc, new InterceptorMdc(key, value));
+            return intercept(objectInNeedOfMdc, interceptor);
         } else {
             logger.debug("Was not able to add mdc logging to {} ", objectInNeedOfMdc.getClass());
             return objectInNeedOfMdc;
@@ -207,14 +767,70 @@ public final class Proxy {
      * @return a proxy object with the interceptor added.
      */
     public static <T> T recursiveIntercept(T objectToIntercept, Interceptor interceptor) {
+        return recursiveIntercept(objectToIntercept, interceptor, RecursiveInterceptOptions.options());
+    }
+
+    /**
+     * Same as {@link #recursiveIntercept(Object, Interceptor)} but with limits on how far the interceptor spreads. Use
+     * this on deep object graphs where intercepting every returned object would create too many proxy classes.
+     *
+     * @param <T>
+     *            target object type
+     * @param objectToIntercept
+     *            the object you what do add a interceptor recursively to.
+     * @param interceptor
+     *            the interceptor you want to add.
+     * @param options
+     *            max depth, type filters and max number of proxied classes.
+     *
+     * @return a proxy object with the interceptor added.
+     */
+    public static <T> T recursiveIntercept(T objectToIntercept, Interceptor interceptor,
+            RecursiveInterceptOptions options) {
         if (Util.isClassSafeFromPublicVariableProblems(objectToIntercept.getClass())) {
-            return intercept(objectToIntercept, new InterceptorRecursive(interceptor));
+            return intercept(objectToIntercept, new InterceptorRecursive(interceptor, false, options));
         } else {
             logger.warn("Was not able to add recusrive logging to {} ", objectToIntercept.getClass());
             return objectToIntercept;
         }
     }
 
+    /**
+     * Profiles a object and every object returned from it into a call tree. See {@link CallTreeProfiler} for how to
+     * export the result.
+     *
+     * @param <T>
+     *            target object type
+     * @param objectToProfile
+     *            the root of the object graph to profile.
+     * @param profiler
+     *            where the call tree is recorded, can be shared by several objects.
+     *
+     * @return a proxy object
+     */
+    public static <T> T profile(T objectToProfile, CallTreeProfiler profiler) {
+        return recursiveIntercept(objectToProfile, new InterceptorProfiler(profiler));
+    }
+
+    /**
+     * Same as {@link #profile(Object, CallTreeProfiler)} but with limits on how far into the object graph the profiling
+     * spreads.
+     *
+     * @param <T>
+     *            target object type
+     * @param objectToProfile
+     *            the root of the object graph to profile.
+     * @param profiler
+     *            where the call tree is recorded, can be shared by several objects.
+     * @param options
+     *            max depth, type filters and max number of proxied classes.
+     *
+     * @return a proxy object
+     */
+    public static <T> T profile(T objectToProfile, CallTreeProfiler profiler, RecursiveInterceptOptions options) {
+        return recursiveIntercept(objectToProfile, new InterceptorProfiler(profiler), options);
+    }
+
     /**
      * Let's you add a interceptor to a existing object. It's possible to specify which methods the inteceptor should
      * intercept and if no method is specified all methods will be intercepted.
@@ -238,6 +854,28 @@ public final class Proxy {
         return proxy;
     }
 
+    /**
+     * Let's you add a {@link AsyncInterceptor} to a existing object. Only the methods that return a
+     * {@link java.util.concurrent.CompletionStage} will be intercepted, and the interceptor can act on the result
+     * without blocking while the stage is pending. Can be combined with ordinary interceptors on the same proxy.
+     *
+     * @param <T>
+     *            target object type
+     * @param objectToIntercept
+     *            the object you what do add a interceptor to.
+     * @param asyncInterceptor
+     *            the interceptor you want to add.
+     * @param methodsToIntercept
+     *            varargs of the methods you want the interceptor to intercept. Specifying none means that it will
+     *            intercept all methods returning a stage.
+     *
+     * @return a proxy object with the interceptor added.
+     */
+    public static <T> T interceptAsync(T objectToIntercept, AsyncInterceptor asyncInterceptor,
+            Method... methodsToIntercept) {
+        return intercept(objectToIntercept, new InterceptorAsync(asyncInterceptor), methodsToIntercept);
+    }
+
     private static <T> void addMethodInterceptor(T proxy, Interceptor interceptor, Method... methodsToIntercept) {
         Interceptor interceptorToAdd = interceptor;
 
@@ -168,6 +168,21 @@ public final class ProxyFluent<T> {
         return this;
     }
 
+    /**
+     * Cache the results of one or more specific methods, see {@link Proxy#cache(Object, CacheSpec)}.
+     *
+     * @param spec
+     *            how the results are cached
+     * @param methodsToCache
+     *            varargs of the methods you want to cache. Specifying none means that the spec selects the methods.
+     *
+     * @return the API itself (used for chaining)
+     */
+    public ProxyFluent<T> cacheMethod(CacheSpec spec, Method... methodsToCache) {
+        Proxy.intercept(proxy, new InterceptorCache(spec, methodsToCache));
+        return this;
+    }
+
     /**
      * Delegate all method calls to the provided delegator objects passed in as parameters. Warning your proxy will not
      * behave polymorphically.
@@ -0,0 +1,122 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A thread safe cache from original objects (compared by identity) to the proxy that was created for them. Both the
+ * original object and the proxy are weakly referenced, the proxy refers to the original so a strong reference to the
+ * proxy would otherwise keep the entry alive forever.
+ */
+final class ProxyIdentityCache {
+
+    private final ConcurrentMap<Object, WeakReference<Object>> proxies = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+    /**
+     * @param original
+     *            object that might have been proxied
+     *
+     * @return the proxy of the original object or null if there is none.
+     */
+    Object get(Object original) {
+        WeakReference<Object> proxy = proxies.get(new LookupKey(original));
+        return proxy == null ? null : proxy.get();
+    }
+
+    void put(Object original, Object proxy) {
+        expungeStaleEntries();
+        proxies.put(new IdentityWeakKey(original, queue), new WeakReference<>(proxy));
+    }
+
+    int size() {
+        expungeStaleEntries();
+        return proxies.size();
+    }
+
+    private void expungeStaleEntries() {
+        Reference<?> reference;
+        while ((reference = queue.poll()) != null) {
+            proxies.remove(reference);
+        }
+    }
+
+    /**
+     * Key used for lookups, to avoid creating a weak reference for every lookup.
+     */
+    private static final class LookupKey {
+
+        private final Object referent;
+
+        LookupKey(Object referent) {
+            this.referent = referent;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(referent);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof IdentityWeakKey && ((IdentityWeakKey) other).get() == referent;
+        }
+    }
+
+    /**
+     * Key that is compared by the identity of the weakly referenced object.
+     */
+    private static final class IdentityWeakKey extends WeakReference<Object> {
+
+        private final int hash;
+
+        IdentityWeakKey(Object referent, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other == this) {
+                return true;
+            }
+            Object referent = get();
+            if (referent == null) {
+                return false; // cleared keys are only equal to them self.
+            }
+            if (other instanceof IdentityWeakKey) {
+                return ((IdentityWeakKey) other).get() == referent;
+            }
+            return other instanceof LookupKey && ((LookupKey) other).referent == referent;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt in measurement of what the proxy machinery itself costs. When enabled the time of every intercepted call is split
+ * into the dispatch in the proxy's method handler, the self time of each interceptor (the time spent in the interceptor
+ * minus the time spent in the invocations it made) and the time spent in the target method.
+ *
+ * <pre>
+ * ProxyOverhead.enable();
+ * ...
+ * ProxyOverheadSnapshot overhead = ProxyOverhead.snapshot();
+ * long delegatorNanos = overhead.getInterceptors().get(InterceptorDelegator.class.getName()).getSelfNanos();
+ * </pre>
+ *
+ * The statistics are also kept per proxied class, see {@link #snapshot(Class)}, and published as the overhead of the
+ * {@link ProxyStatisticsMXBean} of the class. Only the part of a call that runs on the calling thread is measured,
+ * invocations continued on other threads, for example by {@link Proxy#async(Object, java.util.concurrent.Executor)},
+ * are not.
+ * <p>
+ * Measuring adds a few {@link System#nanoTime()} calls to every interceptor in the chain, when disabled the cost is a
+ * single volatile read per call.
+ */
+public final class ProxyOverhead {
+
+    private static volatile boolean enabled;
+
+    private static final Map<String, Counters> CLASSES = new ConcurrentHashMap<>();
+
+    private ProxyOverhead() {
+        // hidden
+    }
+
+    /**
+     * Starts measuring all proxies.
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    /**
+     * Stops measuring, the statistics collected so far are kept.
+     */
+    public static void disable() {
+        enabled = false;
+    }
+
+    /**
+     * @return true if the overhead is measured.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Clears the statistics.
+     */
+    public static void reset() {
+        CLASSES.clear();
+    }
+
+    /**
+     * @return the statistics of all proxies collected since the last reset.
+     */
+    public static ProxyOverheadSnapshot snapshot() {
+        Counters total = new Counters();
+        for (Counters counters : CLASSES.values()) {
+            total.add(counters);
+        }
+        return total.snapshot();
+    }
+
+    /**
+     * @param proxiedClass
+     *            the class or interface that was proxied
+     *
+     * @return the statistics of the proxies of the class collected since the last reset.
+     */
+    public static ProxyOverheadSnapshot snapshot(Class<?> proxiedClass) {
+        Counters counters = CLASSES.get(proxiedClass.getName());
+        return counters == null ? new Counters().snapshot() : counters.snapshot();
+    }
+
+    /**
+     * @param proxyClass
+     *            the generated class of a proxy
+     *
+     * @return the counters that the calls to proxies of the class are recorded in.
+     */
+    static Counters forProxyClass(Class<?> proxyClass) {
+        String name = ClassMetrics.getProxiedClass(proxyClass).getName();
+        Counters counters = CLASSES.get(name);
+        if (counters == null) {
+            counters = CLASSES.computeIfAbsent(name, key -> new Counters());
+        }
+        return counters;
+    }
+
+    /**
+     * The statistics of one proxied class. Keyed on class names, so that proxied and interceptor classes can be
+     * unloaded.
+     */
+    static final class Counters {
+
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder dispatchNanos = new LongAdder();
+        private final LongAdder targetNanos = new LongAdder();
+        private final Map<String, Counter> interceptors = new ConcurrentHashMap<>();
+
+        void recordDispatch(long nanos) {
+            calls.increment();
+            dispatchNanos.add(nanos);
+        }
+
+        void recordTarget(long nanos) {
+            targetNanos.add(nanos);
+        }
+
+        void recordInterceptor(Class<?> interceptorClass, long selfNanos) {
+            counterFor(interceptorClass.getName()).add(1, selfNanos);
+        }
+
+        private Counter counterFor(String interceptorName) {
+            Counter counter = interceptors.get(interceptorName);
+            if (counter == null) {
+                counter = interceptors.computeIfAbsent(interceptorName, name -> new Counter());
+            }
+            return counter;
+        }
+
+        private void add(Counters other) {
+            calls.add(other.calls.sum());
+            dispatchNanos.add(other.dispatchNanos.sum());
+            targetNanos.add(other.targetNanos.sum());
+            for (Map.Entry<String, Counter> entry : other.interceptors.entrySet()) {
+                Counter counter = entry.getValue();
+                counterFor(entry.getKey()).add(counter.calls.sum(), counter.selfNanos.sum());
+            }
+        }
+
+        private ProxyOverheadSnapshot snapshot() {
+            Map<String, ProxyOverheadSnapshot.InterceptorOverhead> snapshots = new TreeMap<>();
+            for (Map.Entry<String, Counter> entry : interceptors.entrySet()) {
+                Counter counter = entry.getValue();
+                snapshots.put(entry.getKey(),
+                        new ProxyOverheadSnapshot.InterceptorOverhead(counter.calls.sum(), counter.selfNanos.sum()));
+            }
+            return new ProxyOverheadSnapshot(calls.sum(), dispatchNanos.sum(), targetNanos.sum(), snapshots);
+        }
+    }
+
+    private static final class Counter {
+
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder selfNanos = new LongAdder();
+
+        void add(long count, long nanos) {
+            calls.add(count);
+            selfNanos.add(nanos);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The statistics collected by {@link ProxyOverhead} at the time the snapshot was taken. All times are in nanoseconds
+ * and summed over all measured calls.
+ */
+public final class ProxyOverheadSnapshot {
+
+    private final long calls;
+    private final long dispatchNanos;
+    private final long targetNanos;
+    private final Map<String, InterceptorOverhead> interceptors;
+
+    ProxyOverheadSnapshot(long calls, long dispatchNanos, long targetNanos,
+            Map<String, InterceptorOverhead> interceptors) {
+        this.calls = calls;
+        this.dispatchNanos = dispatchNanos;
+        this.targetNanos = targetNanos;
+        this.interceptors = Collections.unmodifiableMap(interceptors);
+    }
+
+    /**
+     * @return number of measured calls to proxies.
+     */
+    public long getCalls() {
+        return calls;
+    }
+
+    /**
+     * @return time spent in the proxies' method handlers outside of the interceptor chain.
+     */
+    public long getDispatchNanos() {
+        return dispatchNanos;
+    }
+
+    /**
+     * @return time spent in the target methods.
+     */
+    public long getTargetNanos() {
+        return targetNanos;
+    }
+
+    /**
+     * @return the self time of every interceptor class that has been invoked, sorted on the class names.
+     */
+    public Map<String, InterceptorOverhead> getInterceptors() {
+        return interceptors;
+    }
+
+    /**
+     * @return the total time spent in the proxy machinery, that is dispatch and self time of all interceptors.
+     */
+    public long getOverheadNanos() {
+        long overhead = dispatchNanos;
+        for (InterceptorOverhead interceptor : interceptors.values()) {
+            overhead += interceptor.getSelfNanos();
+        }
+        return overhead;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("calls=").append(calls).append(" dispatchNanos=").append(dispatchNanos).append(" targetNanos=")
+                .append(targetNanos);
+        for (Map.Entry<String, InterceptorOverhead> entry : interceptors.entrySet()) {
+            builder.append(System.lineSeparator()).append(entry.getKey()).append(' ').append(entry.getValue());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The self time of one interceptor class.
+     */
+    public static final class InterceptorOverhead {
+
+        private final long calls;
+        private final long selfNanos;
+
+        InterceptorOverhead(long calls, long selfNanos) {
+            this.calls = calls;
+            this.selfNanos = selfNanos;
+        }
+
+        /**
+         * @return number of times the interceptor was invoked.
+         */
+        public long getCalls() {
+            return calls;
+        }
+
+        /**
+         * @return time spent in the interceptor excluding the invocations it made.
+         */
+        public long getSelfNanos() {
+            return selfNanos;
+        }
+
+        /**
+         * @return average self time per call, 0 if never invoked.
+         */
+        public long getMeanSelfNanos() {
+            return calls == 0 ? 0 : selfNanos / calls;
+        }
+
+        @Override
+        public String toString() {
+            return "calls=" + calls + " selfNanos=" + selfNanos + " meanSelfNanos=" + getMeanSelfNanos();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Implementation of the {@link ProxyStatisticsMXBean} of one {@link ClassMetrics}.
+ */
+final class ProxyStatistics implements ProxyStatisticsMXBean {
+
+    private final ClassMetrics metrics;
+
+    ProxyStatistics(ClassMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String getProxiedClass() {
+        return metrics.getProxiedClass().getName();
+    }
+
+    @Override
+    public List<String> getInterceptors() {
+        return metrics.getInterceptorNames();
+    }
+
+    @Override
+    public List<MethodMetricsSnapshot> getMethods() {
+        List<MethodMetricsSnapshot> snapshots = new ArrayList<>();
+        for (MethodMetrics methodMetrics : metrics.getMethods()) {
+            snapshots.add(methodMetrics.snapshot());
+        }
+        snapshots.sort(Comparator.comparing(MethodMetricsSnapshot::getMethod));
+        return snapshots;
+    }
+
+    @Override
+    public long getTotalCount() {
+        long count = 0;
+        for (MethodMetricsSnapshot snapshot : getMethods()) {
+            count += snapshot.getCount();
+        }
+        return count;
+    }
+
+    @Override
+    public long getTotalErrorCount() {
+        long count = 0;
+        for (MethodMetricsSnapshot snapshot : getMethods()) {
+            count += snapshot.getErrorCount();
+        }
+        return count;
+    }
+
+    @Override
+    public long getInFlight() {
+        long count = 0;
+        for (MethodMetricsSnapshot snapshot : getMethods()) {
+            count += snapshot.getInFlight();
+        }
+        return count;
+    }
+
+    @Override
+    public ProxyOverheadSnapshot getOverhead() {
+        return ProxyOverhead.snapshot(metrics.getProxiedClass());
+    }
+}
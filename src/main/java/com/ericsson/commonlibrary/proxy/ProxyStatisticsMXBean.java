@@ -0,0 +1,67 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.util.List;
+
+/**
+ * JMX view of the statistics of one proxied class, registered by {@link InvocationMetrics#registerMBeans()}. All values
+ * are read from the metrics when the attribute is accessed.
+ */
+public interface ProxyStatisticsMXBean {
+
+    /**
+     * @return the full name of the proxied class.
+     */
+    String getProxiedClass();
+
+    /**
+     * @return the class names of the interceptors of the latest proxy of the class, in invocation order.
+     */
+    List<String> getInterceptors();
+
+    /**
+     * @return the statistics of every invoked method.
+     */
+    List<MethodMetricsSnapshot> getMethods();
+
+    /**
+     * @return number of invocations of all methods.
+     */
+    long getTotalCount();
+
+    /**
+     * @return number of invocations of all methods that threw an exception.
+     */
+    long getTotalErrorCount();
+
+    /**
+     * @return number of invocations of all methods that are currently executing.
+     */
+    long getInFlight();
+
+    /**
+     * @return the time the calls to proxies of the class spent in dispatch, in each interceptor class and in the target
+     *         methods. Only collected while {@link ProxyOverhead} is enabled.
+     */
+    ProxyOverheadSnapshot getOverhead();
+}
@@ -0,0 +1,168 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Decides once per class if objects of the class can be proxied, so that interceptors that add themselves to returned
+ * objects can skip classes that are known to fail with a single lookup instead of a failing proxy class generation.
+ */
+final class Proxyability {
+
+    private static final String[] JDK_PACKAGES = { "java.", "javax.", "jdk.", "sun.", "com.sun." };
+    private static final Method IS_SEALED_METHOD = findIsSealedMethod();
+
+    private static final ClassValue<Verdict> VERDICTS = new ClassValue<Verdict>() {
+
+        @Override
+        protected Verdict computeValue(Class<?> clazz) {
+            return new Verdict(findReasonNotProxyable(clazz));
+        }
+    };
+
+    private Proxyability() {
+        // hidden
+    }
+
+    /**
+     * @param clazz
+     *            to check
+     *
+     * @return true if it should be possible to proxy objects of the class.
+     */
+    static boolean isProxyable(Class<?> clazz) {
+        Verdict verdict = VERDICTS.get(clazz);
+        return verdict.reason == null && !verdict.failed;
+    }
+
+    /**
+     * @param clazz
+     *            to check
+     *
+     * @return why objects of the class can't be proxied, or null if they can.
+     */
+    static String getReasonNotProxyable(Class<?> clazz) {
+        Verdict verdict = VERDICTS.get(clazz);
+        if (verdict.reason == null && verdict.failed) {
+            return "a earlier attempt to proxy it failed";
+        }
+        return verdict.reason;
+    }
+
+    /**
+     * Remembers that a attempt to proxy a object of the class failed, so it will not be tried again.
+     *
+     * @param clazz
+     *            that could not be proxied
+     */
+    static void markNotProxyable(Class<?> clazz) {
+        VERDICTS.get(clazz).failed = true;
+    }
+
+    /**
+     * Remembers a failed attempt to proxy a object of the class if the failure says something about the class itself,
+     * i.e. the proxy class could not be generated or linked. Other runtime exceptions are left for the caller and other
+     * errors are rethrown, so that a transient problem does not disable proxying of the class for good.
+     *
+     * @param clazz
+     *            that could not be proxied
+     * @param failure
+     *            why it could not be proxied
+     */
+    static void recordFailure(Class<?> clazz, Throwable failure) {
+        if (failure instanceof ProxyException || failure instanceof LinkageError) {
+            markNotProxyable(clazz);
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+    }
+
+    private static String findReasonNotProxyable(Class<?> clazz) {
+        if (clazz.isPrimitive() || clazz.isArray()) {
+            return "it's a primitive or array";
+        }
+        int modifiers = clazz.getModifiers();
+        if (Modifier.isFinal(modifiers)) {
+            return "it's final";
+        }
+        if (isSealed(clazz)) {
+            return "it's sealed";
+        }
+        if (!Modifier.isPublic(modifiers) && isInJdkPackage(clazz)) {
+            return "it's JDK internal";
+        }
+        if (!Util.isClassSafeFromPublicVariableProblems(clazz)) {
+            return "it has public fields";
+        }
+        return null;
+    }
+
+    /**
+     * @param clazz
+     *            to check
+     *
+     * @return true if the class is in a java, javax, jdk, sun or com.sun package.
+     */
+    static boolean isInJdkPackage(Class<?> clazz) {
+        String name = clazz.getName();
+        for (String jdkPackage : JDK_PACKAGES) {
+            if (name.startsWith(jdkPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSealed(Class<?> clazz) {
+        if (IS_SEALED_METHOD == null) {
+            return false;
+        }
+        try {
+            return (Boolean) IS_SEALED_METHOD.invoke(clazz);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    private static Method findIsSealedMethod() {
+        try {
+            return Class.class.getMethod("isSealed"); // only exists on Java 17 and later.
+        } catch (NoSuchMethodException e) { // NOSONAR
+            return null;
+        }
+    }
+
+    /**
+     * The proxyability of a class.
+     */
+    private static final class Verdict {
+
+        private final String reason;
+        private volatile boolean failed;
+
+        Verdict(String reason) {
+            this.reason = reason;
+        }
+    }
+}
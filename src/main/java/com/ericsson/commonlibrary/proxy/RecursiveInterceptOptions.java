@@ -0,0 +1,156 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.util.function.Predicate;
+
+/**
+ * Limits how far {@link Proxy#recursiveIntercept(Object, Interceptor, RecursiveInterceptOptions)} spreads in a object
+ * graph. The decision to proxy a class is taken once per class and then reused, so the filters are only evaluated the
+ * first time a class is returned.
+ *
+ * <pre>
+ * RecursiveInterceptOptions options = RecursiveInterceptOptions.options().maxDepth(2).includePackages("com.mycompany")
+ *         .maxProxiedClasses(100);
+ * </pre>
+ */
+public final class RecursiveInterceptOptions {
+
+    private int maxDepth = Integer.MAX_VALUE;
+    private int maxProxiedClasses = Integer.MAX_VALUE;
+    private Predicate<Class<?>> include = clazz -> true;
+    private Predicate<Class<?>> exclude = clazz -> false;
+
+    private RecursiveInterceptOptions() {
+    }
+
+    /**
+     * @return options without any limits. Same behavior as {@link Proxy#recursiveIntercept(Object, Interceptor)}.
+     */
+    public static RecursiveInterceptOptions options() {
+        return new RecursiveInterceptOptions();
+    }
+
+    /**
+     * @param maxDepth
+     *            how many levels of returned objects that will be intercepted. 1 means that only the objects returned
+     *            by the intercepted object itself are intercepted.
+     *
+     * @return this
+     */
+    public RecursiveInterceptOptions maxDepth(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("maxDepth can't be negative: " + maxDepth);
+        }
+        this.maxDepth = maxDepth;
+        return this;
+    }
+
+    /**
+     * @param maxProxiedClasses
+     *            how many distinct classes that will be intercepted, returned objects of other classes are left as they
+     *            are. Classes that can't be proxied, like String and other final classes, don't count. Classes in JDK
+     *            packages are not intercepted when a limit is set, so the limit is spent on your own classes.
+     *
+     * @return this
+     */
+    public RecursiveInterceptOptions maxProxiedClasses(int maxProxiedClasses) {
+        if (maxProxiedClasses < 0) {
+            throw new IllegalArgumentException("maxProxiedClasses can't be negative: " + maxProxiedClasses);
+        }
+        this.maxProxiedClasses = maxProxiedClasses;
+        return this;
+    }
+
+    /**
+     * Only intercept returned objects of classes matching the predicate. Can be called multiple times and all
+     * predicates must match.
+     *
+     * @param predicate
+     *            on the class of a returned object
+     *
+     * @return this
+     */
+    public RecursiveInterceptOptions include(Predicate<Class<?>> predicate) {
+        include = include.and(predicate);
+        return this;
+    }
+
+    /**
+     * Never intercept returned objects of classes matching the predicate.
+     *
+     * @param predicate
+     *            on the class of a returned object
+     *
+     * @return this
+     */
+    public RecursiveInterceptOptions exclude(Predicate<Class<?>> predicate) {
+        exclude = exclude.or(predicate);
+        return this;
+    }
+
+    /**
+     * Only intercept returned objects of classes in one of the packages or their sub packages.
+     *
+     * @param packageNames
+     *            for example "com.mycompany"
+     *
+     * @return this
+     */
+    public RecursiveInterceptOptions includePackages(String... packageNames) {
+        return include(clazz -> isInPackage(clazz, packageNames));
+    }
+
+    /**
+     * Never intercept returned objects of classes in one of the packages or their sub packages.
+     *
+     * @param packageNames
+     *            for example "org.hibernate"
+     *
+     * @return this
+     */
+    public RecursiveInterceptOptions excludePackages(String... packageNames) {
+        return exclude(clazz -> isInPackage(clazz, packageNames));
+    }
+
+    int getMaxDepth() {
+        return maxDepth;
+    }
+
+    int getMaxProxiedClasses() {
+        return maxProxiedClasses;
+    }
+
+    Predicate<Class<?>> getFilter() {
+        return include.and(exclude.negate());
+    }
+
+    private static boolean isInPackage(Class<?> clazz, String[] packageNames) {
+        String className = clazz.getName();
+        for (String packageName : packageNames) {
+            if (className.startsWith(packageName + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
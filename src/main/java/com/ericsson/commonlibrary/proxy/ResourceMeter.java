@@ -0,0 +1,142 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the CPU time and the allocated bytes of the current thread, if the JVM supports it. Nothing is measured until
+ * {@link #enable()} has been called, unsupported values are returned as {@link #UNSUPPORTED}.
+ */
+final class ResourceMeter {
+
+    static final long UNSUPPORTED = -1;
+
+    private static final Logger LOG = LoggerFactory.getLogger(ResourceMeter.class);
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static volatile boolean cpuTimeSupported;
+    private static volatile boolean allocatedBytesSupported;
+    private static boolean enabled;
+
+    private ResourceMeter() {
+        // hidden
+    }
+
+    /**
+     * Turns on the thread CPU time and thread allocated memory measurement of the JVM if they are supported but turned
+     * off. This is a JVM wide setting that adds a small cost to all threads, so it's only done when a interceptor that
+     * measures resources is created.
+     */
+    static synchronized void enable() {
+        if (enabled) {
+            return;
+        }
+        enabled = true;
+        cpuTimeSupported = enableCpuTime();
+        allocatedBytesSupported = enableAllocatedBytes();
+    }
+
+    /**
+     * @return the CPU time of the current thread in nanoseconds.
+     */
+    static long currentThreadCpuTime() {
+        return cpuTimeSupported ? THREADS.getCurrentThreadCpuTime() : UNSUPPORTED;
+    }
+
+    /**
+     * @return the number of bytes the current thread has allocated on the heap since it started.
+     */
+    static long currentThreadAllocatedBytes() {
+        return allocatedBytesSupported ? AllocatedBytes.currentThread() : UNSUPPORTED;
+    }
+
+    private static boolean enableCpuTime() {
+        try {
+            if (THREADS.isCurrentThreadCpuTimeSupported() && !THREADS.isThreadCpuTimeEnabled()) {
+                THREADS.setThreadCpuTimeEnabled(true);
+            }
+            return THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+        } catch (SecurityException | UnsupportedOperationException e) {
+            LOG.debug("Thread CPU time is not supported", e);
+            return false;
+        }
+    }
+
+    private static boolean enableAllocatedBytes() {
+        try {
+            return AllocatedBytes.enable();
+        } catch (LinkageError | SecurityException | UnsupportedOperationException e) {
+            LOG.debug("Thread allocated bytes is not supported", e);
+            return false;
+        }
+    }
+
+    /**
+     * Kept in its own class since com.sun.management doesn't exist on all JVMs.
+     */
+    private static final class AllocatedBytes {
+
+        /**
+         * getCurrentThreadAllocatedBytes() only exists on Java 14 and later, it avoids looking up the thread by id.
+         */
+        private static final MethodHandle CURRENT_THREAD_ALLOCATED_BYTES = findCurrentThreadAllocatedBytes();
+
+        private static boolean enable() {
+            if (!(THREADS instanceof com.sun.management.ThreadMXBean)) {
+                return false;
+            }
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && !threads.isThreadAllocatedMemoryEnabled()) {
+                threads.setThreadAllocatedMemoryEnabled(true);
+            }
+            return threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+        }
+
+        @SuppressWarnings("squid:S1181")
+        private static long currentThread() {
+            if (CURRENT_THREAD_ALLOCATED_BYTES != null) {
+                try {
+                    return (long) CURRENT_THREAD_ALLOCATED_BYTES.invokeExact();
+                } catch (Throwable e) {
+                    throw new ProxyException("Was not able to read the allocated bytes of the current thread", e);
+                }
+            }
+            return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        private static MethodHandle findCurrentThreadAllocatedBytes() {
+            try {
+                return MethodHandles.publicLookup().findVirtual(com.sun.management.ThreadMXBean.class,
+                        "getCurrentThreadAllocatedBytes", MethodType.methodType(long.class)).bindTo(THREADS);
+            } catch (NoSuchMethodException | IllegalAccessException e) { // NOSONAR
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+/**
+ * Decides which invocations that are measured by timing and metrics interceptors. Calls that are not sampled go
+ * straight to the intercepted method, and every sampled call is recorded with a weight so that counts are extrapolated
+ * to all calls.
+ */
+@FunctionalInterface
+public interface Sampler {
+
+    /**
+     * @return 0 if the current call should not be measured, otherwise the number of calls the measured call represents.
+     */
+    long sample();
+
+    /**
+     * @return a sampler that measures every call.
+     */
+    static Sampler always() {
+        return Samplers.ALWAYS;
+    }
+
+    /**
+     * @param n
+     *            measure one call in n, counted per thread.
+     *
+     * @return a sampler with a fixed rate.
+     */
+    static Sampler everyNth(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be at least 1, was: " + n);
+        }
+        return n == 1 ? Samplers.ALWAYS : new Samplers.EveryNth(n);
+    }
+
+    /**
+     * @param probability
+     *            between 0 (exclusive) and 1 that a call is measured.
+     *
+     * @return a sampler that picks calls randomly with a thread local random generator.
+     */
+    static Sampler probability(double probability) {
+        if (!(probability > 0 && probability <= 1)) {
+            throw new IllegalArgumentException("The probability must be > 0 and <= 1, was: " + probability);
+        }
+        return new Samplers.Probability(probability);
+    }
+
+    /**
+     * @param maxSamplesPerSecond
+     *            the overhead budget, how many calls that at most should be measured per second.
+     *
+     * @return a sampler that measures every call while the call rate is low, and adjusts the rate to the budget when
+     *         the calls are more frequent.
+     */
+    static Sampler adaptive(int maxSamplesPerSecond) {
+        if (maxSamplesPerSecond < 1) {
+            throw new IllegalArgumentException("maxSamplesPerSecond must be at least 1, was: " + maxSamplesPerSecond);
+        }
+        return new Samplers.Adaptive(maxSamplesPerSecond);
+    }
+}
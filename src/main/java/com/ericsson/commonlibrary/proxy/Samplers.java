@@ -0,0 +1,149 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link Sampler} implementations.
+ */
+final class Samplers {
+
+    static final Sampler ALWAYS = () -> 1;
+
+    private Samplers() {
+        // hidden
+    }
+
+    /**
+     * Counts down per thread so the threads don't contend on a shared counter.
+     */
+    static final class EveryNth implements Sampler {
+
+        private final int n;
+        private final ThreadLocal<int[]> countdown = ThreadLocal.withInitial(() -> new int[1]);
+
+        EveryNth(int n) {
+            this.n = n;
+        }
+
+        @Override
+        public long sample() {
+            int[] left = countdown.get();
+            if (left[0] > 0) {
+                left[0]--;
+                return 0;
+            }
+            left[0] = n - 1;
+            return n;
+        }
+    }
+
+    /**
+     * The weight of a sampled call is 1/probability on average. The fraction that doesn't fit in a whole weight is
+     * carried over to the next sampled call of the thread, so the extrapolated counts are not biased by rounding.
+     */
+    static final class Probability implements Sampler {
+
+        private final double probability;
+        private final double weight;
+        private final ThreadLocal<double[]> carry = ThreadLocal.withInitial(() -> new double[1]);
+
+        Probability(double probability) {
+            this.probability = probability;
+            this.weight = 1 / probability;
+        }
+
+        @Override
+        public long sample() {
+            if (ThreadLocalRandom.current().nextDouble() >= probability) {
+                return 0;
+            }
+            double[] fraction = carry.get();
+            double exactWeight = fraction[0] + weight;
+            long wholeWeight = (long) exactWeight;
+            fraction[0] = exactWeight - wholeWeight;
+            return wholeWeight;
+        }
+    }
+
+    /**
+     * Measures one call in n where n is recalculated every window from the call rate of the previous window. The calls
+     * are counted per thread and only published on sampled calls, as the weight of the sample, so the threads don't
+     * contend on a shared counter for the calls that are not measured.
+     */
+    static final class Adaptive implements Sampler {
+
+        private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+        private static final long WINDOWS_PER_SECOND = TimeUnit.SECONDS.toNanos(1) / WINDOW_NANOS;
+        private static final int LEFT = 0;
+        private static final int SKIPPED = 1;
+
+        private final long maxSamplesPerWindow;
+        private final LongAdder calls = new LongAdder();
+        private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+        // calls left to skip and calls skipped since the last sample of the thread.
+        private final ThreadLocal<long[]> countdown = ThreadLocal.withInitial(() -> new long[2]);
+        private volatile long n = 1;
+
+        Adaptive(int maxSamplesPerSecond) {
+            this.maxSamplesPerWindow = Math.max(1, maxSamplesPerSecond / WINDOWS_PER_SECOND);
+        }
+
+        @Override
+        public long sample() {
+            long[] state = countdown.get();
+            long currentN = n;
+            if (state[LEFT] > 0 && state[LEFT] < currentN) { // a lowered n is picked up directly.
+                state[LEFT]--;
+                state[SKIPPED]++;
+                return 0;
+            }
+            long weight = state[SKIPPED] + 1;
+            state[LEFT] = currentN - 1;
+            state[SKIPPED] = 0;
+            calls.add(weight);
+            adjust();
+            return weight;
+        }
+
+        /**
+         * Only done on sampled calls, so the clock is not read on the fast path.
+         */
+        private void adjust() {
+            long start = windowStart.get();
+            long now = System.nanoTime();
+            long elapsed = now - start;
+            if (elapsed >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+                long callsInWindow = calls.sumThenReset() * WINDOW_NANOS / elapsed;
+                n = Math.max(1, callsInWindow / maxSamplesPerWindow);
+            }
+        }
+
+        long getN() {
+            return n;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs calls that are slower than a threshold for proxies created with
+ * {@link Proxy#addSlowCallLogToMethods(Object, SlowCallLog)}. Unlike {@link Proxy#addTimerToMethods(Object)} nothing is
+ * formatted or logged on the calling thread. The calling thread copies the call into a preallocated slot of a lock free
+ * ring buffer and a background daemon thread formats and logs it. When the ring buffer is full the call is dropped and
+ * counted instead of blocking the caller.
+ *
+ * <pre>
+ * SlowCallLog slowCalls = new SlowCallLog(100, TimeUnit.MILLISECONDS);
+ * MyService service = Proxy.addSlowCallLogToMethods(new MyService(), slowCalls);
+ * </pre>
+ *
+ * The same log can be shared by several proxies. Notice that toString of the arguments is called from the background
+ * thread.
+ */
+public final class SlowCallLog implements AutoCloseable {
+
+    static final int DEFAULT_CAPACITY = 1024;
+    static final int MAX_ARGS = 4;
+
+    private static final Logger LOG = LoggerFactory.getLogger(SlowCallLog.class);
+    private static final int LARGEST_ARG_STRING = 20;
+
+    private final long thresholdNanos;
+    private final int mask;
+    private final Slot[] slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder logged = new LongAdder();
+    private final Thread consumer;
+    private long head;
+    private volatile boolean running = true;
+    private volatile boolean consumerParked;
+
+    /**
+     * Creates a slow call log with room for {@value #DEFAULT_CAPACITY} calls waiting to be logged.
+     *
+     * @param threshold
+     *            the shortest duration that is logged
+     * @param unit
+     *            of the threshold
+     */
+    public SlowCallLog(long threshold, TimeUnit unit) {
+        this(threshold, unit, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param threshold
+     *            the shortest duration that is logged
+     * @param unit
+     *            of the threshold
+     * @param capacity
+     *            number of calls that can wait to be logged, rounded up to a power of two
+     */
+    public SlowCallLog(long threshold, TimeUnit unit, int capacity) {
+        this(threshold, unit, capacity, true);
+    }
+
+    SlowCallLog(long threshold, TimeUnit unit, int capacity, boolean startConsumer) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold can't be negative: " + threshold);
+        }
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+        }
+        this.thresholdNanos = unit.toNanos(threshold);
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.slots = new Slot[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            sequences.set(i, i);
+        }
+        if (startConsumer) {
+            consumer = new Thread(this::consume, "proxy-slow-call-log");
+            consumer.setDaemon(true);
+            consumer.start();
+        } else {
+            consumer = null;
+        }
+    }
+
+    /**
+     * @return number of slow calls that were dropped because the ring buffer was full.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return number of slow calls that have been logged.
+     */
+    public long getLoggedCount() {
+        return logged.sum();
+    }
+
+    /**
+     * Stops the background thread and waits until it has logged the calls that are already in the ring buffer. Slow
+     * calls recorded after this are dropped.
+     */
+    @Override
+    public void close() {
+        running = false;
+        if (consumer != null && consumer != Thread.currentThread()) {
+            LockSupport.unpark(consumer);
+            try {
+                consumer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        drain();
+    }
+
+    long getThresholdNanos() {
+        return thresholdNanos;
+    }
+
+    /**
+     * Copies the call into a free slot, called by any thread.
+     *
+     * @return false if the call was dropped.
+     */
+    boolean offer(Invocation invocation, long durationNanos, Throwable thrown) {
+        if (!running) {
+            dropped.increment();
+            return false;
+        }
+        long position = tail.get();
+        int index;
+        while (true) {
+            index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                dropped.increment();
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+        slots[index].fill(invocation, durationNanos, thrown);
+        // a volatile write, so it's ordered before the reads below and a parking consumer or close can't miss it.
+        sequences.set(index, position + 1);
+        if (consumerParked) {
+            LockSupport.unpark(consumer);
+        }
+        if (!running) {
+            drain(); // closed while the call was copied, the last drain of close may already be done.
+        }
+        return true;
+    }
+
+    /**
+     * Logs all calls that are ready in the ring buffer. Normally only called by the background thread, the lock is
+     * uncontended until the log is closed.
+     *
+     * @return the number of logged calls.
+     */
+    synchronized int drain() {
+        int count = 0;
+        while (true) {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                return count;
+            }
+            Slot slot = slots[index];
+            log(slot);
+            slot.clear();
+            sequences.lazySet(index, head + slots.length);
+            head++;
+            count++;
+            logged.increment();
+        }
+    }
+
+    private void consume() {
+        while (running) {
+            if (drain() == 0) {
+                idle();
+            }
+        }
+    }
+
+    /**
+     * Parks until a producer publishes a call or the log is closed. The flag is set before the ring buffer is checked
+     * again, so a call published in between either is seen here or unparks the consumer.
+     */
+    private void idle() {
+        consumerParked = true;
+        if (running && !isNextReady()) {
+            LockSupport.park(this);
+        }
+        consumerParked = false;
+    }
+
+    private synchronized boolean isNextReady() {
+        return sequences.get((int) (head & mask)) == head + 1;
+    }
+
+    @SuppressWarnings("squid:S1181")
+    private void log(Slot slot) {
+        try {
+            String target = ClassMetrics.getProxiedClass(slot.targetClass).getSimpleName();
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(slot.durationNanos);
+            if (slot.thrownType == null) {
+                LOG.warn("Slow call {}.{}({}) took {} ms, started {} on thread {}", target, slot.method.getName(),
+                        createArgsString(slot), durationMs, Instant.ofEpochMilli(slot.startMillis), slot.threadName);
+            } else {
+                LOG.warn("Slow call {}.{}({}) took {} ms and threw {}, started {} on thread {}", target,
+                        slot.method.getName(), createArgsString(slot), durationMs, slot.thrownType.getName(),
+                        Instant.ofEpochMilli(slot.startMillis), slot.threadName);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Was not able to log slow call to: {}", slot.method, e);
+        }
+    }
+
+    private static String createArgsString(Slot slot) {
+        StringBuilder argsString = new StringBuilder();
+        for (int i = 0; i < slot.argCount; i++) {
+            if (i > 0) {
+                argsString.append(',');
+            }
+            if (i == MAX_ARGS) {
+                argsString.append("...");
+                break;
+            }
+            Object arg = slot.args[i];
+            String string = String.valueOf(arg);
+            if (string.length() > LARGEST_ARG_STRING) {
+                String name = arg.getClass().getSimpleName();
+                argsString.append(name.isEmpty() ? "UNKNOWN" : name);
+            } else {
+                argsString.append(string);
+            }
+        }
+        return argsString.toString();
+    }
+
+    /**
+     * A preallocated record of one slow call, written by one producer and then read by the consumer.
+     */
+    private static final class Slot {
+
+        private final Object[] args = new Object[MAX_ARGS];
+        private Class<?> targetClass;
+        private Method method;
+        private long startMillis;
+        private long durationNanos;
+        private String threadName;
+        private Class<?> thrownType;
+        private int argCount;
+
+        void fill(Invocation invocation, long durationNanos, Throwable thrown) {
+            this.targetClass = invocation.getThis().getClass();
+            this.method = invocation.getMethod();
+            this.durationNanos = durationNanos;
+            this.startMillis = System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(durationNanos);
+            this.threadName = Thread.currentThread().getName();
+            this.thrownType = thrown == null ? null : thrown.getClass();
+            Object[] parameters = invocation.getParameters();
+            this.argCount = parameters.length;
+            int copied = Math.min(parameters.length, MAX_ARGS);
+            System.arraycopy(parameters, 0, args, 0, copied);
+        }
+
+        void clear() {
+            targetClass = null;
+            method = null;
+            threadName = null;
+            thrownType = null;
+            for (int i = 0; i < MAX_ARGS; i++) {
+                args[i] = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,361 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Registry of converters from String to other types, used by {@link Util#castStringValueToObject(String, Class)}. The
+ * type (including generic element, key and value types of a method return type) is resolved once into a composite
+ * converter that is cached, so a conversion is only a lookup and the actual parsing.
+ */
+final class StringConverters {
+
+    private static final char LIST_SEPARATOR = ',';
+    private static final char KEY_VALUE_SEPARATOR = '=';
+    private static final MethodType STRING_TO_OBJECT = MethodType.methodType(Object.class, String.class);
+    private static final Map<Class<?>, StringConverter> BUILT_IN = new HashMap<>();
+
+    static {
+        BUILT_IN.put(String.class, value -> value);
+        register(Integer.class, int.class, Integer::valueOf);
+        register(Boolean.class, boolean.class, Boolean::valueOf);
+        register(Float.class, float.class, Float::valueOf);
+        register(Double.class, double.class, Double::valueOf);
+        register(Byte.class, byte.class, Byte::valueOf);
+        register(Short.class, short.class, Short::valueOf);
+        register(Long.class, long.class, Long::valueOf);
+        register(Character.class, char.class, StringConverters::toCharacter);
+        BUILT_IN.put(Class.class, StringConverters::toClass);
+        BUILT_IN.put(File.class, File::new);
+    }
+
+    private static final ClassValue<StringConverter> CLASS_CONVERTERS = new ClassValue<StringConverter>() {
+
+        @Override
+        protected StringConverter computeValue(Class<?> type) {
+            return resolve(type, new Type[0]);
+        }
+    };
+
+    private static final MethodConverters METHOD_CONVERTERS = new MethodConverters();
+
+    private StringConverters() {
+        // hidden
+    }
+
+    /**
+     * A conversion from a String to a specific type.
+     */
+    @FunctionalInterface
+    interface StringConverter {
+
+        Object convert(String value);
+    }
+
+    /**
+     * @param type
+     *            to convert to
+     * @param method
+     *            whose generic return type holds the element types of collections, may be null.
+     *
+     * @return a cached converter to the type.
+     */
+    static StringConverter getConverter(Class<?> type, Method method) {
+        if (method == null || !isComposite(type)) {
+            return CLASS_CONVERTERS.get(type);
+        }
+        Map<Method, Map<Class<?>, StringConverter>> methods = METHOD_CONVERTERS.get(method.getDeclaringClass());
+        Map<Class<?>, StringConverter> converters = methods.get(method);
+        if (converters == null) {
+            converters = methods.computeIfAbsent(method, m -> new ConcurrentHashMap<>(2));
+        }
+        StringConverter converter = converters.get(type);
+        if (converter == null) {
+            converter = converters.computeIfAbsent(type, t -> resolve(t, method));
+        }
+        return converter;
+    }
+
+    private static StringConverter resolve(Class<?> type, Method method) {
+        if (method.getReturnType().equals(type)) {
+            return resolve(method.getGenericReturnType());
+        }
+        // a type that is not the return type, but the generics of the method return type are used anyway.
+        Type genericReturnType = method.getGenericReturnType();
+        if (genericReturnType instanceof ParameterizedType) {
+            return resolve(type, ((ParameterizedType) genericReturnType).getActualTypeArguments());
+        }
+        return CLASS_CONVERTERS.get(type);
+    }
+
+    /**
+     * The converters of the methods of a class per converted type, kept with the declaring class so that a static map
+     * doesn't keep classes of other class loaders from being unloaded.
+     */
+    private static final class MethodConverters extends ClassValue<Map<Method, Map<Class<?>, StringConverter>>> {
+
+        @Override
+        protected Map<Method, Map<Class<?>, StringConverter>> computeValue(Class<?> declaringClass) {
+            return new ConcurrentHashMap<>();
+        }
+    }
+
+    private static void register(Class<?> boxed, Class<?> primitive, StringConverter converter) {
+        BUILT_IN.put(boxed, converter);
+        BUILT_IN.put(primitive, converter);
+    }
+
+    private static boolean isComposite(Class<?> type) {
+        return isList(type) || type.equals(Set.class) || type.equals(Map.class) || type.isArray();
+    }
+
+    private static boolean isList(Class<?> type) {
+        return type.equals(List.class) || type.equals(Collection.class) || type.equals(Iterable.class);
+    }
+
+    private static StringConverter resolve(Type type) {
+        if (type instanceof ParameterizedType) {
+            return resolve(rawClass(type), ((ParameterizedType) type).getActualTypeArguments());
+        } else if (type instanceof GenericArrayType) {
+            Type componentType = ((GenericArrayType) type).getGenericComponentType();
+            return arrayConverter(rawClass(componentType), resolve(componentType));
+        }
+        return resolve(rawClass(type), new Type[0]);
+    }
+
+    private static StringConverter resolve(Class<?> type, Type[] typeArguments) {
+        StringConverter builtIn = BUILT_IN.get(type);
+        if (builtIn != null) {
+            return builtIn;
+        } else if (type.isEnum()) {
+            Class<? extends Enum> enumType = type.asSubclass(Enum.class);
+            return value -> Enum.valueOf(enumType, value.trim());
+        } else if (isList(type)) {
+            return listConverter(resolveTypeArgument(typeArguments, 0));
+        } else if (type.equals(Set.class)) {
+            return setConverter(resolveTypeArgument(typeArguments, 0));
+        } else if (type.equals(Map.class)) {
+            return mapConverter(resolveTypeArgument(typeArguments, 0), resolveTypeArgument(typeArguments, 1));
+        } else if (type.isArray()) {
+            return arrayConverter(type.getComponentType(), CLASS_CONVERTERS.get(type.getComponentType()));
+        }
+        return userTypeConverter(type);
+    }
+
+    private static StringConverter resolveTypeArgument(Type[] typeArguments, int index) {
+        if (typeArguments.length <= index) {
+            return BUILT_IN.get(String.class); // raw types contains strings.
+        }
+        return resolve(typeArguments[index]);
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class<?>) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        } else if (type instanceof WildcardType) {
+            return rawClass(((WildcardType) type).getUpperBounds()[0]);
+        } else if (type instanceof TypeVariable) {
+            return rawClass(((TypeVariable<?>) type).getBounds()[0]); // ignore the others, (typically only one)
+        } else if (type instanceof GenericArrayType) {
+            return Array.newInstance(rawClass(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        }
+        throw new IllegalArgumentException("Was not able to figure out the class of type: " + type);
+    }
+
+    /**
+     * Supports user types with a static valueOf(String) or fromString(String) factory method or a constructor that
+     * takes a String, in that order. The found one is bound once as a {@link MethodHandle}.
+     */
+    private static StringConverter userTypeConverter(Class<?> type) {
+        MethodHandle handle = findFactoryMethod(type, "valueOf");
+        if (handle == null) {
+            handle = findFactoryMethod(type, "fromString");
+        }
+        if (handle == null) {
+            handle = findStringConstructor(type);
+        }
+        if (handle == null) {
+            return value -> {
+                throw new UnsupportedOperationException(
+                        "Received type that is not supported! Type: " + type.getSimpleName());
+            };
+        }
+        MethodHandle factory = handle.asType(STRING_TO_OBJECT);
+        return value -> invoke(factory, value);
+    }
+
+    private static MethodHandle findFactoryMethod(Class<?> type, String name) {
+        try {
+            Method method = type.getMethod(name, String.class);
+            if (Modifier.isStatic(method.getModifiers()) && type.isAssignableFrom(method.getReturnType())) {
+                return MethodHandles.publicLookup().unreflect(method);
+            }
+        } catch (NoSuchMethodException | IllegalAccessException | SecurityException e) { // NOSONAR
+            // not a supported factory method.
+        }
+        return null;
+    }
+
+    private static MethodHandle findStringConstructor(Class<?> type) {
+        if (Util.isClassAInterfaceOrAbstract(type)) {
+            return null;
+        }
+        try {
+            Constructor<?> constructor = type.getConstructor(String.class);
+            return MethodHandles.publicLookup().unreflectConstructor(constructor);
+        } catch (NoSuchMethodException | IllegalAccessException | SecurityException e) { // NOSONAR
+            return null;
+        }
+    }
+
+    @SuppressWarnings("squid:S1181")
+    private static Object invoke(MethodHandle factory, String value) {
+        try {
+            return (Object) factory.invokeExact(value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalArgumentException("Was not able to convert: '" + value + "'", t);
+        }
+    }
+
+    private static Object toCharacter(String value) {
+        if (value.length() == 1) {
+            return Character.valueOf(value.charAt(0));
+        }
+        throw new IllegalArgumentException("A character should be a string of size 1. and not: '" + value + "'");
+    }
+
+    private static Object toClass(String value) {
+        try {
+            return Thread.currentThread().getContextClassLoader().loadClass(value);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Classname: '" + value + "' does not seem to exist", e);
+        }
+    }
+
+    private static StringConverter listConverter(StringConverter elementConverter) {
+        return value -> {
+            if (value.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<Object> list = new ArrayList<>();
+            forEachElement(value, element -> list.add(elementConverter.convert(element)));
+            return list;
+        };
+    }
+
+    private static StringConverter setConverter(StringConverter elementConverter) {
+        return value -> {
+            if (value.isEmpty()) {
+                return Collections.emptySet();
+            }
+            Set<Object> set = new LinkedHashSet<>();
+            forEachElement(value, element -> set.add(elementConverter.convert(element)));
+            return set;
+        };
+    }
+
+    private static StringConverter mapConverter(StringConverter keyConverter, StringConverter valueConverter) {
+        return value -> {
+            if (value.isEmpty()) {
+                return Collections.emptyMap();
+            }
+            Map<Object, Object> map = new TreeMap<>();
+            forEachElement(value, entry -> {
+                int separator = entry.indexOf(KEY_VALUE_SEPARATOR);
+                if (separator < 0) {
+                    throw new IllegalArgumentException(
+                            "A map entry should be of the form key=value and not: '" + entry + "'");
+                }
+                int valueEnd = entry.indexOf(KEY_VALUE_SEPARATOR, separator + 1);
+                if (valueEnd < 0) {
+                    valueEnd = entry.length();
+                }
+                map.put(keyConverter.convert(entry.substring(0, separator)),
+                        valueConverter.convert(entry.substring(separator + 1, valueEnd)));
+            });
+            return map;
+        };
+    }
+
+    private static StringConverter arrayConverter(Class<?> componentType, StringConverter elementConverter) {
+        return value -> {
+            if (value.isEmpty()) {
+                return Array.newInstance(componentType, 0);
+            }
+            List<Object> elements = new ArrayList<>();
+            forEachElement(value, element -> elements.add(elementConverter.convert(element)));
+            Object array = Array.newInstance(componentType, elements.size());
+            for (int i = 0; i < elements.size(); i++) {
+                Array.set(array, i, elements.get(i));
+            }
+            return array;
+        };
+    }
+
+    /**
+     * Splits a comma separated String without regular expressions. Behaves as {@code String.split(",")}, meaning that
+     * trailing empty elements are ignored.
+     */
+    static void forEachElement(String commaSeparated, Consumer<String> consumer) {
+        int end = commaSeparated.length();
+        while (end > 0 && commaSeparated.charAt(end - 1) == LIST_SEPARATOR) {
+            end--;
+        }
+        int start = 0;
+        while (start < end) {
+            int separator = commaSeparated.indexOf(LIST_SEPARATOR, start);
+            if (separator < 0 || separator > end) { // the trailing separators are ignored.
+                separator = end;
+            }
+            consumer.accept(commaSeparated.substring(start, separator));
+            start = separator + 1;
+        }
+    }
+}
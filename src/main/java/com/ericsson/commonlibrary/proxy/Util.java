@@ -18,7 +18,6 @@
  */
 package com.ericsson.commonlibrary.proxy;
 
-import java.io.File;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -32,12 +31,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
-import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -108,8 +108,7 @@ public final class Util {
     }
 
     @SuppressWarnings({ "squid:S1166", "squid:S00112" })
-    private static Object invokeMethodInObject(Object[] args, Object object, final Method methodInObject)
-            throws Throwable {
+    static Object invokeMethodInObject(Object[] args, Object object, final Method methodInObject) throws Throwable {
         try {
             methodInObject.setAccessible(true);
             return methodInObject.invoke(object, args);
@@ -156,6 +155,24 @@ public final class Util {
         return nameEq && methodParamsEquals(method, method2);
     }
 
+    /**
+     * @param methods
+     *            the methods to match
+     *
+     * @return a predicate matching methods with the same signature as one of the given methods.
+     */
+    static Predicate<Method> signatureOneOf(Method... methods) {
+        Method[] copy = methods.clone();
+        return method -> {
+            for (Method candidate : copy) {
+                if (methodSignatureEquals(candidate, method)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
     private static boolean methodParamsEquals(Method method, final Method methodsInObject) {
         return Arrays.deepEquals(methodsInObject.getParameterTypes(), method.getParameterTypes());
     }
@@ -262,7 +279,9 @@ public final class Util {
     /**
      * Utility method to help convert a String to an actual object of other common types. Like all primitives type(and
      * object variants) Enums, Files and some simple Collections support to convert comma separated string into List of
-     * one of the supported simple types.
+     * one of the supported simple types. Other types are supported if they have a static valueOf(String) or
+     * fromString(String) method or a constructor that takes a String. The conversion is resolved once per type/method
+     * and cached.
      *
      * @param <T>
      *            target object type
@@ -275,56 +294,8 @@ public final class Util {
      *
      * @return actual object with the provided type.
      */
-    @SuppressWarnings("squid:S3776")
     public static <T> T castStringValueToMethodReturnType(String stringToCast, Class<T> classToCastTo, Method method) {
-        if (classToCastTo.equals(String.class)) {
-            return (T) stringToCast;
-        } else if (classToCastTo.equals(int.class) || classToCastTo.equals(Integer.class)) {
-            return (T) new Integer(stringToCast);
-        } else if (classToCastTo.equals(boolean.class) || classToCastTo.equals(Boolean.class)) {
-            return (T) new Boolean(stringToCast);
-        } else if (classToCastTo.equals(float.class) || classToCastTo.equals(Float.class)) {
-            return (T) new Float(stringToCast);
-        } else if (classToCastTo.equals(double.class) || classToCastTo.equals(Double.class)) {
-            return (T) new Double(stringToCast);
-        } else if (classToCastTo.equals(byte.class) || classToCastTo.equals(Byte.class)) {
-            return (T) new Byte(stringToCast);
-        } else if (classToCastTo.equals(short.class) || classToCastTo.equals(Short.class)) {
-            return (T) new Short(stringToCast);
-        } else if (classToCastTo.equals(long.class) || classToCastTo.equals(Long.class)) {
-            return (T) new Long(stringToCast);
-        } else if (classToCastTo.equals(char.class) || classToCastTo.equals(Character.class)) {
-            if (stringToCast.length() == 1) {
-                return (T) Character.valueOf(stringToCast.charAt(0));
-            } else {
-                throw new IllegalArgumentException(
-                        "A character should be a string of size 1. and not: '" + stringToCast + "'");
-            }
-        } else if (classToCastTo.isEnum()) {
-            return (T) Enum.valueOf((Class<Enum>) classToCastTo.asSubclass(Enum.class), stringToCast.trim());
-        } else if (classToCastTo.equals(Class.class)) {
-            try {
-                return (T) Thread.currentThread().getContextClassLoader().loadClass(stringToCast);
-            } catch (ClassNotFoundException e) {
-                throw new IllegalArgumentException("Classname: '" + stringToCast + "' does not seem to exist", e);
-            }
-        } else if (classToCastTo.equals(File.class)) {
-            return (T) new File(stringToCast);
-        } else if (classToCastTo.equals(List.class) || classToCastTo.equals(Collection.class)
-                || classToCastTo.equals(Iterable.class)) {
-            return (T) castStringListToObjectList(stringToCast, method);
-        } else if (classToCastTo.equals(Map.class)) {
-            return (T) castStringMapToObjectMap(stringToCast, method);
-        } else if (classToCastTo.equals(Set.class)) {
-            return (T) castStringListToObjectSet(stringToCast, method);
-        } else if (classToCastTo.isArray()) {
-            return (T) castStringToArray(stringToCast, method, classToCastTo.getComponentType());
-        } else {
-            // TODO handle constructors that takes String by default with reflection. and common fromString method
-            // factories?
-            throw new UnsupportedOperationException(
-                    "Received type that is not supported! Type: " + classToCastTo.getSimpleName());
-        }
+        return (T) StringConverters.getConverter(classToCastTo, method).convert(stringToCast);
     }
 
     /**
@@ -359,75 +330,6 @@ public final class Util {
         return value;
     }
 
-    private static List<Object> castStringListToObjectList(String commaSeparatedList, Method method) {
-        List<Object> returnList = new ArrayList<>();
-        if (commaSeparatedList.isEmpty()) {
-            return Collections.emptyList();
-        }
-        List<String> valueList = Arrays.asList(commaSeparatedList.split(","));
-        for (String singleValueString : valueList) {
-            Class<?> classToCastTo = String.class;
-            if (method != null) {
-                classToCastTo = getGenericTypeOfReturnType(method);
-            }
-            returnList.add(castStringValueToMethodReturnType(singleValueString, classToCastTo, method));
-        }
-        return returnList;
-    }
-
-    private static Set<Object> castStringListToObjectSet(String commaSeparatedList, Method method) {
-        Set<Object> returnSet = new LinkedHashSet<>();
-        if (commaSeparatedList.isEmpty()) {
-            return Collections.emptySet();
-        }
-        List<String> valueList = Arrays.asList(commaSeparatedList.split(","));
-        for (String singleValueString : valueList) {
-            Class<?> classToCastTo = String.class;
-            if (method != null) {
-                classToCastTo = getGenericTypeOfReturnType(method);
-            }
-            returnSet.add(castStringValueToMethodReturnType(singleValueString, classToCastTo, method));
-        }
-        return returnSet;
-    }
-
-    private static Map<Object, Object> castStringMapToObjectMap(String commaSeparatedMap, Method method) {
-        Map<Object, Object> returnMap = new TreeMap<>();
-        if (commaSeparatedMap.isEmpty()) {
-            return Collections.emptyMap();
-        }
-        List<String> entryList = Arrays.asList(commaSeparatedMap.split(","));
-        for (String keyAndValue : entryList) {
-            String[] split = keyAndValue.split("=");
-            String key = split[0];
-            String value = split[1];
-
-            Class<?> genericTypeOfKey = String.class;
-            Class<?> genericTypeOfValue = String.class;
-            if (method != null) {
-                genericTypeOfKey = getGenericTypeOfReturnType(method);
-                genericTypeOfValue = getSecondGenericTypeOfReturnType(method);
-            }
-
-            Object keyAsObject = castStringValueToMethodReturnType(key, genericTypeOfKey, method);
-            Object valueAsObject = castStringValueToMethodReturnType(value, genericTypeOfValue, method);
-            returnMap.put(keyAsObject, valueAsObject);
-        }
-        return returnMap;
-    }
-
-    private static <T> T[] castStringToArray(String commaSeparatedArray, Method method, Class<T> arrayType) {
-        List<Object> returnList = new ArrayList<Object>();
-        if (commaSeparatedArray.isEmpty()) {
-            return (T[]) Array.newInstance(arrayType, 0);
-        }
-        List<String> valueList = Arrays.asList(commaSeparatedArray.split(","));
-        for (String singleValueString : valueList) {
-            returnList.add(castStringValueToMethodReturnType(singleValueString, arrayType, method));
-        }
-        return returnList.toArray((T[]) Array.newInstance(arrayType, returnList.size()));
-    }
-
     /**
      * Get the generic return type of the provided method, Meaning the String.class from a method like
      * {@code public List<String> method() }
@@ -590,32 +492,74 @@ public final class Util {
         throw throwable;
     }
 
-    @SuppressWarnings({ "squid:S1181", "squid:S1166" })
+    /**
+     * Waits for a result that is computed by another call. The wait can be interrupted and the exception of the other
+     * call is thrown as it is.
+     *
+     * @param waitingFor
+     *            describes the other call in the exception thrown if interrupted.
+     *
+     * @throws ProxyException
+     *             if the thread was interrupted while waiting, the interrupt flag is kept.
+     */
+    static <T> T awaitResult(Future<T> future, String waitingFor) throws Throwable {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProxyException("Interrupted while waiting for " + waitingFor, e);
+        } catch (ExecutionException e) {
+            throw e.getCause() != null ? e.getCause() : e;
+        }
+    }
+
     static Object tryToAddInterceptorToObject(Object object, Interceptor interceptor, Invocation invocation,
             boolean shouldInterceptPrivateMethods) {
+        return tryToAddInterceptorToObject(object, interceptor, invocation, shouldInterceptPrivateMethods, null);
+    }
+
+    /**
+     * Same as {@link #tryToAddInterceptorToObject(Object, Interceptor, Invocation, boolean)} but reuses the proxy in
+     * the cache if the same object has already been proxied.
+     */
+    @SuppressWarnings({ "squid:S1181", "squid:S1166" })
+    static Object tryToAddInterceptorToObject(Object object, Interceptor interceptor, Invocation invocation,
+            boolean shouldInterceptPrivateMethods, ProxyIdentityCache cache) {
 
         if (object == null) {
             return null;
         }
-        if (!Util.isClassSafeFromPublicVariableProblems(object.getClass())) {
-            LOG.debug(
-                    "Class: {} is not safe to add an interceptor {} recursivly to. Will therefore not add the recursive interceptor",
-                    object.getClass().getSimpleName(), interceptor.getClass().getSimpleName());
+        if (!shouldInterceptPrivateMethods && Modifier.isPrivate(invocation.getMethod().getModifiers())) {
             return object;
         }
-        if (!shouldInterceptPrivateMethods && Modifier.isPrivate(invocation.getMethod().getModifiers())) {
+        if (cache != null) {
+            Object cachedProxy = cache.get(object);
+            if (cachedProxy != null) {
+                return cachedProxy;
+            }
+        }
+        if (!Proxyability.isProxyable(object.getClass())) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Class: {} is not possible to add an interceptor {} recursivly to since {}",
+                        object.getClass().getSimpleName(), interceptor.getClass().getSimpleName(),
+                        Proxyability.getReasonNotProxyable(object.getClass()));
+            }
             return object;
         }
         if (Util.doesObjectHaveInterceptor(object, interceptor)) {
             return object;
         }
         try {
-            return Proxy.intercept(object, interceptor);
-
+            Object proxy = Proxy.intercept(object, interceptor);
+            if (cache != null && proxy != object) {
+                cache.put(object, proxy);
+            }
+            return proxy;
         } catch (Throwable t) {
             LOG.trace("Failed to add interceptor: {} to the return object of type: {} returned by method: {}",
                     interceptor.getClass().getSimpleName(), invocation.getMethod().getReturnType().getSimpleName(),
                     invocation.getMethodName());
+            Proxyability.recordFailure(object.getClass(), t); // don't try again if the class can't be proxied
             return object;
         }
     }
@@ -0,0 +1,57 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import jdk.jfr.EventType;
+
+/**
+ * The {@link JfrRecorder} that emits {@link InvocationEvent}s. Only exists in the Java 11 section of the multi-release
+ * jar and is loaded by name.
+ */
+final class JfrEventRecorder implements JfrRecorder {
+
+    private final EventType eventType = EventType.getEventType(InvocationEvent.class);
+
+    @Override
+    public boolean isEnabled() {
+        return eventType.isEnabled();
+    }
+
+    @Override
+    public Object begin() {
+        InvocationEvent event = new InvocationEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void commit(Object event, Invocation invocation, Throwable thrown) {
+        InvocationEvent invocationEvent = (InvocationEvent) event;
+        invocationEvent.end();
+        if (invocationEvent.shouldCommit()) {
+            invocationEvent.className = ClassMetrics.getProxiedClass(invocation.getThis().getClass()).getName();
+            invocationEvent.method = invocation.getMethodName();
+            invocationEvent.exceptionType = thrown == null ? null : thrown.getClass().getName();
+            invocationEvent.commit();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
+import org.testng.annotations.Test;
+
+public class AsyncInterceptorTest {
+
+    @Test
+    public void afterWorkIsDoneWhenTheStageCompletes() throws Exception {
+        Service original = new Service();
+        Service service = Proxy.interceptAsync(original,
+                invocation -> invocation.invoke().thenApply(result -> result + "!"));
+
+        CompletableFuture<String> future = service.future();
+        assertFalse(future.isDone());
+        original.pending.complete("value");
+
+        assertEquals(future.get(), "value!");
+    }
+
+    @Test
+    public void completionStageReturnTypesAreIntercepted() throws Exception {
+        Service service = Proxy.interceptAsync(new Service(),
+                invocation -> invocation.invoke().thenApply(result -> result + "!"));
+
+        assertEquals(service.stage().toCompletableFuture().get(), "done!");
+    }
+
+    @Test
+    public void otherMethodsAreNotIntercepted() throws Exception {
+        List<String> calls = new ArrayList<>();
+        Service service = Proxy.interceptAsync(new Service(), invocation -> {
+            calls.add(invocation.getMethodName());
+            return invocation.invoke();
+        });
+
+        assertEquals(service.sync(), "sync");
+        service.stage();
+        assertEquals(calls.size(), 1);
+        assertEquals(calls.get(0), "stage");
+    }
+
+    @Test
+    public void syncAndAsyncInterceptorsCanBeMixed() throws Exception {
+        List<String> calls = new ArrayList<>();
+        Service original = new Service();
+        Service service = Proxy.interceptAsync(original, invocation -> {
+            calls.add("async before");
+            return invocation.invoke().whenComplete((result, throwable) -> calls.add("async after"));
+        });
+        service = Proxy.intercept(service, invocation -> {
+            calls.add("sync");
+            return invocation.invoke();
+        });
+        service = Proxy.interceptAsync(service, invocation -> invocation.invoke().thenApply(result -> result + "!"));
+
+        CompletableFuture<String> future = service.future();
+        assertEquals(calls.size(), 2);
+        original.pending.complete("value");
+
+        assertEquals(future.get(), "value!");
+        assertEquals(calls.size(), 3);
+        assertTrue(calls.contains("async after"));
+    }
+
+    @Test
+    public void exceptionsAreReturnedAsFailedStages() throws Exception {
+        Service service = Proxy.interceptAsync(new Service(), invocation -> {
+            throw new IllegalStateException("failed");
+        });
+
+        CompletableFuture<String> future = service.future();
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            return;
+        }
+        throw new AssertionError("Expected a failed future");
+    }
+
+    @Test
+    public void exceptionsFromTheMethodAreReturnedAsFailedStages() throws Exception {
+        Service service = Proxy.interceptAsync(new Service(),
+                invocation -> invocation.invoke().exceptionally(t -> "recovered"));
+
+        assertEquals(service.failing().get(), "recovered");
+    }
+
+    public static class Service {
+
+        private final CompletableFuture<String> pending = new CompletableFuture<>();
+
+        public CompletableFuture<String> future() {
+            return pending;
+        }
+
+        public CompletionStage<String> stage() {
+            return CompletableFuture.completedFuture("done");
+        }
+
+        public CompletableFuture<String> failing() {
+            throw new IllegalArgumentException("failing");
+        }
+
+        public String sync() {
+            return "sync";
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.MDC;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class AsyncOffloadTest {
+
+    private ExecutorService executor;
+
+    @BeforeMethod
+    public void createExecutor() {
+        executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "offload"));
+    }
+
+    @AfterMethod
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void voidMethodsReturnImmediately() throws Exception {
+        LegacyService original = new LegacyService();
+        LegacyService service = Proxy.async(original, executor);
+
+        service.store("value");
+        Assert.assertEquals(original.stored.getCount(), 1);
+
+        original.release.countDown();
+        Assert.assertTrue(original.stored.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(original.thread, "offload");
+    }
+
+    @Test
+    public void futureMethodsRunOnTheExecutor() throws Exception {
+        LegacyService service = Proxy.async(new LegacyService(), executor);
+
+        Assert.assertEquals(service.threadName().get(5, TimeUnit.SECONDS), "offload");
+        Assert.assertEquals(service.plainFuture().get(5, TimeUnit.SECONDS), "offload");
+        Assert.assertEquals(service.stage().toCompletableFuture().get(5, TimeUnit.SECONDS), "offload");
+    }
+
+    @Test
+    public void exceptionsAreVisibleThroughTheFuture() throws Exception {
+        LegacyService service = Proxy.async(new LegacyService(), executor);
+
+        try {
+            service.fail().get(5, TimeUnit.SECONDS);
+            Assert.fail("expected exception");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void rejectedCallsFailTheFuture() throws Exception {
+        LegacyService service = Proxy.async(new LegacyService(), executor);
+        executor.shutdown();
+
+        try {
+            service.threadName().get(5, TimeUnit.SECONDS);
+            Assert.fail("expected exception");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    @Test
+    public void otherMethodsRunOnTheCallingThread() throws Exception {
+        LegacyService service = Proxy.async(new LegacyService(), executor);
+
+        Assert.assertEquals(service.direct(), Thread.currentThread().getName());
+    }
+
+    @Test
+    public void interceptorsAddedBeforeRunOnTheExecutor() throws Exception {
+        LegacyService service = Proxy.async(Proxy.mdcLogging(new LegacyService(), "request", "1"), executor);
+
+        Assert.assertEquals(service.mdc("request").get(5, TimeUnit.SECONDS), "offload:1");
+    }
+
+    @Test
+    public void interceptorsAddedAfterRunOnTheCallingThread() throws Exception {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        LegacyService service = Proxy.intercept(Proxy.async(new LegacyService(), executor), invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return invocation.invoke();
+        });
+        service = Proxy.mdcLogging(service, "request", "1");
+
+        Assert.assertEquals(service.mdc("request").get(5, TimeUnit.SECONDS), "offload:null");
+        Assert.assertEquals(threads, Collections.singletonList(Thread.currentThread().getName()));
+    }
+
+    @Test
+    public void defaultExecutorRunsTheCalls() throws Exception {
+        LegacyService service = Proxy.async(new LegacyService());
+
+        String thread = service.threadName().get(5, TimeUnit.SECONDS);
+
+        Assert.assertNotEquals(thread, Thread.currentThread().getName());
+        if (OffloadExecutors.isVirtualThreads()) {
+            Assert.assertNotNull(OffloadExecutors.newVirtualThreadPerTaskExecutor());
+        } else {
+            Assert.assertTrue(thread.startsWith("proxy-async-"));
+        }
+    }
+
+    public static class LegacyService {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch stored = new CountDownLatch(1);
+        private volatile String thread;
+
+        public void store(String value) throws InterruptedException {
+            release.await();
+            thread = Thread.currentThread().getName();
+            stored.countDown();
+        }
+
+        public CompletableFuture<String> threadName() {
+            return CompletableFuture.completedFuture(Thread.currentThread().getName());
+        }
+
+        public Future<String> plainFuture() {
+            return CompletableFuture.completedFuture(Thread.currentThread().getName());
+        }
+
+        public CompletionStage<String> stage() {
+            return CompletableFuture.completedFuture(Thread.currentThread().getName());
+        }
+
+        public CompletableFuture<String> fail() {
+            throw new IllegalStateException("failed");
+        }
+
+        public CompletableFuture<String> mdc(String key) {
+            return CompletableFuture.completedFuture(Thread.currentThread().getName() + ":" + MDC.get(key));
+        }
+
+        public String direct() {
+            return Thread.currentThread().getName();
+        }
+    }
+}
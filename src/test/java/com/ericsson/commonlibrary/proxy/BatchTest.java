@@ -0,0 +1,305 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class BatchTest {
+
+    private static final int THREADS = 8;
+
+    private ExecutorService executor;
+
+    @BeforeMethod
+    public void createExecutor() {
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterMethod
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentCallsAreSentAsOneBulkCall() throws Exception {
+        Repository original = new Repository();
+        Repository repository = Proxy.batch(original,
+                spec("findAll").maxBatchSize(THREADS).maxWait(5, TimeUnit.SECONDS));
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            String id = "id" + i;
+            results.add(executor.submit(() -> repository.find(id)));
+        }
+
+        for (int i = 0; i < THREADS; i++) {
+            Assert.assertEquals(results.get(i).get(5, TimeUnit.SECONDS), "value-id" + i);
+        }
+        Assert.assertEquals(original.bulkCalls.size(), 1);
+        Assert.assertEquals(original.bulkCalls.get(0).size(), THREADS);
+        BatchStats stats = Proxy.getBatchStats(repository);
+        Assert.assertEquals(stats.getBatchCount(), 1);
+        Assert.assertEquals(stats.getCallCount(), THREADS);
+        Assert.assertEquals(stats.getMaxBatchSize(), THREADS);
+    }
+
+    @Test
+    public void batchIsSentWhenTheMaxWaitHasPassed() throws Exception {
+        Repository original = new Repository();
+        Repository repository = Proxy.batch(original, spec("findAll").maxWait(10, TimeUnit.MILLISECONDS));
+
+        Assert.assertEquals(repository.find("a"), "value-a");
+
+        Assert.assertEquals(original.bulkCalls.size(), 1);
+        Assert.assertTrue(Proxy.getBatchStats(repository).getMaxWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    @Test
+    public void equalParametersAreOnlySentOnce() throws Exception {
+        Repository original = new Repository();
+        Repository repository = Proxy.batch(original, spec("findAll").maxWait(200, TimeUnit.MILLISECONDS));
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(executor.submit(() -> repository.find("same")));
+        }
+
+        for (Future<String> result : results) {
+            Assert.assertEquals(result.get(5, TimeUnit.SECONDS), "value-same");
+        }
+        Assert.assertEquals(original.bulkCalls.size(), 1);
+        Assert.assertEquals(original.bulkCalls.get(0).size(), 1);
+        Assert.assertEquals(Proxy.getBatchStats(repository).getCallCount(), 4);
+    }
+
+    @Test
+    public void listResultsAreMatchedOnPosition() throws Exception {
+        Repository original = new Repository();
+        Repository repository = Proxy.batch(original,
+                spec("findAllAsList").maxBatchSize(2).maxWait(5, TimeUnit.SECONDS));
+
+        Future<String> first = executor.submit(() -> repository.find("a"));
+        Future<String> second = executor.submit(() -> repository.find("b"));
+
+        Assert.assertEquals(first.get(5, TimeUnit.SECONDS), "value-a");
+        Assert.assertEquals(second.get(5, TimeUnit.SECONDS), "value-b");
+    }
+
+    @Test
+    public void bulkExceptionIsThrownByAllCalls() throws Exception {
+        Repository original = new Repository();
+        Repository repository = Proxy.batch(original, spec("failAll").maxBatchSize(2).maxWait(5, TimeUnit.SECONDS));
+
+        Future<String> first = executor.submit(() -> repository.find("a"));
+        Future<String> second = executor.submit(() -> repository.find("b"));
+
+        for (Future<String> result : new Future[] { first, second }) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+                Assert.fail("expected exception");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+
+    @Test
+    public void missingPrimitiveResultFailsOnlyThatCall() throws Exception {
+        Repository repository = Proxy.batch(new Repository(),
+                BatchSpec
+                        .batch(Repository.class.getMethod("length", String.class),
+                                Repository.class.getMethod("lengths", Collection.class))
+                        .maxBatchSize(2).maxWait(5, TimeUnit.SECONDS));
+
+        Future<Integer> found = executor.submit(() -> repository.length("abc"));
+        Future<Integer> missing = executor.submit(() -> repository.length("missing"));
+
+        Assert.assertEquals(found.get(5, TimeUnit.SECONDS).intValue(), 3);
+        try {
+            missing.get(5, TimeUnit.SECONDS);
+            Assert.fail("expected exception");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof ProxyException, e.getCause().toString());
+            Assert.assertTrue(e.getCause().getMessage().contains("missing"), e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void batchSizesAreCountedExactly() throws Exception {
+        long[] counts = new long[38];
+        counts[33] = 2;
+        counts[37] = 1;
+        BatchStats stats = new BatchStats(counts, new LatencyHistogram().snapshot());
+
+        Assert.assertEquals(stats.getBatchCount(), 3);
+        Assert.assertEquals(stats.getMaxBatchSize(), 37);
+        Assert.assertEquals(stats.getBatchSizePercentile(50), 33);
+        Assert.assertEquals(stats.getBatchSizePercentile(100), 37);
+        Assert.assertEquals(stats.getMeanBatchSize(), (33 * 2 + 37) / 3.0, 0.0001);
+    }
+
+    @Test
+    public void otherMethodsAreNotBatched() throws Exception {
+        Repository original = new Repository();
+        Repository repository = Proxy.batch(original, spec("findAll"));
+
+        Assert.assertEquals(repository.count(), 0);
+        Assert.assertTrue(original.bulkCalls.isEmpty());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void bulkMethodWithoutCollectionParameterIsRejected() throws Exception {
+        BatchSpec.batch(Repository.class.getMethod("find", String.class),
+                Repository.class.getMethod("find", String.class));
+    }
+
+    @Test(timeOut = 5000)
+    public void callsFromTheBulkMethodAreNotBatched() throws Exception {
+        Repository original = new Repository();
+        Repository repository = Proxy.batch(original,
+                BatchSpec
+                        .batch(Repository.class.getMethod("describe", String.class),
+                                Repository.class.getMethod("describeAll", Collection.class))
+                        .maxWait(1, TimeUnit.HOURS).maxBatchSize(1));
+        original.self = repository;
+
+        Assert.assertEquals(repository.describe("a"), "bulk-a-direct-nested");
+    }
+
+    @Test
+    public void waitingCallsCanBeInterrupted() throws Exception {
+        Repository original = new Repository();
+        Repository repository = Proxy.batch(original, spec("findAll").maxBatchSize(3).maxWait(1, TimeUnit.HOURS));
+        Future<String> leader = executor.submit(() -> repository.find("a"));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        Thread follower = new Thread(() -> {
+            try {
+                repository.find("b");
+            } catch (Throwable t) {
+                failure.set(t);
+                interrupted.set(Thread.currentThread().isInterrupted());
+            }
+        });
+        follower.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (follower.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+
+        follower.interrupt();
+        follower.join(5000);
+        Assert.assertTrue(failure.get() instanceof ProxyException, String.valueOf(failure.get()));
+        Assert.assertTrue(interrupted.get());
+        Assert.assertEquals(repository.find("c"), "value-c");
+        Assert.assertEquals(leader.get(5, TimeUnit.SECONDS), "value-a");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void statsOfProxyWithoutBatchingAreRejected() throws Exception {
+        Proxy.getBatchStats(Proxy.intercept(new Repository(), invocation -> invocation.invoke()));
+    }
+
+    private static BatchSpec spec(String bulkMethod) throws NoSuchMethodException {
+        return BatchSpec.batch(Repository.class.getMethod("find", String.class),
+                Repository.class.getMethod(bulkMethod, Collection.class));
+    }
+
+    public static class Repository {
+
+        private final List<List<String>> bulkCalls = new CopyOnWriteArrayList<>();
+        private volatile Repository self;
+
+        public String find(String id) {
+            throw new UnsupportedOperationException("should be batched");
+        }
+
+        public Map<String, String> findAll(Collection<String> ids) {
+            bulkCalls.add(new ArrayList<>(ids));
+            Map<String, String> values = new HashMap<>();
+            for (String id : ids) {
+                values.put(id, "value-" + id);
+            }
+            return values;
+        }
+
+        public List<String> findAllAsList(Collection<String> ids) {
+            bulkCalls.add(new ArrayList<>(ids));
+            List<String> values = new ArrayList<>();
+            for (String id : ids) {
+                values.add("value-" + id);
+            }
+            return values;
+        }
+
+        public int length(String id) {
+            throw new UnsupportedOperationException("should be batched");
+        }
+
+        public Map<String, Integer> lengths(Collection<String> ids) {
+            Map<String, Integer> lengths = new HashMap<>();
+            for (String id : ids) {
+                if (!id.startsWith("missing")) {
+                    lengths.put(id, id.length());
+                }
+            }
+            return lengths;
+        }
+
+        public Map<String, String> failAll(Collection<String> ids) {
+            throw new IllegalStateException("failed");
+        }
+
+        public String describe(String id) {
+            return "direct-" + id;
+        }
+
+        public Map<String, String> describeAll(Collection<String> ids) {
+            Map<String, String> values = new HashMap<>();
+            for (String id : ids) {
+                values.put(id, "bulk-" + id + "-" + self.describe("nested"));
+            }
+            return values;
+        }
+
+        public int count() {
+            return bulkCalls.size();
+        }
+    }
+}
@@ -0,0 +1,334 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CacheTest {
+
+    @Test
+    public void equalArgumentsAreAnsweredFromTheCache() throws Exception {
+        Service original = new Service();
+        Service service = Proxy.cache(original, CacheSpec.spec());
+
+        Assert.assertEquals(service.square(3), 9);
+        Assert.assertEquals(service.square(3), 9);
+        Assert.assertEquals(service.square(4), 16);
+
+        Assert.assertEquals(original.invocations.get(), 2);
+        CacheStats stats = Proxy.getCacheStats(service);
+        Assert.assertEquals(stats.getHitCount(), 1);
+        Assert.assertEquals(stats.getMissCount(), 2);
+        Assert.assertEquals(stats.getSize(), 2);
+    }
+
+    @Test
+    public void arrayArgumentsAreComparedOnContent() throws Exception {
+        Service original = new Service();
+        Service service = Proxy.cache(original, CacheSpec.spec());
+
+        Assert.assertEquals(service.sum(new int[] { 1, 2 }), 3);
+        Assert.assertEquals(service.sum(new int[] { 1, 2 }), 3);
+
+        Assert.assertEquals(original.invocations.get(), 1);
+    }
+
+    @Test
+    public void nullResultsAreCached() throws Exception {
+        Service original = new Service();
+        Service service = Proxy.cache(original, CacheSpec.spec());
+
+        Assert.assertNull(service.nothing("a"));
+        Assert.assertNull(service.nothing("a"));
+
+        Assert.assertEquals(original.invocations.get(), 1);
+    }
+
+    @Test
+    public void voidMethodsAreNotCached() throws Exception {
+        Service original = new Service();
+        Service service = Proxy.cache(original, CacheSpec.spec());
+
+        service.run();
+        service.run();
+
+        Assert.assertEquals(original.invocations.get(), 2);
+    }
+
+    @Test
+    public void resultsReadAgainAreEvictedLast() throws Exception {
+        Service original = new Service();
+        Service service = Proxy.cache(original, CacheSpec.spec().maximumSize(2));
+
+        service.square(1);
+        service.square(2);
+        service.square(1);
+        service.square(3);
+        Assert.assertEquals(Proxy.getCacheStats(service).getEvictionCount(), 1);
+        Assert.assertEquals(Proxy.getCacheStats(service).getSize(), 2);
+
+        service.square(1);
+        Assert.assertEquals(original.invocations.get(), 3);
+        service.square(2);
+        Assert.assertEquals(original.invocations.get(), 4);
+    }
+
+    @Test
+    public void resultsExpire() throws Exception {
+        Service original = new Service();
+        Service service = Proxy.cache(original, CacheSpec.spec().expireAfterWrite(30, TimeUnit.MILLISECONDS));
+
+        service.square(1);
+        Thread.sleep(60);
+        service.square(1);
+
+        Assert.assertEquals(original.invocations.get(), 2);
+        Assert.assertEquals(Proxy.getCacheStats(service).getEvictionCount(), 1);
+    }
+
+    @Test
+    public void annotationOverridesTheSpec() throws Exception {
+        Service original = new Service();
+        Service service = Proxy.cache(original, CacheSpec.spec().annotatedMethods());
+
+        service.expiring(1);
+        Thread.sleep(60);
+        service.expiring(1);
+        service.square(1);
+        service.square(1);
+
+        Assert.assertEquals(original.invocations.get(), 4);
+    }
+
+    @Test
+    public void softValuesAreCached() throws Exception {
+        Service original = new Service();
+        Service service = Proxy.cache(original, CacheSpec.spec().softValues());
+
+        service.square(5);
+        service.square(5);
+
+        Assert.assertEquals(original.invocations.get(), 1);
+    }
+
+    @Test
+    public void exceptionsAreNotCached() throws Exception {
+        Service original = new Service();
+        Service service = Proxy.cache(original, CacheSpec.spec());
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                service.fail("a");
+                Assert.fail("expected exception");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        }
+
+        Assert.assertEquals(original.invocations.get(), 2);
+        Assert.assertEquals(Proxy.getCacheStats(service).getSize(), 0);
+    }
+
+    @Test
+    public void concurrentMissesInvokeTheMethodOnce() throws Exception {
+        Service original = new Service();
+        Service service = Proxy.cache(original, CacheSpec.spec());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> service.blockingSquare(7)));
+            }
+            waitForWaits(service, 7);
+            Assert.assertEquals(Proxy.getCacheStats(service).getSize(), 0); // still loading
+            original.latch.countDown();
+            for (Future<Integer> result : results) {
+                Assert.assertEquals(result.get(5, TimeUnit.SECONDS).intValue(), 49);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(original.invocations.get(), 1);
+        Assert.assertEquals(Proxy.getCacheStats(service).getHitCount(), 7);
+        Assert.assertEquals(Proxy.getCacheStats(service).getSize(), 1);
+    }
+
+    @Test(timeOut = 5000)
+    public void reentrantCallsWhileLoadingInvokeTheMethod() throws Exception {
+        Service original = new Service();
+        Service service = Proxy.cache(original, CacheSpec.spec());
+        original.self = service;
+
+        Assert.assertEquals(service.reenter(3), 4);
+        Assert.assertEquals(service.reenter(3), 4);
+        Assert.assertEquals(original.invocations.get(), 2);
+    }
+
+    @Test
+    public void waitingCallsCanBeInterrupted() throws Exception {
+        Service original = new Service();
+        Service service = Proxy.cache(original, CacheSpec.spec());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> loading = executor.submit(() -> service.blockingSquare(7));
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            AtomicBoolean interrupted = new AtomicBoolean();
+            Thread waiting = new Thread(() -> {
+                try {
+                    service.blockingSquare(7);
+                } catch (Throwable t) {
+                    failure.set(t);
+                    interrupted.set(Thread.currentThread().isInterrupted());
+                }
+            });
+            waiting.start();
+            waitForWaits(service, 1);
+
+            waiting.interrupt();
+            waiting.join(5000);
+            Assert.assertTrue(failure.get() instanceof ProxyException, String.valueOf(failure.get()));
+            Assert.assertTrue(interrupted.get());
+            original.latch.countDown();
+            Assert.assertEquals(loading.get(5, TimeUnit.SECONDS).intValue(), 49);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void toStringIsNotCachedByDefault() throws Exception {
+        Service original = new Service();
+        Service service = Proxy.cache(original, CacheSpec.spec());
+
+        service.toString();
+        service.toString();
+
+        Assert.assertEquals(original.toStrings.get(), 2);
+        Assert.assertEquals(Proxy.getCacheStats(service).getMissCount(), 0);
+    }
+
+    @Test
+    public void fluentCacheMethodOnlyCachesTheGivenMethods() throws Exception {
+        Service original = new Service();
+        Service service = Proxy.with(original)
+                .cacheMethod(CacheSpec.spec(), Service.class.getMethod("square", int.class)).get();
+
+        service.square(2);
+        service.square(2);
+        service.sum(new int[] { 1 });
+        service.sum(new int[] { 1 });
+
+        Assert.assertEquals(original.invocations.get(), 3);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void statsOfProxyWithoutCacheAreRejected() throws Exception {
+        Proxy.getCacheStats(Proxy.intercept(new Service(), invocation -> invocation.invoke()));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void zeroMaximumSizeIsRejected() throws Exception {
+        CacheSpec.spec().maximumSize(0);
+    }
+
+    private static void waitForWaits(Object service, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (Proxy.getCacheStats(service).getWaitCount() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        Assert.assertEquals(Proxy.getCacheStats(service).getWaitCount(), expected);
+    }
+
+    public static class Service {
+
+        private final AtomicInteger invocations = new AtomicInteger();
+        private final AtomicInteger toStrings = new AtomicInteger();
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile Service self;
+
+        public int square(int value) {
+            invocations.incrementAndGet();
+            return value * value;
+        }
+
+        public int blockingSquare(int value) throws InterruptedException {
+            invocations.incrementAndGet();
+            latch.await();
+            return value * value;
+        }
+
+        public int reenter(int value) {
+            if (invocations.incrementAndGet() == 1) {
+                return self.reenter(value) + 1;
+            }
+            return value;
+        }
+
+        @Cached(expireAfterWriteMillis = 30)
+        public int expiring(int value) {
+            invocations.incrementAndGet();
+            return value;
+        }
+
+        public int sum(int[] values) {
+            invocations.incrementAndGet();
+            int sum = 0;
+            for (int value : values) {
+                sum += value;
+            }
+            return sum;
+        }
+
+        public String nothing(String value) {
+            invocations.incrementAndGet();
+            return null;
+        }
+
+        public void run() {
+            invocations.incrementAndGet();
+        }
+
+        @Override
+        public String toString() {
+            toStrings.incrementAndGet();
+            return "service";
+        }
+
+        public String fail(String value) {
+            invocations.incrementAndGet();
+            throw new IllegalStateException("failed");
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+public class CallTreeProfilerTest {
+
+    private static final String PARENT = Parent.class.getName() + ".";
+    private static final String CHILD = Child.class.getName() + ".";
+
+    @Test
+    public void callsBetweenProfiledObjectsAreNestedInTheTree() throws Exception {
+        CallTreeProfiler profiler = new CallTreeProfiler();
+        Child child = Proxy.profile(new Child(), profiler);
+        Parent parent = Proxy.profile(new Parent(child), profiler);
+        parent.work();
+        parent.work();
+        child.compute(1);
+
+        Map<String, Long> stacks = parseCollapsed(profiler.toCollapsedStacks());
+        assertTrue(stacks.containsKey(PARENT + "work;" + CHILD + "compute"), stacks.toString());
+        assertTrue(stacks.containsKey(CHILD + "compute"), stacks.toString());
+
+        String json = profiler.toJson();
+        assertTrue(json.startsWith("{\"name\":\"root\""), json);
+        assertTrue(json.contains("{\"name\":\"" + PARENT + "work\",\"count\":2,"), json);
+    }
+
+    @Test
+    public void callsOnReturnedObjectsAreProfiled() throws Exception {
+        CallTreeProfiler profiler = new CallTreeProfiler();
+        Parent parent = Proxy.profile(new Parent(new Child()), profiler);
+        parent.getChild().compute(1);
+
+        Map<String, Long> stacks = parseCollapsed(profiler.toCollapsedStacks());
+        assertTrue(stacks.containsKey(PARENT + "getChild"), stacks.toString());
+        assertTrue(stacks.containsKey(CHILD + "compute"), stacks.toString());
+    }
+
+    @Test
+    public void treesOfAllThreadsAreMerged() throws Exception {
+        CallTreeProfiler profiler = new CallTreeProfiler();
+        Child child = Proxy.profile(new Child(), profiler);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            pool.execute(() -> {
+                for (int j = 0; j < 100; j++) {
+                    child.compute(j);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertTrue(profiler.toJson().contains("{\"name\":\"" + CHILD + "compute\",\"count\":400,"), profiler.toJson());
+    }
+
+    @Test
+    public void treesOfEndedThreadsAreMergedAndDropped() throws Exception {
+        CallTreeProfiler profiler = new CallTreeProfiler();
+        Child child = Proxy.profile(new Child(), profiler);
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> child.compute(1));
+            thread.start();
+            thread.join();
+        }
+
+        assertTrue(profiler.toJson().contains("{\"name\":\"" + CHILD + "compute\",\"count\":4,"), profiler.toJson());
+        assertEquals(profiler.threadTreeCount(), 0);
+        child.compute(1);
+        assertTrue(profiler.toJson().contains("{\"name\":\"" + CHILD + "compute\",\"count\":5,"), profiler.toJson());
+    }
+
+    @Test
+    public void exclusiveTimeExcludesTheChildren() throws Exception {
+        CallTreeProfiler profiler = new CallTreeProfiler();
+        Parent parent = Proxy.profile(new Parent(Proxy.profile(new Child(), profiler)), profiler);
+        parent.sleepInChild();
+
+        Map<String, Long> stacks = parseCollapsed(profiler.toCollapsedStacks());
+        long childTime = stacks.get(PARENT + "sleepInChild;" + CHILD + "sleep");
+        assertTrue(childTime >= TimeUnit.MILLISECONDS.toNanos(20), stacks.toString());
+        long parentTime = stacks.getOrDefault(PARENT + "sleepInChild", 0L);
+        assertTrue(parentTime < childTime, stacks.toString());
+    }
+
+    @Test
+    public void resetDiscardsTheTree() throws Exception {
+        CallTreeProfiler profiler = new CallTreeProfiler();
+        Child child = Proxy.profile(new Child(), profiler);
+        child.compute(1);
+        profiler.reset();
+        child.sleep(1);
+
+        assertEquals(profiler.toCollapsedStacks().split("\n").length, 1);
+        assertTrue(profiler.toCollapsedStacks().startsWith(CHILD + "sleep "));
+    }
+
+    private static Map<String, Long> parseCollapsed(String collapsed) {
+        Map<String, Long> stacks = new HashMap<>();
+        for (String line : collapsed.split("\n")) {
+            int space = line.lastIndexOf(' ');
+            stacks.put(line.substring(0, space), Long.parseLong(line.substring(space + 1)));
+        }
+        return stacks;
+    }
+
+    public static class Parent {
+
+        private final Child child;
+
+        public Parent(Child child) {
+            this.child = child;
+        }
+
+        public Child getChild() {
+            return child;
+        }
+
+        public int work() {
+            return child.compute(1);
+        }
+
+        public void sleepInChild() throws InterruptedException {
+            child.sleep(20);
+        }
+    }
+
+    public static class Child {
+
+        public int compute(int value) {
+            return value * 2;
+        }
+
+        public void sleep(long millis) throws InterruptedException {
+            Thread.sleep(millis);
+        }
+    }
+}
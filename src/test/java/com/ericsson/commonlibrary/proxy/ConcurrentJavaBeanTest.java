@@ -0,0 +1,133 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import com.ericsson.commonlibrary.proxy.helpobjects.PersonBean;
+
+public class ConcurrentJavaBeanTest {
+
+    @Test
+    public void concurrentBeanBehavesLikeAJavaBean() throws Exception {
+        PersonBean person = Proxy.concurrentJavaBean(PersonBean.class);
+        assertNull(person.getName());
+        assertEquals(person.getAge(), 0);
+        person.setName("nisse");
+        person.setAge(20);
+        assertEquals(person.getName(), "nisse");
+        assertEquals(person.getAge(), 20);
+    }
+
+    @Test
+    public void updateIsInvisibleForOtherThreadsUntilDone() throws Exception {
+        PersonBean person = Proxy.concurrentJavaBean(PersonBean.class);
+        person.setName("before");
+        CountDownLatch updating = new CountDownLatch(1);
+        CountDownLatch checked = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> update = executor.submit(() -> Proxy.updateJavaBean(person, p -> {
+                p.setName("after");
+                p.setAge(42);
+                assertEquals(p.getName(), "after"); // the updating thread sees its own changes
+                updating.countDown();
+                await(checked);
+            }));
+            updating.await(10, TimeUnit.SECONDS);
+            assertEquals(person.getName(), "before");
+            assertEquals(person.getAge(), 0);
+            checked.countDown();
+            update.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(person.getName(), "after");
+        assertEquals(person.getAge(), 42);
+    }
+
+    @Test
+    public void failedUpdateIsNotPublished() throws Exception {
+        PersonBean person = Proxy.concurrentJavaBean(PersonBean.class);
+        person.setName("before");
+        try {
+            Proxy.updateJavaBean(person, p -> {
+                p.setName("after");
+                throw new IllegalStateException("failed");
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(person.getName(), "before");
+    }
+
+    @Test
+    public void noLostWritesFromManyThreads() throws Exception {
+        PersonBean person = Proxy.concurrentJavaBean(PersonBean.class);
+        person.setAge(0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 100; j++) {
+                        Proxy.updateJavaBean(person, p -> p.setAge(p.getAge() + 1));
+                        assertTrue(person.getAge() > 0);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(person.getAge(), 800);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void updateOfNonConcurrentBean() throws Exception {
+        Proxy.updateJavaBean(Proxy.javaBean(PersonBean.class), p -> p.setAge(1));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
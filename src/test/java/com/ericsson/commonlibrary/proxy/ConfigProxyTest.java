@@ -0,0 +1,161 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+public class ConfigProxyTest {
+
+    public interface ServerConfig {
+
+        int getPort();
+
+        String getHost();
+
+        boolean isEnabled();
+
+        List<Integer> retryDelays();
+
+        TimeUnit getUnit();
+
+        default int getTimeout() {
+            return 30;
+        }
+    }
+
+    @Test
+    public void valuesAreParsed() throws Exception {
+        ServerConfig config = Proxy.config(ServerConfig.class,
+                properties("port=8080", "host=localhost", "enabled=true", "retryDelays=1,2,3", "unit=SECONDS"));
+        assertEquals(config.getPort(), 8080);
+        assertEquals(config.getHost(), "localhost");
+        assertTrue(config.isEnabled());
+        assertEquals(config.retryDelays(), Arrays.asList(1, 2, 3));
+        assertEquals(config.getUnit(), TimeUnit.SECONDS);
+        assertEquals(config.getTimeout(), 30);
+    }
+
+    @Test
+    public void missingValuesDefaults() throws Exception {
+        ServerConfig config = Proxy.config(ServerConfig.class, properties("port=1", "enabled=false", "timeout=5"));
+        assertNull(config.getHost());
+        assertTrue(config.retryDelays().isEmpty());
+        assertEquals(config.getTimeout(), 5);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void valuesAreImmutable() throws Exception {
+        ServerConfig config = Proxy.config(ServerConfig.class, properties("port=1", "enabled=true", "retryDelays=1"));
+        config.retryDelays().add(2);
+    }
+
+    @Test(expectedExceptions = ProxyException.class, expectedExceptionsMessageRegExp = ".*port.*")
+    public void missingPrimitiveValue() throws Exception {
+        Proxy.config(ServerConfig.class, properties("enabled=true"));
+    }
+
+    @Test(expectedExceptions = ProxyException.class, expectedExceptionsMessageRegExp = ".*port.*")
+    public void invalidValue() throws Exception {
+        Proxy.config(ServerConfig.class, properties("port=80x", "enabled=true"));
+    }
+
+    @Test
+    public void invalidReloadKeepsTheOldValues() throws Exception {
+        InterceptorConfig interceptor = new InterceptorConfig(ServerConfig.class, properties("port=1", "enabled=true"));
+        try {
+            interceptor.reload(properties("port=x", "enabled=true"));
+        } catch (ProxyException e) {
+            // expected
+        }
+        ServerConfig config = Proxy.intercept(ServerConfig.class, interceptor);
+        assertEquals(config.getPort(), 1);
+    }
+
+    @Test
+    public void modifiedFileIsReloaded() throws Exception {
+        Path file = Files.createTempFile("config", ".properties");
+        try {
+            write(file, "port=1", "enabled=true");
+            ServerConfig config = Proxy.config(ServerConfig.class, file);
+            assertEquals(config.getPort(), 1);
+
+            write(file, "port=2", "enabled=false");
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+            while (config.getPort() != 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(config.getPort(), 2);
+            assertFalse(config.isEnabled());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void watchingCanBeStopped() throws Exception {
+        Path file = Files.createTempFile("config", ".properties");
+        try {
+            write(file, "port=1", "enabled=true");
+            ServerConfig config = Proxy.config(ServerConfig.class, file);
+            String watcherName = "proxy-config-watcher-" + file.getFileName();
+            assertTrue(isThreadAlive(watcherName));
+
+            assertTrue(Proxy.stopWatchingConfig(config));
+            assertFalse(isThreadAlive(watcherName));
+            assertFalse(Proxy.stopWatchingConfig(config));
+            assertEquals(config.getPort(), 1);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static boolean isThreadAlive(String name) {
+        return Thread.getAllStackTraces().keySet().stream().anyMatch(thread -> thread.getName().equals(name));
+    }
+
+    private static Properties properties(String... keyValues) {
+        Properties properties = new Properties();
+        for (String keyValue : keyValues) {
+            String[] split = keyValue.split("=");
+            properties.setProperty(split[0], split[1]);
+        }
+        return properties;
+    }
+
+    private static void write(Path file, String... lines) throws IOException {
+        Files.write(file, Arrays.asList(lines), StandardCharsets.ISO_8859_1);
+    }
+}
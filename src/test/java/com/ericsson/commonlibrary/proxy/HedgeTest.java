@@ -0,0 +1,183 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class HedgeTest {
+
+    @Test
+    public void fastPrimaryIsNotHedged() throws Exception {
+        Replica primary = new Replica("primary", 0);
+        Replica alternate = new Replica("alternate", 0);
+        Backend backend = Proxy.hedge(Backend.class, HedgeSpec.hedgeAfter(1, TimeUnit.SECONDS), primary, alternate);
+
+        Assert.assertEquals(backend.get("key"), "primary-key");
+
+        HedgeStats stats = Proxy.getHedgeStats(backend);
+        Assert.assertEquals(stats.getCallCount(), 1);
+        Assert.assertEquals(stats.getHedgedCount(), 0);
+        Assert.assertEquals(alternate.calls.get(), 0);
+    }
+
+    @Test
+    public void slowPrimaryIsHedgedAndCancelled() throws Exception {
+        Replica primary = new Replica("primary", 5000);
+        Replica alternate = new Replica("alternate", 0);
+        Backend backend = Proxy.hedge(Backend.class, HedgeSpec.hedgeAfter(20, TimeUnit.MILLISECONDS), primary,
+                alternate);
+
+        long start = System.nanoTime();
+        Assert.assertEquals(backend.get("key"), "alternate-key");
+
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(4));
+        Assert.assertTrue(primary.interrupted.await(5, TimeUnit.SECONDS));
+        HedgeStats stats = Proxy.getHedgeStats(backend);
+        Assert.assertEquals(stats.getHedgedCount(), 1);
+        Assert.assertEquals(stats.getHedgeWinCount(), 1);
+        Assert.assertEquals(stats.getHedgeRate(), 1.0);
+        Assert.assertEquals(stats.getWinRate(), 1.0);
+    }
+
+    @Test
+    public void primaryWinsIfTheHedgeFails() throws Exception {
+        Replica primary = new Replica("primary", 100);
+        Replica alternate = new Replica("alternate", 0);
+        alternate.fail = true;
+        Backend backend = Proxy.hedge(Backend.class, HedgeSpec.hedgeAfter(10, TimeUnit.MILLISECONDS), primary,
+                alternate);
+
+        Assert.assertEquals(backend.get("key"), "primary-key");
+
+        HedgeStats stats = Proxy.getHedgeStats(backend);
+        Assert.assertEquals(stats.getHedgedCount(), 1);
+        Assert.assertEquals(stats.getHedgeWinCount(), 0);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void fastFailureIsThrownWithoutHedging() throws Exception {
+        Replica primary = new Replica("primary", 0);
+        primary.fail = true;
+        Replica alternate = new Replica("alternate", 0);
+        Backend backend = Proxy.hedge(Backend.class, HedgeSpec.hedgeAfter(1, TimeUnit.SECONDS), primary, alternate);
+
+        try {
+            backend.get("key");
+        } finally {
+            Assert.assertEquals(alternate.calls.get(), 0);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void failureOfBothIsThrown() throws Exception {
+        Replica primary = new Replica("primary", 50);
+        primary.fail = true;
+        Replica alternate = new Replica("alternate", 0);
+        alternate.fail = true;
+        Backend backend = Proxy.hedge(Backend.class, HedgeSpec.hedgeAfter(10, TimeUnit.MILLISECONDS), primary,
+                alternate);
+
+        backend.get("key");
+    }
+
+    @Test
+    public void delayFollowsTheObservedPercentile() throws Exception {
+        Replica primary = new Replica("primary", 0);
+        Replica alternate = new Replica("alternate", 0);
+        Backend backend = Proxy.hedge(Backend.class, HedgeSpec.hedgeAfterPercentile(95, 1, TimeUnit.HOURS), primary,
+                alternate);
+
+        for (int i = 0; i < HedgeSpec.MIN_SAMPLES; i++) {
+            backend.get("key");
+        }
+        Assert.assertEquals(Proxy.getHedgeStats(backend).getHedgedCount(), 0);
+
+        primary.delayMillis = 5000;
+        Assert.assertEquals(backend.get("key"), "alternate-key");
+        Assert.assertEquals(Proxy.getHedgeStats(backend).getHedgedCount(), 1);
+    }
+
+    @Test
+    public void onlySelectedMethodsAreHedged() throws Exception {
+        Replica primary = new Replica("primary", 0);
+        Replica alternate = new Replica("alternate", 0);
+        Backend backend = Proxy.hedge(Backend.class,
+                HedgeSpec.hedgeAfter(0, TimeUnit.MILLISECONDS).methods(Backend.class.getMethod("get", String.class)),
+                primary, alternate);
+
+        Assert.assertEquals(backend.name(), "primary");
+
+        Assert.assertEquals(Proxy.getHedgeStats(backend).getCallCount(), 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void oneDelegateIsRejected() throws Exception {
+        Proxy.hedge(Backend.class, HedgeSpec.hedgeAfter(1, TimeUnit.SECONDS), new Replica("primary", 0));
+    }
+
+    public interface Backend {
+
+        String get(String key);
+
+        String name();
+    }
+
+    public static class Replica implements Backend {
+
+        private final String name;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+        private volatile long delayMillis;
+        private volatile boolean fail;
+
+        Replica(String name, long delayMillis) {
+            this.name = name;
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public String get(String key) {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted", e);
+            }
+            if (fail) {
+                throw new IllegalStateException(name + " failed");
+            }
+            return name + "-" + key;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+    }
+}
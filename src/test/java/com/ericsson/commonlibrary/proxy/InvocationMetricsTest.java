@@ -0,0 +1,160 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+public class InvocationMetricsTest {
+
+    @Test
+    public void invocationsAreCountedPerMethod() throws Exception {
+        InvocationMetrics metrics = new InvocationMetrics();
+        Service service = Proxy.addMetricsToMethods(new Service(), metrics);
+        service.work(1);
+        service.work(2);
+        service.other();
+
+        Map<String, MethodMetricsSnapshot> snapshot = metrics.snapshot();
+        assertEquals(snapshot.get(Service.class.getName() + ".work(int)").getCount(), 2);
+        assertEquals(snapshot.get(Service.class.getName() + ".other()").getCount(), 1);
+    }
+
+    @Test
+    public void equallyNamedClassesAreKeptApart() throws Exception {
+        InvocationMetrics metrics = new InvocationMetrics();
+        Proxy.addMetricsToMethods(new Service(), metrics).other();
+        Proxy.addMetricsToMethods(new Other.Service(), metrics).other();
+
+        Map<String, MethodMetricsSnapshot> snapshot = metrics.snapshot();
+        assertEquals(snapshot.size(), 2);
+        assertEquals(snapshot.get(Service.class.getName() + ".other()").getCount(), 1);
+        assertEquals(snapshot.get(Other.Service.class.getName() + ".other()").getCount(), 1);
+    }
+
+    @Test
+    public void errorsAreCounted() throws Exception {
+        InvocationMetrics metrics = new InvocationMetrics();
+        Service service = Proxy.addMetricsToMethods(new Service(), metrics);
+        try {
+            service.fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        MethodMetricsSnapshot snapshot = metrics.snapshot().get(Service.class.getName() + ".fail()");
+        assertEquals(snapshot.getCount(), 1);
+        assertEquals(snapshot.getErrorCount(), 1);
+    }
+
+    @Test
+    public void percentilesAndMaxReflectTheLatencies() throws Exception {
+        InvocationMetrics metrics = new InvocationMetrics();
+        Service service = Proxy.addMetricsToMethods(new Service(), metrics);
+        service.sleep(20);
+
+        MethodMetricsSnapshot snapshot = metrics.snapshot().get(Service.class.getName() + ".sleep(long)");
+        long twentyMs = TimeUnit.MILLISECONDS.toNanos(20);
+        assertTrue(snapshot.getMaxNanos() >= twentyMs);
+        assertEquals(snapshot.getPercentileNanos(50), snapshot.getMaxNanos());
+        assertTrue(snapshot.getMeanNanos() >= twentyMs);
+    }
+
+    @Test
+    public void concurrentRecordingIsNotLost() throws Exception {
+        InvocationMetrics metrics = new InvocationMetrics();
+        Service service = Proxy.addMetricsToMethods(new Service(), metrics);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            pool.execute(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    service.work(j);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(metrics.snapshot().get(Service.class.getName() + ".work(int)").getCount(), 4000);
+    }
+
+    @Test
+    public void resetClearsTheStatistics() throws Exception {
+        InvocationMetrics metrics = new InvocationMetrics();
+        Service service = Proxy.addMetricsToMethods(new Service(), metrics);
+        service.other();
+        metrics.reset();
+
+        assertEquals(metrics.snapshot().get(Service.class.getName() + ".other()").getCount(), 0);
+    }
+
+    @Test
+    public void histogramBucketsAreWithinTheRelativeError() throws Exception {
+        for (long value = 1; value < TimeUnit.MINUTES.toNanos(10); value = value * 3 + 1) {
+            long upperBound = LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(value));
+            assertTrue(upperBound >= value, "value " + value);
+            assertTrue(upperBound - value <= value / 16, "value " + value + " upper bound " + upperBound);
+        }
+        assertEquals(LatencyHistogram.bucketIndex(Long.MAX_VALUE), LatencyHistogram.BUCKETS - 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void invalidPercentileIsRejected() throws Exception {
+        InvocationMetrics metrics = new InvocationMetrics();
+        Proxy.addMetricsToMethods(new Service(), metrics).other();
+        metrics.snapshot().get(Service.class.getName() + ".other()").getPercentileNanos(101);
+    }
+
+    public static class Service {
+
+        public int work(int value) {
+            return value * 2;
+        }
+
+        public void other() {
+        }
+
+        public void fail() {
+            throw new IllegalStateException("fail");
+        }
+
+        public void sleep(long millis) throws InterruptedException {
+            Thread.sleep(millis);
+        }
+    }
+
+    public static class Other {
+
+        public static class Service {
+
+            public void other() {
+            }
+        }
+    }
+}
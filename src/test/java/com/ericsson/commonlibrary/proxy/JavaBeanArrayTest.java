@@ -0,0 +1,102 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+import com.ericsson.commonlibrary.proxy.JavaBeanArray.IntColumn;
+import com.ericsson.commonlibrary.proxy.helpobjects.PersonBean;
+import com.ericsson.commonlibrary.proxy.helpobjects.PersonBeanAbstract;
+
+public class JavaBeanArrayTest {
+
+    @Test
+    public void cursorReadsAndWritesColumns() throws Exception {
+        JavaBeanArray<PersonBean> persons = Proxy.javaBeanArray(PersonBean.class, 10);
+        PersonBean first = persons.add();
+        first.setName("nisse");
+        first.setAge(20);
+        persons.add().setAge(30);
+
+        assertEquals(persons.size(), 2);
+        assertEquals(persons.get(0).getName(), "nisse");
+        assertEquals(persons.get(0).getAge(), 20);
+        assertNull(persons.get(1).getName());
+        assertEquals(persons.get(1).getAge(), 30);
+        assertFalse(persons.get(1).isMale());
+        assertNull(persons.get(1).getAgeInteger());
+    }
+
+    @Test
+    public void intColumnBulkOperations() throws Exception {
+        JavaBeanArray<PersonBean> persons = Proxy.javaBeanArray(PersonBean.class, 100);
+        for (int i = 0; i < 100; i++) {
+            persons.add().setAge(i);
+        }
+        IntColumn ages = persons.intColumn("age");
+        assertEquals(ages.sum(), 4950);
+        assertEquals(ages.get(42), 42);
+
+        ages.set(42, 1000);
+        assertEquals(persons.get(42).getAge(), 1000);
+        assertEquals(ages.array()[42], 1000);
+    }
+
+    @Test
+    public void abstractClassBean() throws Exception {
+        JavaBeanArray<PersonBeanAbstract> persons = Proxy.javaBeanArray(PersonBeanAbstract.class, 2);
+        persons.add().setMale(true);
+        persons.add().setName("kalle");
+        assertTrue(persons.get(0).isMale());
+        assertEquals(persons.get(1).getName(), "kalle");
+        assertTrue(persons.propertyNames().contains("Name"));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void addMoreThanCapacity() throws Exception {
+        JavaBeanArray<PersonBean> persons = Proxy.javaBeanArray(PersonBean.class, 1);
+        persons.add();
+        persons.add();
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void getOutsideOfSize() throws Exception {
+        JavaBeanArray<PersonBean> persons = Proxy.javaBeanArray(PersonBean.class, 10);
+        persons.add();
+        persons.get(1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void wrongColumnType() throws Exception {
+        Proxy.javaBeanArray(PersonBean.class, 10).doubleColumn("age");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void normalClassIsNotAllowed() throws Exception {
+        Proxy.javaBeanArray(String.class, 10);
+    }
+}
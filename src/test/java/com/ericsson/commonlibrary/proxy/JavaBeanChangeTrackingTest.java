@@ -0,0 +1,163 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.testng.annotations.Test;
+
+import com.ericsson.commonlibrary.proxy.helpobjects.PersonBean;
+import com.ericsson.commonlibrary.proxy.helpobjects.PersonBeanAbstract;
+
+public class JavaBeanChangeTrackingTest {
+
+    @Test
+    public void changedPropertiesAreTracked() throws Exception {
+        PersonBean person = Proxy.javaBeanWithChangeTracking(PersonBean.class);
+        JavaBeanChangeTracker tracker = Proxy.getChangeTracker(person);
+        assertTrue(tracker.changedProperties().isEmpty());
+
+        person.setAge(20);
+        person.setName("nisse");
+        person.setName("elis");
+
+        assertEquals(tracker.changedProperties(), new LinkedHashSet<>(Arrays.asList("Name", "Age")));
+        Map<String, Object> changes = tracker.drainChanges();
+        assertEquals(changes.get("Name"), "elis");
+        assertEquals(changes.get("Age"), 20);
+        assertEquals(changes.size(), 2);
+
+        assertTrue(tracker.changedProperties().isEmpty());
+        assertTrue(tracker.drainChanges().isEmpty());
+        assertEquals(person.getName(), "elis");
+    }
+
+    @Test
+    public void settingSameValueIsNotAChange() throws Exception {
+        PersonBeanAbstract person = Proxy.javaBeanWithChangeTracking(PersonBeanAbstract.class);
+        JavaBeanChangeTracker tracker = Proxy.getChangeTracker(person);
+        person.setName("nisse");
+        tracker.drainChanges();
+
+        person.setName("nisse");
+        assertTrue(tracker.changedProperties().isEmpty());
+    }
+
+    @Test
+    public void listenerGetsBatchedChanges() throws Exception {
+        PersonBean person = Proxy.javaBeanWithChangeTracking(PersonBean.class);
+        JavaBeanChangeTracker tracker = Proxy.getChangeTracker(person);
+        List<Map<String, Object>> batches = new ArrayList<>();
+        tracker.setChangeListener(batches::add, 3);
+
+        person.setName("nisse");
+        person.setAddress("street");
+        person.setName("elis"); // same property again, still two modified properties
+        assertTrue(batches.isEmpty());
+
+        person.setMale(true);
+        assertEquals(batches.size(), 1);
+        assertEquals(batches.get(0).keySet(), new LinkedHashSet<>(Arrays.asList("Name", "Address", "Male")));
+        assertEquals(batches.get(0).get("Name"), "elis");
+        assertTrue(tracker.changedProperties().isEmpty());
+
+        person.setAge(1);
+        assertEquals(batches.size(), 1);
+        tracker.drainChanges();
+        tracker.drainChanges(); // nothing changed, no new batch
+        assertEquals(batches.size(), 2);
+        assertEquals(batches.get(1).keySet(), new LinkedHashSet<>(Arrays.asList("Age")));
+    }
+
+    @Test
+    public void batchSizeOneDeliversEveryChange() throws Exception {
+        PersonBean person = Proxy.javaBeanWithChangeTracking(PersonBean.class);
+        List<Map<String, Object>> batches = new ArrayList<>();
+        Proxy.getChangeTracker(person).setChangeListener(batches::add, 1);
+
+        person.setName("nisse");
+        person.setName("nisse");
+        person.setAge(2);
+
+        assertEquals(batches.size(), 2);
+        assertEquals(batches.get(1).get("Age"), 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void batchSizeLargerThanThePropertiesIsRejected() throws Exception {
+        Proxy.getChangeTracker(Proxy.javaBeanWithChangeTracking(PersonBean.class)).setChangeListener(c -> {
+        }, 100);
+    }
+
+    @Test
+    public void concurrentBeanListenerRunsOutsideOfTheWriteLock() throws Exception {
+        PersonBean person = InterceptableProxyFactory.createANewInterfaceJavaBeanProxy(PersonBean.class);
+        ((InterceptableProxy) person).addInterceptor(new InterceptorJavaBean(person.getClass(), false, true, true));
+        List<Map<String, Object>> batches = new CopyOnWriteArrayList<>();
+        Proxy.getChangeTracker(person).setChangeListener(changes -> {
+            batches.add(changes);
+            if (changes.containsKey("Name")) { // another thread writes the bean while the listener waits for it.
+                Thread writer = new Thread(() -> person.setAddress("street"));
+                writer.start();
+                try {
+                    writer.join(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, 1);
+
+        Proxy.updateJavaBean(person, p -> p.setName("nisse"));
+
+        assertEquals(person.getAddress(), "street");
+        assertEquals(batches.size(), 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void batchSizeMustBePositive() throws Exception {
+        Proxy.getChangeTracker(Proxy.javaBeanWithChangeTracking(PersonBean.class)).setChangeListener(c -> {
+        }, 0);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void primitiveDefaultIsException() throws Exception {
+        PersonBean person = Proxy.javaBeanWithChangeTracking(PersonBean.class, true);
+        person.setName("nisse");
+        assertEquals(Proxy.getChangeTracker(person).changedProperties(), Collections.singleton("Name"));
+
+        person.getAge();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void javaBeanWithoutTracking() throws Exception {
+        Proxy.getChangeTracker(Proxy.javaBean(PersonBean.class));
+    }
+}
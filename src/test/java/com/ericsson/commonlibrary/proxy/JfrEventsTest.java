@@ -0,0 +1,124 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class JfrEventsTest {
+
+    private static final String EVENT_NAME = "com.ericsson.commonlibrary.proxy.Invocation";
+
+    @Test
+    public void onlyCallsSlowerThanTheThresholdAreRecorded() throws Exception {
+        Service service = Proxy.addJfrEventsToMethods(new Service(), 20, TimeUnit.MILLISECONDS);
+
+        List<RecordedEvent> events = record(() -> {
+            service.fast();
+            service.slow();
+        });
+
+        Assert.assertEquals(events.size(), 1);
+        RecordedEvent event = events.get(0);
+        Assert.assertEquals(event.getString("className"), Service.class.getName());
+        Assert.assertEquals(event.getString("method"), "slow");
+        Assert.assertNull(event.getString("exceptionType"));
+        Assert.assertTrue(event.getDuration().toMillis() >= 20);
+    }
+
+    @Test
+    public void thrownExceptionTypeIsRecorded() throws Exception {
+        Service service = Proxy.addJfrEventsToMethods(new Service());
+
+        List<RecordedEvent> events = record(() -> {
+            try {
+                service.fail();
+                Assert.fail("expected exception");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        });
+
+        Assert.assertEquals(events.size(), 1);
+        Assert.assertEquals(events.get(0).getString("method"), "fail");
+        Assert.assertEquals(events.get(0).getString("exceptionType"), IllegalStateException.class.getName());
+    }
+
+    @Test
+    public void callsWorkWithoutRecording() throws Exception {
+        Service service = Proxy.addJfrEventsToMethods(new Service());
+
+        Assert.assertEquals(service.fast(), "fast");
+        Assert.assertTrue(InterceptorJfr.isSupported());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void negativeThresholdIsRejected() throws Exception {
+        Proxy.addJfrEventsToMethods(new Service(), -1, TimeUnit.MILLISECONDS);
+    }
+
+    private static List<RecordedEvent> record(Runnable calls) throws Exception {
+        Path file = Files.createTempFile("proxy", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(EVENT_NAME).withThreshold(Duration.ZERO);
+            recording.start();
+            calls.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals(EVENT_NAME)).collect(Collectors.toList());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public static class Service {
+
+        public String fast() {
+            return "fast";
+        }
+
+        public String slow() {
+            try {
+                Thread.sleep(30);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "slow";
+        }
+
+        public String fail() {
+            throw new IllegalStateException("failed");
+        }
+    }
+}
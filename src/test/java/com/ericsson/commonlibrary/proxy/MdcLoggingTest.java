@@ -0,0 +1,196 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.MDC;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+public class MdcLoggingTest {
+
+    @AfterMethod
+    public void clearMdc() {
+        MDC.clear();
+    }
+
+    @Test
+    public void allKeysAreSetInsideAndRestoredAfter() throws Exception {
+        MDC.put("id", "outer");
+        Service service = Proxy.mdcLogging(new Service(), context("id", "inner", "instance", "1"));
+
+        assertEquals(service.mdc("id"), "inner");
+        assertEquals(service.mdc("instance"), "1");
+        assertEquals(MDC.get("id"), "outer");
+        assertNull(MDC.get("instance"));
+    }
+
+    @Test
+    public void nestedCallsRestoreTheirOwnValues() throws Exception {
+        Service inner = Proxy.mdcLogging(new Service(), context("id", "inner", "instance", "2"));
+        Service outer = Proxy.mdcLogging(new Service(inner), context("id", "outer", "instance", "1"));
+
+        assertEquals(outer.innerMdc("id"), "inner");
+        assertEquals(outer.innerMdc("instance"), "2");
+        assertEquals(outer.mdc("id"), "outer");
+        assertNull(MDC.get("id"));
+    }
+
+    @Test
+    public void sameValueAsBeforeIsKept() throws Exception {
+        MDC.put("id", "same");
+        Service service = Proxy.mdcLogging(new Service(), context("id", "same"));
+
+        assertEquals(service.mdc("id"), "same");
+        assertEquals(MDC.get("id"), "same");
+    }
+
+    @Test
+    public void sameValueIsRestoredWhenTheMethodChangesIt() throws Exception {
+        MDC.put("id", "same");
+        Service service = Proxy.mdcLogging(new Service(), context("id", "same"));
+
+        assertEquals(service.putMdc("id", "changed"), "same");
+        assertEquals(MDC.get("id"), "same");
+    }
+
+    @Test
+    public void returnedObjectsGetTheContext() throws Exception {
+        Service service = Proxy.mdcLogging(new Service(new Service()), context("id", "1", "instance", "2"));
+
+        Service child = service.getInner();
+        assertEquals(child.mdc("instance"), "2");
+        assertNull(MDC.get("instance"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void emptyContextIsRejected() throws Exception {
+        Proxy.mdcLogging(new Service(), new LinkedHashMap<>());
+    }
+
+    @Test
+    public void executorParametersPropagateTheContext() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Service service = Proxy.mdcLogging(new Service(), context("id", "1"));
+
+            assertEquals(service.mdcAsync("id", pool).get(5, TimeUnit.SECONDS), "1");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void returnedFuturesPropagateTheContextToContinuations() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Service original = new Service();
+            Service service = Proxy.mdcLogging(original, context("id", "1"));
+            CompletableFuture<String> future = service.future();
+            CompletableFuture<String> continuation = future.thenApplyAsync(value -> value + MDC.get("id"), pool);
+
+            pool.execute(() -> original.future().complete("value"));
+            assertEquals(continuation.get(5, TimeUnit.SECONDS), "value1");
+            assertNull(MDC.get("id"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void returnedExecutorsPropagateTheContext() throws Exception {
+        Service service = Proxy.mdcLogging(new Service(), context("id", "1"));
+        ExecutorService executor = service.executor();
+        try {
+            MDC.put("request", "2");
+            Future<String> future = executor.submit(() -> MDC.get("request") + MDC.get("id"));
+
+            assertEquals(future.get(5, TimeUnit.SECONDS), "21");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static Map<String, String> context(String... keyValues) {
+        Map<String, String> context = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            context.put(keyValues[i], keyValues[i + 1]);
+        }
+        return context;
+    }
+
+    public static class Service {
+
+        private final Service inner;
+        private final CompletableFuture<String> rawFuture = new CompletableFuture<>();
+
+        public Service() {
+            this(null);
+        }
+
+        public Service(Service inner) {
+            this.inner = inner;
+        }
+
+        public String mdc(String key) {
+            return MDC.get(key);
+        }
+
+        public String putMdc(String key, String value) {
+            String previous = MDC.get(key);
+            MDC.put(key, value);
+            return previous;
+        }
+
+        public String innerMdc(String key) {
+            return inner.mdc(key);
+        }
+
+        public Service getInner() {
+            return inner;
+        }
+
+        public CompletableFuture<String> mdcAsync(String key, Executor executor) {
+            MDC.remove(key);
+            return CompletableFuture.supplyAsync(() -> MDC.get(key), executor);
+        }
+
+        public CompletableFuture<String> future() {
+            return rawFuture;
+        }
+
+        public ExecutorService executor() {
+            return Executors.newSingleThreadExecutor();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ProxyOverheadTest {
+
+    private static final long SLEEP_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @BeforeMethod
+    public void enable() {
+        ProxyOverhead.reset();
+        ProxyOverhead.enable();
+    }
+
+    @AfterMethod
+    public void disable() {
+        ProxyOverhead.disable();
+        ProxyOverhead.reset();
+    }
+
+    @Test
+    public void timeIsSplitBetweenInterceptorsAndTarget() throws Exception {
+        Service service = Proxy.intercept(Proxy.intercept(new Service(), new SlowInterceptor()),
+                new PassThroughInterceptor());
+
+        service.slow();
+
+        ProxyOverheadSnapshot snapshot = ProxyOverhead.snapshot();
+        Assert.assertEquals(snapshot.getCalls(), 1);
+        Assert.assertTrue(snapshot.getTargetNanos() >= SLEEP_NANOS, snapshot.toString());
+
+        ProxyOverheadSnapshot.InterceptorOverhead slow = snapshot.getInterceptors()
+                .get(SlowInterceptor.class.getName());
+        Assert.assertEquals(slow.getCalls(), 1);
+        Assert.assertTrue(slow.getSelfNanos() >= SLEEP_NANOS, snapshot.toString());
+
+        ProxyOverheadSnapshot.InterceptorOverhead passThrough = snapshot.getInterceptors()
+                .get(PassThroughInterceptor.class.getName());
+        Assert.assertEquals(passThrough.getCalls(), 1);
+        Assert.assertTrue(passThrough.getSelfNanos() < SLEEP_NANOS, snapshot.toString());
+        Assert.assertTrue(snapshot.getOverheadNanos() >= slow.getSelfNanos());
+    }
+
+    @Test
+    public void delegatedCallsAreTargetTime() throws Exception {
+        Service service = Proxy.delegate(Service.class, new Service());
+
+        service.slow();
+
+        ProxyOverheadSnapshot snapshot = ProxyOverhead.snapshot();
+        Assert.assertTrue(snapshot.getTargetNanos() >= SLEEP_NANOS, snapshot.toString());
+        Assert.assertTrue(
+                snapshot.getInterceptors().get(InterceptorDelegator.class.getName()).getSelfNanos() < SLEEP_NANOS,
+                snapshot.toString());
+    }
+
+    @Test
+    public void statisticsAreKeptPerProxiedClass() throws Exception {
+        Proxy.intercept(new Service(), new PassThroughInterceptor()).fast();
+        Proxy.intercept(new Other(), new PassThroughInterceptor()).fast();
+        Proxy.intercept(new Other(), new PassThroughInterceptor()).fast();
+
+        Assert.assertEquals(ProxyOverhead.snapshot(Service.class).getCalls(), 1);
+        Assert.assertEquals(ProxyOverhead.snapshot(Other.class).getCalls(), 2);
+        Assert.assertEquals(ProxyOverhead.snapshot(Other.class).getInterceptors()
+                .get(PassThroughInterceptor.class.getName()).getCalls(), 2);
+        Assert.assertEquals(ProxyOverhead.snapshot().getCalls(), 3);
+        Assert.assertEquals(ProxyOverhead.snapshot(String.class).getCalls(), 0);
+    }
+
+    @Test
+    public void callsContinuedOnOtherThreadsAreNotMeasured() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Service original = new Service();
+            Service service = Proxy.intercept(Proxy.async(original, executor), new PassThroughInterceptor());
+
+            service.slowVoid();
+            Assert.assertTrue(original.done.await(5, TimeUnit.SECONDS));
+
+            ProxyOverheadSnapshot snapshot = ProxyOverhead.snapshot(Service.class);
+            Assert.assertEquals(snapshot.getCalls(), 1);
+            Assert.assertEquals(snapshot.getTargetNanos(), 0, snapshot.toString());
+            Assert.assertTrue(snapshot.getDispatchNanos() >= 0, snapshot.toString());
+            Assert.assertTrue(snapshot.getOverheadNanos() < SLEEP_NANOS, snapshot.toString());
+            Assert.assertFalse(snapshot.getInterceptors().containsKey(InterceptorDelegator.class.getName()),
+                    snapshot.toString());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void nothingIsMeasuredWhenDisabled() throws Exception {
+        ProxyOverhead.disable();
+        Service service = Proxy.intercept(new Service(), new PassThroughInterceptor());
+
+        service.fast();
+
+        ProxyOverheadSnapshot snapshot = ProxyOverhead.snapshot();
+        Assert.assertEquals(snapshot.getCalls(), 0);
+        Assert.assertTrue(snapshot.getInterceptors().isEmpty());
+    }
+
+    @Test
+    public void resetClearsTheStatistics() throws Exception {
+        Service service = Proxy.intercept(new Service(), new PassThroughInterceptor());
+        service.fast();
+        Assert.assertEquals(ProxyOverhead.snapshot().getCalls(), 1);
+
+        ProxyOverhead.reset();
+
+        Assert.assertEquals(ProxyOverhead.snapshot().getCalls(), 0);
+        Assert.assertEquals(ProxyOverhead.snapshot().getTargetNanos(), 0);
+    }
+
+    static final class SlowInterceptor implements Interceptor {
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            TimeUnit.NANOSECONDS.sleep(SLEEP_NANOS);
+            return invocation.invoke();
+        }
+    }
+
+    static final class PassThroughInterceptor implements Interceptor {
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            return invocation.invoke();
+        }
+    }
+
+    public static class Service {
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        public String fast() {
+            return "fast";
+        }
+
+        public String slow() throws InterruptedException {
+            TimeUnit.NANOSECONDS.sleep(SLEEP_NANOS);
+            return "slow";
+        }
+
+        public void slowVoid() throws InterruptedException {
+            TimeUnit.NANOSECONDS.sleep(SLEEP_NANOS);
+            done.countDown();
+        }
+    }
+
+    public static class Other {
+
+        public String fast() {
+            return "fast";
+        }
+    }
+}
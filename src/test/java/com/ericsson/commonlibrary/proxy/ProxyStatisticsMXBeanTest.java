@@ -0,0 +1,166 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.testng.annotations.Test;
+
+public class ProxyStatisticsMXBeanTest {
+
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+    @Test
+    public void statisticsArePublishedPerProxiedClass() throws Exception {
+        InvocationMetrics metrics = new InvocationMetrics();
+        metrics.registerMBeans();
+        try {
+            Service service = Proxy.addMetricsToMethods(new Service(), metrics);
+            service.work();
+            service.work();
+            ObjectName name = findMBean(Service.class);
+
+            assertEquals(server.getAttribute(name, "ProxiedClass"), Service.class.getName());
+            assertEquals(server.getAttribute(name, "TotalCount"), 2L);
+            assertEquals(server.getAttribute(name, "TotalErrorCount"), 0L);
+            CompositeData[] methods = (CompositeData[]) server.getAttribute(name, "Methods");
+            assertEquals(methods.length, 1);
+            assertEquals(methods[0].get("method"), Service.class.getName() + ".work()");
+            assertEquals(methods[0].get("count"), 2L);
+            List<String> interceptors = Arrays.asList((String[]) server.getAttribute(name, "Interceptors"));
+            assertTrue(interceptors.contains("InterceptorMetrics"), interceptors.toString());
+        } finally {
+            metrics.unregisterMBeans();
+        }
+    }
+
+    @Test
+    public void classesProxiedBeforeRegistrationArePublished() throws Exception {
+        InvocationMetrics metrics = new InvocationMetrics();
+        Proxy.addMetricsToMethods(new Service(), metrics).work();
+        metrics.registerMBeans();
+        try {
+            assertEquals(server.getAttribute(findMBean(Service.class), "TotalCount"), 1L);
+        } finally {
+            metrics.unregisterMBeans();
+        }
+    }
+
+    @Test
+    public void inFlightCallsAreVisible() throws Exception {
+        InvocationMetrics metrics = new InvocationMetrics();
+        metrics.registerMBeans();
+        Service original = new Service();
+        Service service = Proxy.addMetricsToMethods(original, metrics);
+        Thread thread = new Thread(service::block);
+        try {
+            thread.start();
+            assertTrue(original.started.await(5, TimeUnit.SECONDS));
+
+            assertEquals(server.getAttribute(findMBean(Service.class), "InFlight"), 1L);
+        } finally {
+            original.release.countDown();
+            thread.join();
+            metrics.unregisterMBeans();
+        }
+    }
+
+    @Test
+    public void overheadIsPublishedPerInterceptorClass() throws Exception {
+        InvocationMetrics metrics = new InvocationMetrics();
+        metrics.registerMBeans();
+        ProxyOverhead.reset();
+        ProxyOverhead.enable();
+        try {
+            Proxy.addMetricsToMethods(new Service(), metrics).work();
+
+            CompositeData overhead = (CompositeData) server.getAttribute(findMBean(Service.class), "Overhead");
+            assertEquals(overhead.get("calls"), 1L);
+            TabularData interceptors = (TabularData) overhead.get("interceptors");
+            CompositeData metricsOverhead = (CompositeData) interceptors
+                    .get(new Object[] { InterceptorMetrics.class.getName() }).get("value");
+            assertEquals(metricsOverhead.get("calls"), 1L);
+        } finally {
+            ProxyOverhead.disable();
+            ProxyOverhead.reset();
+            metrics.unregisterMBeans();
+        }
+    }
+
+    @Test
+    public void unregisterRemovesTheMBeans() throws Exception {
+        InvocationMetrics metrics = new InvocationMetrics();
+        metrics.registerMBeans();
+        Proxy.addMetricsToMethods(new Service(), metrics).work();
+        ObjectName name = findMBean(Service.class);
+        metrics.unregisterMBeans();
+
+        assertFalse(server.isRegistered(name));
+    }
+
+    private ObjectName findMBean(Class<?> proxiedClass) throws Exception {
+        Set<ObjectName> names = server
+                .queryNames(new ObjectName("com.ericsson.commonlibrary.proxy:type=ProxyStatistics,*"), null);
+        ObjectName found = null;
+        for (ObjectName name : names) {
+            if (proxiedClass.getName().equals(server.getAttribute(name, "ProxiedClass"))) {
+                found = name;
+            }
+        }
+        if (found == null) {
+            throw new AssertionError("No MBean for " + proxiedClass + " in " + names);
+        }
+        return found;
+    }
+
+    public static class Service {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        public void work() {
+        }
+
+        public void block() {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
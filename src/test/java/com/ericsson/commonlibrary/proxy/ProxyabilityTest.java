@@ -0,0 +1,111 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.testng.annotations.Test;
+
+public class ProxyabilityTest {
+
+    @Test
+    public void finalPrimitiveAndArrayClassesAreNotProxyable() throws Exception {
+        assertFalse(Proxyability.isProxyable(String.class));
+        assertFalse(Proxyability.isProxyable(Integer.class));
+        assertFalse(Proxyability.isProxyable(int.class));
+        assertFalse(Proxyability.isProxyable(Object[].class));
+    }
+
+    @Test
+    public void jdkInternalClassesAreNotProxyable() throws Exception {
+        Class<?> internal = Collections.unmodifiableList(new ArrayList<String>()).getClass();
+        assertFalse(Proxyability.isProxyable(internal));
+        assertEquals(Proxyability.getReasonNotProxyable(internal), "it's JDK internal");
+    }
+
+    @Test
+    public void classesWithPublicFieldsAreNotProxyable() throws Exception {
+        assertFalse(Proxyability.isProxyable(PublicField.class));
+        assertEquals(Proxyability.getReasonNotProxyable(PublicField.class), "it has public fields");
+    }
+
+    @Test
+    public void ordinaryClassesAreProxyable() throws Exception {
+        assertTrue(Proxyability.isProxyable(ArrayList.class));
+        assertNull(Proxyability.getReasonNotProxyable(ArrayList.class));
+    }
+
+    @Test
+    public void failedAttemptsAreRemembered() throws Exception {
+        assertTrue(Proxyability.isProxyable(Remembered.class));
+        Proxyability.markNotProxyable(Remembered.class);
+        assertFalse(Proxyability.isProxyable(Remembered.class));
+        assertNotNull(Proxyability.getReasonNotProxyable(Remembered.class));
+    }
+
+    @Test
+    public void generationFailuresAreRemembered() throws Exception {
+        assertTrue(Proxyability.isProxyable(FailedGeneration.class));
+        Proxyability.recordFailure(FailedGeneration.class, new ProxyException("Not able to create proxy"));
+        assertFalse(Proxyability.isProxyable(FailedGeneration.class));
+    }
+
+    @Test
+    public void otherRuntimeExceptionsAreNotRemembered() throws Exception {
+        Proxyability.recordFailure(FailedElsewhere.class, new IllegalStateException("transient"));
+        assertTrue(Proxyability.isProxyable(FailedElsewhere.class));
+    }
+
+    @Test
+    public void otherErrorsAreRethrownAndNotRemembered() throws Exception {
+        OutOfMemoryError error = new OutOfMemoryError("transient");
+        try {
+            Proxyability.recordFailure(FailedElsewhere.class, error);
+            fail("expected the error to be rethrown");
+        } catch (OutOfMemoryError e) {
+            assertSame(e, error);
+        }
+        assertTrue(Proxyability.isProxyable(FailedElsewhere.class));
+    }
+
+    public static class PublicField {
+        public int value;
+    }
+
+    public static class Remembered {
+    }
+
+    public static class FailedGeneration {
+    }
+
+    public static class FailedElsewhere {
+    }
+}
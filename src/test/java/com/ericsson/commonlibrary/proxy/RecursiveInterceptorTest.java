@@ -21,6 +21,17 @@ SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
 */
 package com.ericsson.commonlibrary.proxy;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.stream.Stream;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
@@ -51,6 +62,233 @@ public class RecursiveInterceptorTest {
         Assert.assertEquals(inc, 6);
     }
 
+    @Test
+    public void sameReturnedObjectReusesTheProxy() throws Exception {
+        SomeImpl intercept = Proxy.recursiveIntercept(new SomeImpl(), invocation -> {
+            inc += 1;
+            return invocation.invoke();
+        });
+
+        SomeImpl2 first = intercept.getImpl2();
+        Assert.assertTrue(first instanceof InterceptableProxy);
+        Assert.assertSame(intercept.getImpl2(), first);
+        Assert.assertSame(intercept.getImpl2().getImpl3(), first.getImpl3());
+    }
+
+    @Test
+    public void maxDepthStopsTheSpreading() throws Exception {
+        SomeImpl intercept = Proxy.recursiveIntercept(new SomeImpl(), invocation -> invocation.invoke(),
+                RecursiveInterceptOptions.options().maxDepth(1));
+
+        SomeImpl2 impl2 = intercept.getImpl2();
+        Assert.assertTrue(impl2 instanceof InterceptableProxy);
+        Assert.assertFalse(impl2.getImpl3() instanceof InterceptableProxy);
+    }
+
+    @Test
+    public void maxDepthHoldsForObjectsReturnedAtDifferentDepths() throws Exception {
+        Linked last = new Linked(null);
+        last.next = last;
+        Linked intercept = Proxy.recursiveIntercept(new Linked(last), invocation -> invocation.invoke(),
+                RecursiveInterceptOptions.options().maxDepth(2));
+
+        Linked depth1 = intercept.getNext();
+        Linked depth2 = depth1.getNext();
+        Assert.assertTrue(depth1 instanceof InterceptableProxy);
+        Assert.assertTrue(depth2 instanceof InterceptableProxy);
+        Assert.assertNotSame(depth2, depth1);
+        Assert.assertFalse(depth2.getNext() instanceof InterceptableProxy);
+    }
+
+    @Test
+    public void excludedTypesAreNotInterceptedEvenIfAlreadyProxies() throws Exception {
+        SomeImpl2 proxy = Proxy.intercept(new SomeImpl2(), invocation -> invocation.invoke());
+        int before = Proxy.getProxyInterface(proxy).getInterceptorList().size();
+        Holder intercept = Proxy.recursiveIntercept(new Holder(proxy), invocation -> invocation.invoke(),
+                RecursiveInterceptOptions.options().exclude(SomeImpl2.class::equals));
+
+        Assert.assertSame(intercept.getImpl2(), proxy);
+        Assert.assertEquals(Proxy.getProxyInterface(proxy).getInterceptorList().size(), before);
+    }
+
+    @Test
+    public void excludedTypesAreNotIntercepted() throws Exception {
+        SomeImpl intercept = Proxy.recursiveIntercept(new SomeImpl(), invocation -> invocation.invoke(),
+                RecursiveInterceptOptions.options().exclude(SomeImpl2.class::equals));
+
+        Assert.assertFalse(intercept.getImpl2() instanceof InterceptableProxy);
+    }
+
+    @Test
+    public void onlyIncludedPackagesAreIntercepted() throws Exception {
+        SomeImpl included = Proxy.recursiveIntercept(new SomeImpl(), invocation -> invocation.invoke(),
+                RecursiveInterceptOptions.options().includePackages("com.ericsson"));
+        SomeImpl notIncluded = Proxy.recursiveIntercept(new SomeImpl(), invocation -> invocation.invoke(),
+                RecursiveInterceptOptions.options().includePackages("com.eric"));
+
+        Assert.assertTrue(included.getImpl2() instanceof InterceptableProxy);
+        Assert.assertFalse(notIncluded.getImpl2() instanceof InterceptableProxy);
+    }
+
+    @Test
+    public void maxProxiedClassesLimitsTheNumberOfClasses() throws Exception {
+        SomeImpl intercept = Proxy.recursiveIntercept(new SomeImpl(), invocation -> invocation.invoke(),
+                RecursiveInterceptOptions.options().maxProxiedClasses(1));
+
+        SomeImpl2 impl2 = intercept.getImpl2();
+        Assert.assertTrue(impl2 instanceof InterceptableProxy);
+        Assert.assertFalse(impl2.getImpl3() instanceof InterceptableProxy);
+    }
+
+    @Test
+    public void valueAndJdkTypesDoNotUseUpMaxProxiedClasses() throws Exception {
+        Named intercept = Proxy.recursiveIntercept(new Named(), invocation -> invocation.invoke(),
+                RecursiveInterceptOptions.options().maxProxiedClasses(1));
+
+        Assert.assertEquals(intercept.getName(), "name");
+        Assert.assertFalse(intercept.getNames() instanceof InterceptableProxy);
+        Assert.assertTrue(intercept.getImpl2() instanceof InterceptableProxy);
+    }
+
+    @Test
+    public void objectsOnlyGetTheRecursiveInterceptorOnce() throws Exception {
+        SomeImpl intercept = Proxy.recursiveIntercept(new SomeImpl(), invocation -> invocation.invoke());
+        SomeImpl2 impl2 = intercept.getImpl2();
+        int before = Proxy.getProxyInterface(impl2).getInterceptorList().size();
+        intercept.getImpl2();
+
+        Assert.assertEquals(Proxy.getProxyInterface(impl2).getInterceptorList().size(), before);
+    }
+
+    @Test
+    public void elementsOfReturnedCollectionsAreInterceptedWhenRead() throws Exception {
+        Container intercept = Proxy.recursiveIntercept(new Container(), invocation -> invocation.invoke());
+
+        List<SomeImpl3> list = intercept.list();
+        Assert.assertFalse(list instanceof InterceptableProxy);
+        Assert.assertEquals(list.size(), 2);
+        Assert.assertTrue(list.get(0) instanceof InterceptableProxy);
+        for (SomeImpl3 element : list) {
+            Assert.assertTrue(element instanceof InterceptableProxy);
+        }
+        Assert.assertTrue(intercept.iterator().next() instanceof InterceptableProxy);
+        Assert.assertTrue(intercept.map().get("a") instanceof InterceptableProxy);
+        Assert.assertTrue(intercept.map().values().iterator().next() instanceof InterceptableProxy);
+        Assert.assertTrue(intercept.map().entrySet().iterator().next().getValue() instanceof InterceptableProxy);
+        Assert.assertTrue(intercept.map().containsKey("a"));
+    }
+
+    @Test
+    public void returnedCollectionsFollowTheEqualsContracts() throws Exception {
+        Container intercept = Proxy.recursiveIntercept(new Container(), invocation -> invocation.invoke());
+        List<String> names = Arrays.asList("a", "b");
+        Map<String, String> nameMap = Collections.singletonMap("a", "b");
+
+        Assert.assertTrue(intercept.names() instanceof RandomAccess);
+        Assert.assertTrue(intercept.names().equals(names));
+        Assert.assertTrue(names.equals(intercept.names()));
+        Assert.assertFalse(intercept.names().equals(Arrays.asList("a")));
+        Assert.assertEquals(intercept.names().hashCode(), names.hashCode());
+        Assert.assertTrue(intercept.nameSet().equals(new HashSet<>(names)));
+        Assert.assertEquals(intercept.nameSet().hashCode(), new HashSet<>(names).hashCode());
+        Assert.assertTrue(intercept.nameMap().equals(nameMap));
+        Assert.assertTrue(nameMap.equals(intercept.nameMap()));
+        Assert.assertEquals(intercept.nameMap().hashCode(), nameMap.hashCode());
+        Assert.assertTrue(intercept.nameMap().entrySet().equals(nameMap.entrySet()));
+    }
+
+    @Test
+    public void elementsOfReturnedStreamsAreInterceptedWhenConsumed() throws Exception {
+        Container intercept = Proxy.recursiveIntercept(new Container(), invocation -> invocation.invoke());
+
+        Assert.assertTrue(intercept.stream().allMatch(element -> element instanceof InterceptableProxy));
+        Assert.assertEquals(intercept.stream().count(), 2);
+    }
+
+    public static class Container {
+
+        private final List<SomeImpl3> elements = Arrays.asList(new SomeImpl3(), new SomeImpl3());
+
+        public List<SomeImpl3> list() {
+            return elements;
+        }
+
+        public Iterator<SomeImpl3> iterator() {
+            return elements.iterator();
+        }
+
+        public Stream<SomeImpl3> stream() {
+            return elements.stream();
+        }
+
+        public Map<String, SomeImpl3> map() {
+            return Collections.singletonMap("a", elements.get(0));
+        }
+
+        public List<String> names() {
+            return Arrays.asList("a", "b");
+        }
+
+        public Set<String> nameSet() {
+            return new HashSet<>(names());
+        }
+
+        public Map<String, String> nameMap() {
+            return Collections.singletonMap("a", "b");
+        }
+    }
+
+    public static class Linked {
+
+        private Linked next;
+
+        public Linked() {
+            this(null);
+        }
+
+        Linked(Linked next) {
+            this.next = next;
+        }
+
+        public Linked getNext() {
+            return next;
+        }
+    }
+
+    public static class Holder {
+
+        private final SomeImpl2 impl;
+
+        public Holder() {
+            this(null);
+        }
+
+        Holder(SomeImpl2 impl) {
+            this.impl = impl;
+        }
+
+        public SomeImpl2 getImpl2() {
+            return impl;
+        }
+    }
+
+    public static class Named {
+
+        private final SomeImpl2 impl = new SomeImpl2();
+
+        public String getName() {
+            return "name";
+        }
+
+        public ArrayList<String> getNames() {
+            return new ArrayList<>(Arrays.asList("a", "b"));
+        }
+
+        public SomeImpl2 getImpl2() {
+            return impl;
+        }
+    }
+
     public static class SomeImpl {
 
         private final SomeImpl2 impl = new SomeImpl2();
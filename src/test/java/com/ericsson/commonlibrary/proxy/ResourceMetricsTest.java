@@ -0,0 +1,87 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+public class ResourceMetricsTest {
+
+    private static final int ONE_MB = 1024 * 1024;
+
+    @Test
+    public void allocatedBytesAreMeasured() throws Exception {
+        InvocationMetrics metrics = new InvocationMetrics();
+        Worker worker = Proxy.addResourceMetricsToMethods(new Worker(), metrics);
+        if (ResourceMeter.currentThreadAllocatedBytes() == ResourceMeter.UNSUPPORTED) {
+            return; // not supported by this JVM
+        }
+        worker.allocate(ONE_MB);
+
+        MethodMetricsSnapshot snapshot = metrics.snapshot().get(Worker.class.getName() + ".allocate(int)");
+        assertTrue(snapshot.getMeanAllocatedBytes() >= ONE_MB, "allocated: " + snapshot.getMeanAllocatedBytes());
+        assertTrue(snapshot.getTotalAllocatedBytes() >= ONE_MB);
+    }
+
+    @Test
+    public void cpuTimeIsMeasured() throws Exception {
+        InvocationMetrics metrics = new InvocationMetrics();
+        Worker worker = Proxy.addResourceMetricsToMethods(new Worker(), metrics);
+        if (ResourceMeter.currentThreadCpuTime() == ResourceMeter.UNSUPPORTED) {
+            return; // not supported by this JVM
+        }
+        worker.spin(20_000_000L);
+
+        MethodMetricsSnapshot snapshot = metrics.snapshot().get(Worker.class.getName() + ".spin(long)");
+        assertTrue(snapshot.getMeanCpuNanos() > 0, "cpu: " + snapshot.getMeanCpuNanos());
+        assertTrue(snapshot.getMeanCpuNanos() <= snapshot.getMaxNanos() * 1.1);
+    }
+
+    @Test
+    public void resourcesAreNotMeasuredByDefault() throws Exception {
+        InvocationMetrics metrics = new InvocationMetrics();
+        Worker worker = Proxy.addMetricsToMethods(new Worker(), metrics);
+        worker.allocate(10);
+
+        MethodMetricsSnapshot snapshot = metrics.snapshot().get(Worker.class.getName() + ".allocate(int)");
+        assertEquals(snapshot.getMeanCpuNanos(), -1.0);
+        assertEquals(snapshot.getTotalAllocatedBytes(), -1);
+    }
+
+    public static class Worker {
+
+        public byte[] allocate(int bytes) {
+            return new byte[bytes];
+        }
+
+        public long spin(long nanos) {
+            long end = System.nanoTime() + nanos;
+            long count = 0;
+            while (System.nanoTime() < end) {
+                count++;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+public class SamplerTest {
+
+    @Test
+    public void everyNthSamplesOneCallInNWithWeightN() throws Exception {
+        Sampler sampler = Sampler.everyNth(4);
+        long sampled = 0;
+        long weight = 0;
+        for (int i = 0; i < 100; i++) {
+            long sample = sampler.sample();
+            if (sample > 0) {
+                sampled++;
+                weight += sample;
+            }
+        }
+        assertEquals(sampled, 25);
+        assertEquals(weight, 100);
+    }
+
+    @Test
+    public void probabilityExtrapolatesToAboutAllCalls() throws Exception {
+        Sampler sampler = Sampler.probability(0.1);
+        long weight = 0;
+        for (int i = 0; i < 100000; i++) {
+            weight += sampler.sample();
+        }
+        assertTrue(weight > 90000 && weight < 110000, "weight: " + weight);
+    }
+
+    @Test
+    public void probabilityWeightsAreNotRounded() throws Exception {
+        Sampler sampler = Sampler.probability(0.4);
+        long sampled = 0;
+        long weight = 0;
+        for (int i = 0; i < 10000; i++) {
+            long sample = sampler.sample();
+            if (sample > 0) {
+                sampled++;
+                weight += sample;
+            }
+        }
+        assertTrue(Math.abs(weight - sampled * 2.5) <= 3, "sampled: " + sampled + " weight: " + weight);
+    }
+
+    @Test
+    public void adaptiveSamplesEverythingUntilTheRateIsKnown() throws Exception {
+        Samplers.Adaptive sampler = (Samplers.Adaptive) Sampler.adaptive(1000);
+        assertEquals(sampler.sample(), 1);
+        assertEquals(sampler.sample(), 1);
+    }
+
+    @Test
+    public void adaptiveLowersTheRateWhenTheCallsAreFrequent() throws Exception {
+        Samplers.Adaptive sampler = (Samplers.Adaptive) Sampler.adaptive(10);
+        long end = System.nanoTime() + 300_000_000L;
+        while (System.nanoTime() < end) {
+            sampler.sample();
+        }
+        assertTrue(sampler.getN() > 1, "n: " + sampler.getN());
+    }
+
+    @Test
+    public void adaptiveWeightsAddUpToAllCalls() throws Exception {
+        Samplers.Adaptive sampler = (Samplers.Adaptive) Sampler.adaptive(10);
+        long calls = 0;
+        long weight = 0;
+        long end = System.nanoTime() + 300_000_000L;
+        while (System.nanoTime() < end) {
+            calls++;
+            weight += sampler.sample();
+        }
+        long sample;
+        do { // up to the next sampled call, that carries the calls skipped since the previous one.
+            calls++;
+            sample = sampler.sample();
+        } while (sample == 0);
+        weight += sample;
+
+        assertEquals(weight, calls);
+    }
+
+    @Test
+    public void sampledMetricsAreExtrapolated() throws Exception {
+        InvocationMetrics metrics = new InvocationMetrics();
+        Runnable runnable = Proxy.addMetricsToMethods(new Task(), metrics, Sampler.everyNth(10));
+        for (int i = 0; i < 1000; i++) {
+            runnable.run();
+        }
+
+        assertEquals(metrics.snapshot().get(Task.class.getName() + ".run()").getCount(), 1000);
+    }
+
+    @Test
+    public void unsampledTimerCallsAreStillInvoked() throws Exception {
+        Task task = new Task();
+        Runnable runnable = Proxy.addTimerToMethods(task, Sampler.everyNth(1000));
+        runnable.run();
+        runnable.run();
+
+        assertTrue(runnable instanceof InterceptableProxy);
+        assertEquals(task.runs, 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void invalidProbabilityIsRejected() throws Exception {
+        Sampler.probability(0);
+    }
+
+    public static class Task implements Runnable {
+
+        private int runs;
+
+        @Override
+        public void run() {
+            runs++;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class SingleFlightTest {
+
+    private static final int THREADS = 8;
+
+    private ExecutorService executor;
+
+    @BeforeMethod
+    public void createExecutor() {
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterMethod
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentEqualCallsShareOneExecution() throws Exception {
+        Loader original = new Loader();
+        Loader loader = Proxy.singleFlight(original);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> loader.load("key")));
+        }
+        waitForFollowers(loader, THREADS - 1);
+        original.latch.countDown();
+
+        for (Future<String> result : results) {
+            Assert.assertEquals(result.get(5, TimeUnit.SECONDS), "value-key");
+        }
+        Assert.assertEquals(original.invocations.get(), 1);
+    }
+
+    @Test
+    public void callsAfterCompletionInvokeAgain() throws Exception {
+        Loader original = new Loader();
+        original.latch.countDown();
+        Loader loader = Proxy.singleFlight(original);
+
+        loader.load("key");
+        loader.load("key");
+        loader.load("other");
+
+        Assert.assertEquals(original.invocations.get(), 3);
+    }
+
+    @Test
+    public void followersGetTheLeadersException() throws Exception {
+        Loader original = new Loader();
+        Loader loader = Proxy.singleFlight(original);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> loader.fail("key")));
+        }
+        waitForFollowers(loader, THREADS - 1);
+        original.latch.countDown();
+
+        for (Future<String> result : results) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+                Assert.fail("expected exception");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+        Assert.assertEquals(original.invocations.get(), 1);
+    }
+
+    @Test
+    public void completableFuturesAreSharedUntilCompleted() throws Exception {
+        Loader original = new Loader();
+        Loader loader = Proxy.singleFlight(original);
+
+        CompletableFuture<String> first = loader.loadAsync("key");
+        CompletableFuture<String> second = loader.loadAsync("key");
+        Assert.assertFalse(second.isDone());
+        Assert.assertEquals(original.invocations.get(), 1);
+
+        original.pending.complete("async");
+        Assert.assertEquals(first.get(5, TimeUnit.SECONDS), "async");
+        Assert.assertEquals(second.get(5, TimeUnit.SECONDS), "async");
+
+        original.pending = new CompletableFuture<>();
+        loader.loadAsync("key");
+        Assert.assertEquals(original.invocations.get(), 2);
+    }
+
+    @Test
+    public void failedCompletableFuturesFailTheFollowers() throws Exception {
+        Loader original = new Loader();
+        Loader loader = Proxy.singleFlight(original);
+
+        loader.loadAsync("key");
+        CompletableFuture<String> follower = loader.loadAsync("key");
+        original.pending.completeExceptionally(new IllegalStateException("failed"));
+
+        try {
+            follower.get(5, TimeUnit.SECONDS);
+            Assert.fail("expected exception");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void onlyTheGivenMethodsAreCoalesced() throws Exception {
+        Loader original = new Loader();
+        Loader loader = Proxy.singleFlight(original, Loader.class.getMethod("fail", String.class));
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> loader.load("key")));
+        }
+        original.latch.countDown();
+        for (Future<String> result : results) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+
+        Assert.assertEquals(original.invocations.get(), THREADS);
+    }
+
+    @Test
+    public void voidMethodsAreNotCoalescedByDefault() throws Exception {
+        Loader original = new Loader();
+        Loader loader = Proxy.singleFlight(original);
+
+        Future<?> first = executor.submit(() -> {
+            loader.send("x");
+            return null;
+        });
+        Future<?> second = executor.submit(() -> {
+            loader.send("x");
+            return null;
+        });
+        long deadline = System.currentTimeMillis() + 5000;
+        while (original.invocations.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        original.latch.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(original.invocations.get(), 2);
+    }
+
+    @Test(timeOut = 5000)
+    public void reentrantCallsFromTheLeaderAreInvokedDirectly() throws Exception {
+        Loader original = new Loader();
+        original.latch.countDown();
+        Loader loader = Proxy.singleFlight(original);
+        original.self = loader;
+
+        Assert.assertEquals(loader.reenter("key"), "reentered-key");
+        Assert.assertEquals(original.invocations.get(), 2);
+    }
+
+    @Test
+    public void waitingFollowersCanBeInterrupted() throws Exception {
+        Loader original = new Loader();
+        Loader loader = Proxy.singleFlight(original);
+        Future<String> leader = executor.submit(() -> loader.load("key"));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        Thread follower = new Thread(() -> {
+            try {
+                loader.load("key");
+            } catch (Throwable t) {
+                failure.set(t);
+                interrupted.set(Thread.currentThread().isInterrupted());
+            }
+        });
+        follower.start();
+        waitForFollowers(loader, 1);
+
+        follower.interrupt();
+        follower.join(5000);
+        Assert.assertTrue(failure.get() instanceof ProxyException, String.valueOf(failure.get()));
+        Assert.assertTrue(interrupted.get());
+        original.latch.countDown();
+        Assert.assertEquals(leader.get(5, TimeUnit.SECONDS), "value-key");
+    }
+
+    private static void waitForFollowers(Object proxy, long expected) throws InterruptedException {
+        InterceptorSingleFlight singleFlight = null;
+        for (Interceptor interceptor : Proxy.getProxyInterface(proxy).getInterceptorList()) {
+            if (interceptor instanceof InterceptorSingleFlight) {
+                singleFlight = (InterceptorSingleFlight) interceptor;
+            }
+        }
+        Assert.assertNotNull(singleFlight);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (singleFlight.getFollowerCount() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        Assert.assertEquals(singleFlight.getFollowerCount(), expected);
+    }
+
+    public static class Loader {
+
+        private final AtomicInteger invocations = new AtomicInteger();
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile CompletableFuture<String> pending = new CompletableFuture<>();
+        private volatile Loader self;
+
+        public String load(String key) throws InterruptedException {
+            invocations.incrementAndGet();
+            latch.await();
+            return "value-" + key;
+        }
+
+        public String fail(String key) throws InterruptedException {
+            invocations.incrementAndGet();
+            latch.await();
+            throw new IllegalStateException("failed");
+        }
+
+        public void send(String message) throws InterruptedException {
+            invocations.incrementAndGet();
+            latch.await();
+        }
+
+        public String reenter(String key) {
+            if (invocations.incrementAndGet() == 1) {
+                return self.reenter(key);
+            }
+            return "reentered-" + key;
+        }
+
+        public CompletableFuture<String> loadAsync(String key) {
+            invocations.incrementAndGet();
+            return pending;
+        }
+    }
+}
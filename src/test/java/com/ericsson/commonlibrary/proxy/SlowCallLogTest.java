@@ -0,0 +1,182 @@
+/*
+Copyright (c) 2018 Ericsson
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.ericsson.commonlibrary.proxy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class SlowCallLogTest {
+
+    @Test
+    public void onlySlowCallsAreLoggedFromTheBackgroundThread() throws Exception {
+        try (SlowCallLog slowCalls = new SlowCallLog(20, TimeUnit.MILLISECONDS)) {
+            Service service = Proxy.addSlowCallLogToMethods(new Service(), slowCalls);
+
+            service.fast("a");
+            service.slow("b", 30);
+
+            waitForLogged(slowCalls, 1);
+            Thread.sleep(20);
+            Assert.assertEquals(slowCalls.getLoggedCount(), 1);
+            Assert.assertEquals(slowCalls.getDroppedCount(), 0);
+        }
+    }
+
+    @Test
+    public void failedCallsAreLogged() throws Exception {
+        try (SlowCallLog slowCalls = new SlowCallLog(0, TimeUnit.MILLISECONDS)) {
+            Service service = Proxy.addSlowCallLogToMethods(new Service(), slowCalls);
+
+            try {
+                service.fail();
+                Assert.fail("expected exception");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+
+            waitForLogged(slowCalls, 1);
+        }
+    }
+
+    @Test
+    public void fullRingBufferDropsInsteadOfBlocking() throws Exception {
+        SlowCallLog slowCalls = new SlowCallLog(0, TimeUnit.MILLISECONDS, 3, false);
+        Service service = Proxy.addSlowCallLogToMethods(new Service(), slowCalls);
+
+        for (int i = 0; i < 10; i++) {
+            service.fast("a");
+        }
+
+        Assert.assertEquals(slowCalls.getDroppedCount(), 6);
+        Assert.assertEquals(slowCalls.drain(), 4);
+        Assert.assertEquals(slowCalls.getLoggedCount(), 4);
+
+        service.fast("b");
+        Assert.assertEquals(slowCalls.drain(), 1);
+        Assert.assertEquals(slowCalls.getDroppedCount(), 6);
+    }
+
+    @Test
+    public void manyArgumentsAreSummarized() throws Exception {
+        SlowCallLog slowCalls = new SlowCallLog(0, TimeUnit.MILLISECONDS, 2, false);
+        Service service = Proxy.addSlowCallLogToMethods(new Service(), slowCalls);
+
+        service.many(1, 2, 3, 4, 5, "a string that is longer than twenty characters");
+
+        Assert.assertEquals(slowCalls.drain(), 1);
+    }
+
+    @Test
+    public void callsAfterCloseAreDropped() throws Exception {
+        SlowCallLog slowCalls = new SlowCallLog(0, TimeUnit.MILLISECONDS);
+        Service service = Proxy.addSlowCallLogToMethods(new Service(), slowCalls);
+        slowCalls.close();
+
+        service.fast("a");
+
+        Assert.assertEquals(slowCalls.getDroppedCount(), 1);
+    }
+
+    @Test
+    public void closeWaitsUntilTheRecordedCallsAreLogged() throws Exception {
+        SlowCallLog slowCalls = new SlowCallLog(0, TimeUnit.MILLISECONDS);
+        Service service = Proxy.addSlowCallLogToMethods(new Service(), slowCalls);
+        for (int i = 0; i < 100; i++) {
+            service.fast("a");
+        }
+
+        slowCalls.close();
+
+        Assert.assertEquals(slowCalls.getLoggedCount(), 100);
+    }
+
+    @Test
+    public void callsRacingWithCloseAreLoggedOrDropped() throws Exception {
+        SlowCallLog slowCalls = new SlowCallLog(0, TimeUnit.MILLISECONDS, 1 << 16);
+        Service service = Proxy.addSlowCallLogToMethods(new Service(), slowCalls);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> producers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                producers.add(executor.submit(() -> {
+                    for (int j = 0; j < 250; j++) {
+                        service.fast("a");
+                    }
+                }));
+            }
+            Thread.sleep(1);
+            slowCalls.close();
+            for (Future<?> producer : producers) {
+                producer.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Assert.assertEquals(slowCalls.getLoggedCount() + slowCalls.getDroppedCount(), 1000);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void negativeThresholdIsRejected() throws Exception {
+        new SlowCallLog(-1, TimeUnit.MILLISECONDS);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void zeroCapacityIsRejected() throws Exception {
+        new SlowCallLog(1, TimeUnit.MILLISECONDS, 0);
+    }
+
+    private static void waitForLogged(SlowCallLog slowCalls, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (slowCalls.getLoggedCount() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(slowCalls.getLoggedCount(), expected);
+    }
+
+    public static class Service {
+
+        public String fast(String value) {
+            return value;
+        }
+
+        public String slow(String value, long millis) throws InterruptedException {
+            Thread.sleep(millis);
+            return value;
+        }
+
+        public void many(int a, int b, int c, int d, int e, String f) {
+            // nothing
+        }
+
+        public void fail() {
+            throw new IllegalStateException("failed");
+        }
+    }
+}
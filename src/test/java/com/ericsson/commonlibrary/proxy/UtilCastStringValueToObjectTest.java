@@ -22,10 +22,14 @@ SOFTWARE. SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
 package com.ericsson.commonlibrary.proxy;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 import java.io.File;
 import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -273,6 +277,14 @@ public class UtilCastStringValueToObjectTest {
         return null;
     }
 
+    @Test
+    public void methodConvertersAreResolvedOnce() throws Exception {
+        Method method = this.getClass().getDeclaredMethod("listVoid");
+        assertSame(StringConverters.getConverter(List.class, method),
+                StringConverters.getConverter(List.class, method));
+        assertSame(StringConverters.getConverter(Set.class, method), StringConverters.getConverter(Set.class, method));
+    }
+
     @Test
     public void castStringValueToObjectIntegerNoCollectionTest() throws Exception {
         assertEquals(Util.castStringValueToObject("22", Integer.class), (Integer) 22);
@@ -285,6 +297,66 @@ public class UtilCastStringValueToObjectTest {
         assertEquals(Util.castStringValueToObject("22", Integer.class, invocation), (Integer) 22);
     }
 
+    @Test
+    public void castStringValueToPrimitiveArrayTest() throws Exception {
+        int[] arr = Util.castStringValueToObject("1,2,3", int[].class);
+        assertEquals(arr, new int[] { 1, 2, 3 });
+    }
+
+    @Test
+    public void castStringValueToListTrailingSeparatorsTest() throws Exception {
+        List<String> list = Util.castStringValueToObject("one,,two,,", List.class);
+        assertEquals(list, Arrays.asList("one", "", "two"));
+    }
+
+    @Test
+    public void castStringValueToObjectValueOfTypeTest() throws Exception {
+        assertEquals(Util.castStringValueToObject("1.5", BigDecimal.class), new BigDecimal("1.5"));
+        assertEquals(Util.castStringValueToObject("PT1S", FromStringType.class).value, "PT1S");
+    }
+
+    @Test
+    public void castStringValueToObjectStringConstructorTypeTest() throws Exception {
+        assertEquals(Util.castStringValueToObject("12345678901234567890", BigInteger.class),
+                new BigInteger("12345678901234567890"));
+    }
+
+    @Test
+    public void castStringValueToMethodReturnTypeUserTypeListTest() throws Exception {
+        Method method = this.getClass().getDeclaredMethod("listBigDecimal");
+        List list = Util.castStringValueToMethodReturnType("1.1,2.2", List.class, method);
+        assertEquals(list, Arrays.asList(new BigDecimal("1.1"), new BigDecimal("2.2")));
+    }
+
+    List<BigDecimal> listBigDecimal() {
+        return null;
+    }
+
+    @Test
+    public void castStringValueToMethodReturnTypeMapOfEnumTest() throws Exception {
+        Method method = this.getClass().getDeclaredMethod("mapEnumLong");
+        Map<MyEnum, Long> map = Util.castStringValueToMethodReturnType("Val1=1,Val3=3", Map.class, method);
+        assertEquals(map.get(MyEnum.Val1), (Long) 1L);
+        assertEquals(map.get(MyEnum.Val3), (Long) 3L);
+    }
+
+    Map<MyEnum, Long> mapEnumLong() {
+        return null;
+    }
+
+    public static final class FromStringType {
+
+        private final String value;
+
+        private FromStringType(String value) {
+            this.value = value;
+        }
+
+        public static FromStringType fromString(String value) {
+            return new FromStringType(value);
+        }
+    }
+
     enum MyEnum {
         Val1, Val2, Val3;
     }